@@ -0,0 +1,30 @@
+package com.felixullmann.graphs;
+
+import org.openjdk.jmh.profile.GCProfiler;
+
+import java.util.Arrays;
+
+/**
+ * Main class of target/benchmarks.jar. It takes the command line of the JMH runner and adds the GC profiler, so every
+ * run also reports the allocation rate, e.g. gc.alloc.rate.norm in bytes per operation. An explicit -prof gc is
+ * not added twice. To run without the profiler, start org.openjdk.jmh.Main from the jar instead.
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean profiled = false;
+        for(int i = 0; i + 1 < args.length; i++) {
+            if(args[i].equals("-prof") && (args[i+1].equals("gc") || args[i+1].equals(GCProfiler.class.getName())))
+                profiled = true;
+        }
+        if(!profiled) {
+            args = Arrays.copyOf(args, args.length + 2);
+            args[args.length - 2] = "-prof";
+            args[args.length - 1] = "gc";
+        }
+        org.openjdk.jmh.Main.main(args);
+    }
+}
@@ -0,0 +1,48 @@
+package com.felixullmann.graphs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greedy covers with the three comparators of CsrGraph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GreedyBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int n;
+
+    @Param({"maxDegree", "neighborWeightRatio", "neighborWeightDifference"})
+    public String comparator;
+
+    private CsrGraph graph;
+    private Comparator<Integer> order;
+
+    @Setup
+    public void setUp() {
+        graph = SyntheticGraphs.random(n, 8, 42);
+        switch(comparator) {
+            case "maxDegree":
+                order = graph.maxDegreeComparator;
+                break;
+            case "neighborWeightRatio":
+                order = graph.neighborWeightRatioComparator;
+                break;
+            default:
+                order = graph.neighborWeightDifferenceComparator;
+                break;
+        }
+    }
+
+    @Benchmark
+    public IntVertexSet getGreedyCover() {
+        return graph.getGreedyCover(order);
+    }
+}
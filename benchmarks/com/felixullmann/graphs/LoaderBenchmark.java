@@ -0,0 +1,48 @@
+package com.felixullmann.graphs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a vehicle routing instance that is written to a temporary directory once per trial.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoaderBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int n;
+
+    private File directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("vrp").toFile();
+        SyntheticGraphs.writeVehicleRouting(SyntheticGraphs.random(n, 8, 42), directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for(File file : directory.listFiles())
+            file.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public IntegerGraph fromVehicleRoutingApplication() {
+        return IntegerGraph.fromVehicleRoutingApplication(directory.getPath());
+    }
+
+    @Benchmark
+    public CsrGraph vrpLoader() throws IOException {
+        return VrpLoader.load(directory.getPath());
+    }
+}
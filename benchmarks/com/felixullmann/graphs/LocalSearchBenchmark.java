@@ -0,0 +1,46 @@
+package com.felixullmann.graphs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete local search runs from the greedy cover up to k = 3.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalSearchBenchmark {
+
+    private static final int K_MAX = 3;
+
+    @Param({"1000", "4000", "16000"})
+    public int n;
+
+    private CsrGraph graph;
+    private IntVertexSet greedy;
+
+    @Setup
+    public void setUp() {
+        graph = SyntheticGraphs.random(n, 8, 42);
+        greedy = graph.getGreedyCover(graph.neighborWeightDifferenceComparator);
+    }
+
+    @Benchmark
+    public IntVertexSet localSearch() {
+        return graph.localSearch(greedy, K_MAX, 0);
+    }
+
+    @Benchmark
+    public IntVertexSet localSearch_cycling() {
+        return graph.localSearch_cycling(greedy, K_MAX, 0);
+    }
+
+    @Benchmark
+    public IntVertexSet localSearch_pruning() {
+        return graph.localSearch_pruning(greedy, K_MAX, 0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.felixullmann.graphs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reductions of Main on sparse random graphs, where they remove a large part of the vertices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReductionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int n;
+
+    private CsrGraph graph;
+
+    @Setup
+    public void setUp() {
+        graph = SyntheticGraphs.random(n, 3, 42);
+    }
+
+    @Benchmark
+    public IntVertexSet preprocess() {
+        return graph.preprocess(new boolean[graph.n]);
+    }
+
+    @Benchmark
+    public IntVertexSet doCliquePruning() {
+        return graph.doCliquePruning(new boolean[graph.n]);
+    }
+
+    @Benchmark
+    public CsrGraph kernelPipeline() {
+        return KernelPipeline.withDefaultRules(graph).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.felixullmann.graphs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set algebra of the hash based Set against the bitset based IntVertexSet, on two random halves of 0..size-1.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Set<Integer> a, b;
+    private IntVertexSet intA, intB, destination;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        a = new Set<>();
+        b = new Set<>();
+        intA = new IntVertexSet(size);
+        intB = new IntVertexSet(size);
+        destination = new IntVertexSet(size);
+        for(int v = 0; v < size; v++) {
+            if(random.nextBoolean()) {
+                a.add(v);
+                intA.add(v);
+            }
+            if(random.nextBoolean()) {
+                b.add(v);
+                intB.add(v);
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<Integer> union() {
+        return a.union(b);
+    }
+
+    @Benchmark
+    public Set<Integer> intersect() {
+        return a.intersect(b);
+    }
+
+    @Benchmark
+    public Set<Integer> minus() {
+        return a.minus(b);
+    }
+
+    @Benchmark
+    public IntVertexSet intVertexSetUnion() {
+        return IntVertexSet.union(intA, intB, destination);
+    }
+
+    @Benchmark
+    public IntVertexSet intVertexSetIntersect() {
+        return IntVertexSet.intersect(intA, intB, destination);
+    }
+
+    @Benchmark
+    public IntVertexSet intVertexSetMinus() {
+        return IntVertexSet.minus(intA, intB, destination);
+    }
+}
@@ -0,0 +1,58 @@
+package com.felixullmann.graphs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One swap search per invocation for the next vertex of a greedy cover, with the recursive enumerate of IntegerGraph
+ * and the iterative SwapEnumerator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SwapBenchmark {
+
+    @Param({"1000", "10000"})
+    public int n;
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int k;
+
+    private IntegerGraph integerGraph;
+    private Set<Integer> integerCover;
+    private SwapEnumerator enumerator;
+    private IntVertexSet cover;
+    private int[] roots;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CsrGraph graph = SyntheticGraphs.random(n, 8, 42);
+        cover = graph.getGreedyCover(graph.neighborWeightDifferenceComparator);
+        roots = cover.toIntArray();
+        enumerator = new SwapEnumerator(graph, k);
+        integerGraph = graph.toIntegerGraph();
+        integerCover = graph.toLabels(cover);
+    }
+
+    private int nextRoot() {
+        int root = roots[next];
+        next = (next + 1) % roots.length;
+        return root;
+    }
+
+    @Benchmark
+    public Set<Integer> enumerate() {
+        // labels and dense ids are equal for the synthetic graphs
+        return integerGraph.generateSwap(k, nextRoot(), integerCover);
+    }
+
+    @Benchmark
+    public boolean swapEnumerator() {
+        return enumerator.generateSwap(k, nextRoot(), cover);
+    }
+}
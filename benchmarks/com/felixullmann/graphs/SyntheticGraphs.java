@@ -0,0 +1,57 @@
+package com.felixullmann.graphs;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Random graphs for the benchmarks. Edges are drawn uniformly, weights follow the default scheme of GraphLoader.
+ */
+public class SyntheticGraphs {
+
+    private SyntheticGraphs() {
+    }
+
+    /**
+     * @param n number of vertices
+     * @param averageDegree expected degree of a vertex, parallel edges and loops are dropped
+     * @param seed seed of the random generator, equal seeds give equal graphs
+     * @return returns the graph with labels 0..n-1
+     */
+    public static CsrGraph random(int n, int averageDegree, long seed) {
+        Random random = new Random(seed);
+        int m = (int) ((long) n * averageDegree / 2);
+        int[] labels = new int[n], from = new int[m], to = new int[m];
+        long[] weights = new long[n];
+        for(int v = 0; v < n; v++) {
+            labels[v] = v;
+            weights[v] = v % 200 + 1;
+        }
+        for(int e = 0; e < m; e++) {
+            from[e] = random.nextInt(n);
+            to[e] = random.nextInt(n);
+        }
+        return CsrGraph.fromEdges(labels, weights, from, to, m);
+    }
+
+    /**
+     * Writes a graph as vehicle routing instance, i.e. conflict_graph.txt and node_weights.txt in directory.
+     */
+    public static void writeVehicleRouting(CsrGraph graph, File directory) throws IOException {
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(new File(directory, "conflict_graph.txt")), 1 << 16)) {
+            writer.write(graph.n + " " + graph.edgeCount() + "\n");
+            for(int v = 0; v < graph.n; v++) {
+                for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                    if(graph.targets[i] > v)
+                        writer.write(graph.labels[v] + " " + graph.labels[graph.targets[i]] + "\n");
+                }
+            }
+        }
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(new File(directory, "node_weights.txt")), 1 << 16)) {
+            for(int v = 0; v < graph.n; v++)
+                writer.write(graph.labels[v] + " " + graph.weights[v] + "\n");
+        }
+    }
+}
@@ -1,8 +1,31 @@
-import com.felixullmann.graphs.IntegerGraph;
+import com.felixullmann.graphs.ComponentCache;
+import com.felixullmann.graphs.ComponentScheduler;
+import com.felixullmann.graphs.ConfigurationCheckingSearch;
+import com.felixullmann.graphs.ConsoleMetrics;
+import com.felixullmann.graphs.CountingMetrics;
+import com.felixullmann.graphs.CoverValidator;
+import com.felixullmann.graphs.CoverWriter;
+import com.felixullmann.graphs.CsrGraph;
+import com.felixullmann.graphs.ExactSolver;
+import com.felixullmann.graphs.GraphLoader;
+import com.felixullmann.graphs.IntVertexSet;
+import com.felixullmann.graphs.KernelPipeline;
+import com.felixullmann.graphs.KernelSnapshot;
+import com.felixullmann.graphs.LpRelaxation;
+import com.felixullmann.graphs.Portfolio;
+import com.felixullmann.graphs.JfrMetrics;
+import com.felixullmann.graphs.SearchBudget;
 import com.felixullmann.graphs.Set;
+import com.felixullmann.graphs.SolverMetrics;
+import com.felixullmann.graphs.VrpLoader;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.TreeSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*
     USED DATASETS
@@ -20,6 +43,22 @@ public class Main {
         boolean vertexPruning = false;
         boolean cliquePruning = false;
         boolean splitSubgraphs = false;
+        boolean parallelSearch = false;
+        boolean portfolio = false;
+        boolean edgeWeighting = false;
+        boolean lpBound = false;
+        boolean reductions = false;
+        String kernelCache = null;
+        String weightFileName = null;
+        String outputFileName = null;
+        boolean certificate = false;
+        int threads = 1;
+        boolean countMetrics = false;
+        boolean jfrEvents = false;
+        boolean quiet = false;
+        Double timeLimit = null;
+        int exactSize = ExactSolver.DEFAULT_MAX_VERTICES;
+        int cacheSize = ComponentCache.DEFAULT_CAPACITY;
 
         // TODO might add argument for --help flag that outputs verbose description for flags and positional arguments
 
@@ -43,6 +82,72 @@ public class Main {
                 case "--split-subgraphs":
                     splitSubgraphs = true;
                     break;
+                case "-t":
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-p":
+                case "--parallel-search":
+                    parallelSearch = true;
+                    break;
+                case "-P":
+                case "--portfolio":
+                    portfolio = true;
+                    break;
+                case "-E":
+                case "--engine":
+                    String engine = args[++i];
+                    if(!engine.equals("swap") && !engine.equals("cc")) {
+                        System.err.println("Unknown search engine: " + engine + ", use swap or cc");
+                        System.exit(1);
+                    }
+                    edgeWeighting = engine.equals("cc");
+                    break;
+                case "-L":
+                case "--lp-bound":
+                    lpBound = true;
+                    break;
+                case "-R":
+                case "--reductions":
+                    reductions = true;
+                    break;
+                case "-C":
+                case "--kernel-cache":
+                    kernelCache = args[++i];
+                    break;
+                case "-w":
+                case "--weights":
+                    weightFileName = args[++i];
+                    break;
+                case "-o":
+                case "--output":
+                    outputFileName = args[++i];
+                    break;
+                case "--certificate":
+                    certificate = true;
+                    break;
+                case "-m":
+                case "--metrics":
+                    countMetrics = true;
+                    break;
+                case "--jfr":
+                    jfrEvents = true;
+                    break;
+                case "-q":
+                case "--quiet":
+                    quiet = true;
+                    break;
+                case "-e":
+                case "--exact":
+                    exactSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--cache":
+                    cacheSize = Integer.parseInt(args[++i]);
+                    break;
+                case "-T":
+                case "--time-limit":
+                    timeLimit = Double.parseDouble(args[++i]);
+                    break;
                 default:
                     if (inputFileName == null) {
                         inputFileName = arg;
@@ -59,78 +164,288 @@ public class Main {
 
         if (inputFileName == null || k_max == null) {
             // Handle missing arguments
-            System.err.println("Usage: inputfile k_max [-g][-v][-s] ");
+            System.err.println("Usage: inputfile k_max [-g][-v][-c][-R][-L][-s][-t threads][-p][-P][-E swap|cc][-C cachedir][-w weightfile][-o coverfile][--certificate][-m][--jfr][-q][-T seconds][-e size][--cache size] ");
             System.exit(1);
         }
 
-        // Initialize graph
-        IntegerGraph myGraph = null;
+        // The time limit counts from here, the search returns the best cover it has found when it is reached
+        SearchBudget budget = timeLimit == null ? null : SearchBudget.ofMillis((long) (timeLimit * 1000));
+
+        // Progress is printed unless -q is given, counters and JFR events only on request
+        CountingMetrics counters = countMetrics ? new CountingMetrics() : null;
+        SolverMetrics metrics = SolverMetrics.of(quiet ? SolverMetrics.NONE : new ConsoleMetrics(),
+                countMetrics ? counters : SolverMetrics.NONE,
+                jfrEvents ? new JfrMetrics() : SolverMetrics.NONE);
+
+        // Initialize graph, or restore the reduced graph of an earlier run with the same instance and reductions
+        CsrGraph csrGraph = null;
+        KernelSnapshot snapshot = null;
+        File snapshotFile = null;
         Set<Integer> minimumVertexCover = new Set<>();
 
-        try {
-            myGraph = IntegerGraph.fromVehicleRoutingApplication(inputFileName);
-        } catch (IndexOutOfBoundsException e) {
-            System.out.println("Error initializing graph.");
-            System.exit(1);
+        // a directory holds a vehicle routing instance, a single file is a DIMACS, Matrix Market or edge list graph
+        boolean vehicleRouting = new File(inputFileName).isDirectory();
+        List<File> inputFiles = new ArrayList<>();
+        if(vehicleRouting) {
+            inputFiles.add(new File(inputFileName, "conflict_graph.txt"));
+            inputFiles.add(new File(inputFileName, "node_weights.txt"));
+        } else {
+            inputFiles.add(new File(inputFileName));
+            if(weightFileName != null)
+                inputFiles.add(new File(weightFileName));
         }
 
-        int edgecount = 0;
-        for(Set<Integer> neighbors : myGraph.adjacency.values()) {
-            edgecount += neighbors.size();
+        if(kernelCache != null && reductions) {
+            // the snapshot has no room for the fold log of the reduction rules
+            System.out.println("Kernel cache is not used together with -R.");
+            kernelCache = null;
         }
-        edgecount /= 2;
+
+        long phaseStart = System.nanoTime();
+        try {
+            if(kernelCache != null) {
+                String flags = (vertexPruning ? "v" : "") + (cliquePruning ? "c" : "");
+                snapshotFile = new File(kernelCache, KernelSnapshot.key(flags, inputFiles.toArray(new File[0])) + ".kernel");
+                // a broken snapshot is only a cache miss, the kernel is rebuilt and written again
+                boolean cached = snapshotFile.exists();
+                snapshot = KernelSnapshot.readCached(snapshotFile);
+                if(cached && snapshot == null)
+                    System.out.println("Warning: kernel snapshot " + snapshotFile + " could not be read and was deleted.");
+            }
+            if(snapshot == null && vehicleRouting)
+                csrGraph = VrpLoader.load(inputFileName, threads);
+            else if(snapshot == null)
+                csrGraph = GraphLoader.load(inputFileName, weightFileName);
+        } catch (IOException e) {
+            System.out.println("Required files could not be read: " + e.getMessage());
+            System.exit(0);
+        }
+
+        long loadNanos = System.nanoTime() - phaseStart;
+        metrics.phase("load", loadNanos);
+        // the throughput of the files that were actually read, the snapshot replaces the instance files
+        long loadedBytes = 0;
+        for(File file : snapshot != null ? Collections.singletonList(snapshotFile) : inputFiles)
+            loadedBytes += file.length();
+        double megabytes = loadedBytes / (1024.0 * 1024.0);
+        System.out.println(String.format("Loaded %.1f MB in %s ms (%.1f MB/s)", megabytes, loadNanos / 1000000, megabytes / (loadNanos / 1e9)));
         System.out.println("Initialized Graph.");
-        System.out.println(String.format("Added %s vertices and %s edges", myGraph.vertices.size(), edgecount));
+        if(snapshot != null) {
+            System.out.println(String.format("Added %s vertices and %s edges", snapshot.vertexCount, snapshot.edgeCount));
+            System.out.println(String.format("Restored kernel with %s vertices and %s forced vertices from %s", snapshot.kernel.n, snapshot.forced.length, snapshotFile));
+        } else {
+            System.out.println(String.format("Added %s vertices and %s edges", csrGraph.n, csrGraph.edgeCount()));
+        }
 
         long start = System.currentTimeMillis();
 
-        // Optional vertex pruning
-        if(vertexPruning) {
-            minimumVertexCover.addAll(myGraph.preprocess());
+        CsrGraph kernel;
+        long forcedWeight;
+        KernelPipeline pipeline = null;
+
+        if(snapshot != null) {
+            kernel = snapshot.kernel;
+            forcedWeight = snapshot.forcedWeight;
+            for(int vertex : snapshot.forced)
+                minimumVertexCover.add(vertex);
+        } else {
+            phaseStart = System.nanoTime();
+            csrGraph.metrics = metrics;
+            boolean[] removed = new boolean[csrGraph.n];
+
+            // Optional vertex pruning
+            if(vertexPruning) {
+                minimumVertexCover.addAll(csrGraph.toLabels(csrGraph.preprocess(removed)));
+            }
+
+            // TODO edge (8,15) was added to toyproblem2 (for clique pruning), has been removed again
+            // Optional clique pruning
+            if(cliquePruning) {
+                minimumVertexCover.addAll(csrGraph.toLabels(csrGraph.doCliquePruning(removed)));
+            }
+
+            // without pruning nothing was removed and the copy is not needed
+            kernel = vertexPruning || cliquePruning ? csrGraph.without(removed) : csrGraph;
+            forcedWeight = csrGraph.getSetWeight(csrGraph.toIds(minimumVertexCover));
+
+            // Optional reduction rules, folded vertices are only known after the kernel is solved
+            if(reductions) {
+                pipeline = KernelPipeline.withDefaultRules(kernel);
+                kernel = pipeline.run();
+                forcedWeight += pipeline.getOffset();
+                for(int r = 0; r < pipeline.getRuleCount(); r++) {
+                    System.out.println(String.format("Reduction %s: applied %s times, removed %s vertices in %s ms",
+                            pipeline.getRuleName(r), pipeline.getApplications(r), pipeline.getRemoved(r), pipeline.getNanos(r) / 1000000));
+                }
+                System.out.println("Kernel has " + kernel.n + " of " + pipeline.input.n + " vertices and " + kernel.edgeCount()
+                        + " edges, weight offset " + pipeline.getOffset());
+            }
+
+            if(snapshotFile != null) {
+                int[] forced = new int[minimumVertexCover.size()];
+                int i = 0;
+                for(Integer vertex : minimumVertexCover)
+                    forced[i++] = vertex;
+                try {
+                    new KernelSnapshot(kernel, forced, forcedWeight, csrGraph.n, csrGraph.edgeCount()).write(snapshotFile);
+                } catch (IOException e) {
+                    System.out.println("Kernel snapshot could not be written: " + e.getMessage());
+                }
+            }
+            metrics.phase("reductions", System.nanoTime() - phaseStart);
         }
 
-        // TODO edge (8,15) was added to toyproblem2 (for clique pruning), has been removed again
-        // Optional clique pruning
-        if(cliquePruning) {
-            minimumVertexCover.addAll(myGraph.doCliquePruning());
+        // Optional LP relaxation, vertices with x = 1 are fixed in the cover, those with x = 0 are dropped
+        CsrGraph searchGraph = kernel;
+        long fixedWeight = 0;
+        long lowerBound = -1;
+        if(lpBound) {
+            phaseStart = System.nanoTime();
+            LpRelaxation lp = new LpRelaxation(kernel).solve();
+            IntVertexSet ones = lp.getOnes(), halves = lp.getHalves();
+            minimumVertexCover.addAll(kernel.toLabels(ones));
+            fixedWeight = kernel.getSetWeight(ones);
+            lowerBound = forcedWeight + lp.getLowerBound();
+            searchGraph = kernel.induced(halves.toIntArray());
+            System.out.println(String.format("LP relaxation: %s vertices fixed in the cover, %s removed, %s remain, lower bound %s",
+                    ones.size(), kernel.n - ones.size() - halves.size(), halves.size(), lowerBound));
+            metrics.phase("lp", System.nanoTime() - phaseStart);
         }
 
         // Optional disconnected subgraph splitting (subgraphs are in ascending order by vertexcount)
-        TreeSet<IntegerGraph> graphs = new TreeSet<>(Comparator.comparingInt((IntegerGraph g) -> g.vertices.size()).thenComparing(g -> g.vertices.toString()));
+        List<CsrGraph> graphs = new ArrayList<>();
 
         if(splitSubgraphs) {
-            graphs.addAll(myGraph.getDisconnectedSubgraphs(myGraph.vertices));
+            graphs.addAll(searchGraph.getDisconnectedSubgraphs());
+            graphs.sort(Comparator.comparingInt((CsrGraph g) -> g.n));
         } else {
-            graphs.add(myGraph);
+            graphs.add(searchGraph);
+        }
+        boolean bounded = lpBound;
+        graphs.forEach(g -> {
+            g.metrics = metrics;
+            g.budget = budget;
+            // the remaining vertices have x = 1/2, so half their weight is the LP bound of every component
+            if(bounded)
+                g.lowerBound = (g.getSetWeight(g.getVertices()) + 1) / 2;
+        });
+
+        // Components up to exactSize vertices are solved optimally, unless the branch and reduce takes too long.
+        // Components of the same shape and weights are solved once, the cache maps the cover onto the others
+        long exactWeight = 0;
+        if(exactSize > 0) {
+            phaseStart = System.nanoTime();
+            ComponentCache cache = cacheSize > 0 ? new ComponentCache(cacheSize) : null;
+            int solved = 0, vertices = 0;
+            List<CsrGraph> remaining = new ArrayList<>();
+            for(CsrGraph graph : graphs) {
+                IntVertexSet cover = graph.n > exactSize ? null
+                        : cache != null ? cache.solve(graph) : new ExactSolver(graph).solve();
+                if(cover == null) {
+                    remaining.add(graph);
+                    continue;
+                }
+                minimumVertexCover.addAll(graph.toLabels(cover));
+                exactWeight += graph.getSetWeight(cover);
+                solved++;
+                vertices += graph.n;
+            }
+            if(solved > 0)
+                System.out.println(String.format("Exact solver: %s components with %s vertices solved optimally, %s left to the search",
+                        solved, vertices, remaining.size()));
+            if(cache != null && cache.getHits() + cache.getMisses() > 0)
+                System.out.println(String.format("Component cache: %s hits, %s misses", cache.getHits(), cache.getMisses()));
+            graphs = remaining;
+            metrics.phase("exact", System.nanoTime() - phaseStart);
         }
 
         // Optional calculation of greedy solutions
+        phaseStart = System.nanoTime();
         if(greedySolution) {
-            graphs.forEach(g -> g.initialSolution = g.getGreedyCover(g.vertices, g.neighborWeightDifferenceComparator));
+            graphs.forEach(g -> g.initialSolution = g.getGreedyCover(g.neighborWeightDifferenceComparator));
         } else {
-            graphs.forEach(g -> g.initialSolution = (Set<Integer>) g.vertices.clone());
+            graphs.forEach(g -> g.initialSolution = g.getVertices());
         }
+        metrics.phase("greedy", System.nanoTime() - phaseStart);
 
         // Calculate Vertex Cover
-        long totalWeight = myGraph.getSetWeight(minimumVertexCover);
-        for(IntegerGraph graph: graphs) {
+        long totalWeight = forcedWeight + fixedWeight + exactWeight;
+        for(CsrGraph graph: graphs) {
             totalWeight += graph.getSetWeight(graph.initialSolution);
         }
 
-        Set<Integer> currentSolution;
+        phaseStart = System.nanoTime();
+        if(threads > 1 && !parallelSearch && !portfolio && !edgeWeighting) {
+            // Components are solved in parallel, largest first
+            minimumVertexCover.addAll(new ComponentScheduler(threads).solve(graphs, k_max, new AtomicLong(totalWeight)));
+        } else {
+            // With -p the threads evaluate the swap roots inside each component instead
+            int searchThreads = parallelSearch ? threads : 1;
+            IntVertexSet currentSolution;
+
+            for(CsrGraph graph : graphs) {
+                totalWeight -= graph.getSetWeight(graph.initialSolution);
+                if(portfolio && graph.n >= Portfolio.MIN_VERTICES) {
+                    // With -P every combination of search and greedy order runs on its own thread, followed by perturbations
+                    Portfolio runs = new Portfolio(threads, k_max, 1);
+                    if(budget != null)
+                        runs.setTimeLimit(budget.remainingNanos() / 1000000);
+                    currentSolution = runs.solve(graph);
+                    System.out.println("Portfolio: best cover by " + runs.getBestRun());
+                } else if(edgeWeighting) {
+                    // With -E cc the edge weighting search runs first, the swaps up to k_max polish its best cover
+                    currentSolution = new ConfigurationCheckingSearch(graph, 1).solve(graph.initialSolution, totalWeight);
+                    currentSolution = graph.localSearch_pruning(currentSolution, k_max, totalWeight, searchThreads);
+                } else {
+                    currentSolution = graph.localSearch_pruning(graph.initialSolution, k_max, totalWeight, searchThreads);
+                }
+                totalWeight += graph.getSetWeight(currentSolution);
+                minimumVertexCover.addAll(graph.toLabels(currentSolution));
+            }
+        }
 
-        for(IntegerGraph graph : graphs) {
-            totalWeight -= graph.getSetWeight(graph.initialSolution);
-            currentSolution = graph.localSearch_pruning(graph.initialSolution, k_max, totalWeight);
-            totalWeight += graph.getSetWeight(currentSolution);
-            minimumVertexCover.addAll(currentSolution);
+        if(pipeline != null) {
+            IntVertexSet unfolded = pipeline.unfold(kernel.toIds(minimumVertexCover));
+            minimumVertexCover.addAll(pipeline.input.toLabels(unfolded));
         }
+        metrics.phase("search", System.nanoTime() - phaseStart);
+        if(budget != null && budget.isExhausted())
+            System.out.println("Time limit reached, the cover is the best one found so far.");
 
         long time = (System.currentTimeMillis() - start);
         System.out.println("Finished Running in " + time + " milliseconds (" + time/1000 + " seconds.)");
-        System.out.println("Solution weight: " + myGraph.getSetWeight(minimumVertexCover));
-        System.out.println("Solution is cover: " + myGraph.isVertexCover(minimumVertexCover));
+        long solutionWeight;
+        // the original graph, or the kernel if it was not loaded, as the forced vertices cover every edge outside of it
+        CsrGraph checkedGraph = csrGraph != null ? csrGraph : kernel;
+        IntVertexSet solution = checkedGraph.toIds(minimumVertexCover);
+        solutionWeight = (csrGraph != null ? 0 : forcedWeight) + checkedGraph.getSetWeight(solution);
+        System.out.println("Solution weight: " + solutionWeight);
+        int[] uncovered = new CoverValidator(threads).findUncoveredEdge(checkedGraph, solution);
+        System.out.println("Solution is cover: " + (uncovered == null));
+        if(uncovered != null)
+            System.out.println(String.format("First uncovered edge: %s %s", checkedGraph.labels[uncovered[0]], checkedGraph.labels[uncovered[1]]));
 
+        // Optional output of the cover in original vertex ids, with a certificate of its size, weight and checksum
+        if(outputFileName != null) {
+            int[] labels = minimumVertexCover.stream().mapToInt(Integer::intValue).sorted().toArray();
+            try {
+                long checksum = CoverWriter.write(new File(outputFileName), labels);
+                System.out.println(String.format("Wrote %s vertices to %s", labels.length, outputFileName));
+                if(certificate) {
+                    CoverWriter.writeCertificate(new File(outputFileName + ".cert"), labels.length, solutionWeight, checksum);
+                    System.out.println("Wrote certificate to " + outputFileName + ".cert");
+                }
+            } catch (IOException e) {
+                System.out.println("Cover could not be written: " + e.getMessage());
+            }
+        }
+        if(lowerBound >= 0) {
+            System.out.println(String.format("Lower bound: %s, gap: %.4f%%%s", lowerBound,
+                    lowerBound == 0 ? 0.0 : 100.0 * (solutionWeight - lowerBound) / lowerBound,
+                    solutionWeight == lowerBound ? " (optimal)" : ""));
+        }
+        if(counters != null)
+            System.out.print(counters.report());
 
     }
 }
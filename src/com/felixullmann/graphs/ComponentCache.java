@@ -0,0 +1,259 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of optimal covers of small components, keyed by a canonical form of the weighted graph.
+ * The vertices are ordered by color refinement, which starts from the weights and splits the colors by the colors of
+ * the neighbors until they are stable. Ties are broken by individualizing each vertex of the first color class that is
+ * not a single vertex, and the smallest encoding of all orders found is the key. The encoding holds the weights and rows
+ * of the whole graph in that order, so equal keys always mean isomorphic graphs with the same weights, and the cover
+ * that is stored by position can be mapped onto the vertices of any graph with the same key. Highly symmetric graphs
+ * have more orders than MAX_LEAVES, then two copies may get different keys, which only costs a miss.
+ *
+ * The least recently used entry is evicted once the cache is full. Graphs that ExactSolver gives up on are cached too,
+ * so they are not tried again. Below MIN_VERTICES the key takes as long as the search itself, such graphs are solved
+ * without the cache. All methods are synchronized, one cache can be shared by threads and kept across runs.
+ */
+public class ComponentCache {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int MIN_VERTICES = 16;
+    private static final int MAX_LEAVES = 64;
+    private static final int[] UNSOLVED = {-1};
+
+    private final LinkedHashMap<Key, int[]> entries;
+    private long hits;
+    private long misses;
+
+    private static final class Key {
+        final long[] code;
+        final int hash;
+
+        Key(long[] code) {
+            this.code = code;
+            this.hash = Arrays.hashCode(code);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && hash == ((Key) other).hash && Arrays.equals(code, ((Key) other).code);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * @param capacity maximum number of cached components
+     */
+    public ComponentCache(int capacity) {
+        this.entries = new LinkedHashMap<Key, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public ComponentCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the cached cover of a graph with the same canonical form, or solves the graph with ExactSolver and caches it.
+     * @return returns a minimum weight vertex cover in dense ids of graph, or null if ExactSolver gave up on it
+     */
+    public IntVertexSet solve(CsrGraph graph) {
+        if(graph.n < MIN_VERTICES)
+            return new ExactSolver(graph).solve();
+
+        Search form = canonicalForm(graph);
+        int[] order = form.bestOrder;
+        Key key = new Key(form.bestCode);
+
+        int[] positions;
+        synchronized(this) {
+            positions = entries.get(key);
+            if(positions != null)
+                hits++;
+            else
+                misses++;
+        }
+
+        if(positions == null) {
+            IntVertexSet cover = new ExactSolver(graph).solve();
+            if(cover == null) {
+                positions = UNSOLVED;
+            } else {
+                int[] position = new int[graph.n];
+                for(int p = 0; p < graph.n; p++)
+                    position[order[p]] = p;
+                positions = new int[cover.size()];
+                int i = 0;
+                for(int v = cover.nextSetBit(0); v >= 0; v = cover.nextSetBit(v + 1))
+                    positions[i++] = position[v];
+            }
+            synchronized(this) {
+                entries.put(key, positions);
+            }
+        }
+
+        if(positions == UNSOLVED)
+            return null;
+        IntVertexSet cover = new IntVertexSet(graph.n);
+        for(int p : positions)
+            cover.add(order[p]);
+        return cover;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return returns the search for the canonical form of graph, which holds the order and the code of it
+     */
+    static Search canonicalForm(CsrGraph graph) {
+        Search search = new Search(graph);
+        search.explore(refine(graph, rank(graph.weights)));
+        return search;
+    }
+
+    static final class Search {
+        final CsrGraph graph;
+        long[] bestCode;
+        int[] bestOrder;        // the dense id at every position of the canonical form
+        int leaves;
+
+        Search(CsrGraph graph) {
+            this.graph = graph;
+        }
+
+        void explore(int[] colors) {
+            int n = graph.n;
+            int[] size = new int[n];
+            for(int v = 0; v < n; v++)
+                size[colors[v]]++;
+            int cell = 0;
+            while(cell < n && size[cell] <= 1)
+                cell++;
+
+            if(cell == n) {
+                // all colors differ, they are the positions
+                leaves++;
+                int[] order = new int[n];
+                for(int v = 0; v < n; v++)
+                    order[colors[v]] = v;
+                long[] code = encode(graph, order);
+                if(bestCode == null || Arrays.compare(code, bestCode) < 0) {
+                    bestCode = code;
+                    bestOrder = order;
+                }
+                return;
+            }
+
+            long[] individualized = new long[n];
+            for(int v = 0; v < n && leaves < MAX_LEAVES; v++) {
+                if(colors[v] != cell)
+                    continue;
+                for(int u = 0; u < n; u++)
+                    individualized[u] = 2 * colors[u] + (u == v ? 0 : 1);
+                explore(refine(graph, rank(individualized)));
+            }
+        }
+    }
+
+    /**
+     * Splits the colors by the colors of the neighbors until the number of colors is stable.
+     * The neighbors are summed up by a hash of their colors that does not depend on their order. A collision can only
+     * leave two colors together, which costs more leaves in the search but does not change the key of a graph.
+     * @return returns colors from 0 to the number of colors - 1
+     */
+    private static int[] refine(CsrGraph graph, int[] colors) {
+        int n = graph.n;
+        long[] signatures = new long[n];
+        int count = distinct(colors);
+        while(true) {
+            for(int v = 0; v < n; v++) {
+                long hash = 0;
+                for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++)
+                    hash += mix(colors[graph.targets[i]]);
+                signatures[v] = (long) colors[v] << 32 | (hash ^ hash >>> 32) & 0xffffffffL;
+            }
+            int[] refined = rank(signatures);
+            int refinedCount = distinct(refined);
+            if(refinedCount == count)
+                return refined;
+            count = refinedCount;
+            colors = refined;
+        }
+    }
+
+    /**
+     * @return returns the rank of every key among the distinct keys, equal keys get equal ranks
+     */
+    private static int[] rank(long[] keys) {
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for(int i = 0; i < sorted.length; i++) {
+            if(i == 0 || sorted[i] != sorted[i-1])
+                sorted[distinct++] = sorted[i];
+        }
+        int[] ranks = new int[keys.length];
+        for(int v = 0; v < keys.length; v++)
+            ranks[v] = Arrays.binarySearch(sorted, 0, distinct, keys[v]);
+        return ranks;
+    }
+
+    private static int distinct(int[] ranks) {
+        int max = -1;
+        for(int rank : ranks)
+            max = Math.max(max, rank);
+        return max + 1;
+    }
+
+    private static long mix(long x) {
+        x = (x + 1) * 0x9e3779b97f4a7c15L;
+        x = (x ^ x >>> 30) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ x >>> 27) * 0x94d049bb133111ebL;
+        return x ^ x >>> 31;
+    }
+
+    /**
+     * @return returns n, the weights and the sorted rows of graph with the vertices renumbered by their position in order
+     */
+    private static long[] encode(CsrGraph graph, int[] order) {
+        int n = graph.n;
+        int[] position = new int[n];
+        for(int p = 0; p < n; p++)
+            position[order[p]] = p;
+
+        long[] code = new long[1 + 2 * n + graph.targets.length];
+        int c = 0;
+        code[c++] = n;
+        for(int p = 0; p < n; p++)
+            code[c++] = graph.weights[order[p]];
+        for(int p = 0; p < n; p++) {
+            int v = order[p], start = c;
+            code[c++] = graph.offsets[v+1] - graph.offsets[v];
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++)
+                code[c++] = position[graph.targets[i]];
+            Arrays.sort(code, start + 1, c);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,69 @@
+package com.felixullmann.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs localSearch_pruning on independent components in parallel.
+ * Components are submitted in descending order of their vertex count, so the largest ones start first and the
+ * many small ones fill up the remaining threads. Each component is searched on its own, so the resulting cover is
+ * the same as the one of a sequential run, only the order of the progress output differs.
+ * A SearchBudget shared by the components stops all of them at its deadline, components that have not started by
+ * then keep their initial solution.
+ */
+public class ComponentScheduler {
+
+    private final int threads;
+
+    /**
+     * @param threads number of worker threads of the pool
+     */
+    public ComponentScheduler(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Improves the initial solution of every component and collects the results.
+     * @param graphs the components, each with its initialSolution set
+     * @param kMax maximum swap size for localSearch_pruning
+     * @param totalWeight weight of the whole solution, every component adds its improvement to it once it is done
+     * @return returns the union of all component covers in original vertex ids
+     */
+    public Set<Integer> solve(List<CsrGraph> graphs, int kMax, AtomicLong totalWeight) {
+        CsrGraph[] components = graphs.toArray(new CsrGraph[0]);
+        IntVertexSet[] covers = new IntVertexSet[components.length];
+
+        Integer[] order = new Integer[components.length];
+        for(int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> components[i].n).reversed());
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(components.length);
+            for(Integer i : order)
+                tasks.add(pool.submit(() -> covers[i] = solveComponent(components[i], kMax, totalWeight)));
+            for(ForkJoinTask<?> task : tasks)
+                task.join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Set<Integer> cover = new Set<>();
+        for(int i = 0; i < components.length; i++)
+            cover.addAll(components[i].toLabels(covers[i]));
+        return cover;
+    }
+
+    private static IntVertexSet solveComponent(CsrGraph graph, int kMax, AtomicLong totalWeight) {
+        long initialWeight = graph.getSetWeight(graph.initialSolution);
+        IntVertexSet cover = graph.localSearch_pruning(graph.initialSolution, kMax, totalWeight.get() - initialWeight);
+        totalWeight.addAndGet(graph.getSetWeight(cover) - initialWeight);
+        return cover;
+    }
+}
@@ -0,0 +1,146 @@
+package com.felixullmann.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Connected components of a CsrGraph, found with a union-find over the edges in near linear time.
+ * The components are numbered in ascending order of their smallest vertex. Every vertex gets a local id, which is its
+ * rank among the vertices of its component, so the vertices of a component can be addressed without copying the
+ * graph. A component is only turned into a CsrGraph of its own by subgraph. As no edge leaves a component, the rows
+ * of the subgraph are the rows of the parent with the targets replaced by their local ids, still in ascending order.
+ */
+public class Components {
+
+    public final CsrGraph graph;
+    public final int count;
+
+    private final int[] componentOf;
+    private final int[] localId;
+    private final int[] start;          // vertices of component c are vertices[start[c]..start[c+1]-1]
+    private final int[] vertices;       // dense ids of the parent grouped by component, ascending in each component
+
+    public Components(CsrGraph graph) {
+        this.graph = graph;
+        int n = graph.n;
+
+        // union by size with path halving, the edges are visited once from their smaller end
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for(int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        for(int v = 0; v < n; v++) {
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                int neighbor = graph.targets[i];
+                if(neighbor <= v)
+                    continue;
+                int a = find(parent, v), b = find(parent, neighbor);
+                if(a == b)
+                    continue;
+                if(size[a] < size[b]) {
+                    int swap = a;
+                    a = b;
+                    b = swap;
+                }
+                parent[b] = a;
+                size[a] += size[b];
+            }
+        }
+
+        // number the components by their smallest vertex, the sizes are no longer needed and hold the ids of the roots
+        int[] idOfRoot = size;
+        Arrays.fill(idOfRoot, -1);
+        componentOf = new int[n];
+        int components = 0;
+        for(int v = 0; v < n; v++) {
+            int root = find(parent, v);
+            if(idOfRoot[root] < 0)
+                idOfRoot[root] = components++;
+            componentOf[v] = idOfRoot[root];
+        }
+        count = components;
+
+        // counting sort keeps the vertices of every component in ascending order
+        start = new int[count + 1];
+        for(int v = 0; v < n; v++)
+            start[componentOf[v] + 1]++;
+        for(int c = 0; c < count; c++)
+            start[c+1] += start[c];
+        vertices = new int[n];
+        localId = new int[n];
+        int[] fill = new int[count];
+        for(int v = 0; v < n; v++) {
+            int c = componentOf[v];
+            localId[v] = fill[c];
+            vertices[start[c] + fill[c]++] = v;
+        }
+    }
+
+    private static int find(int[] parent, int v) {
+        while(parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    public int componentOf(int vertex) {
+        return componentOf[vertex];
+    }
+
+    /**
+     * @return returns the id of vertex inside its component
+     */
+    public int localId(int vertex) {
+        return localId[vertex];
+    }
+
+    public int size(int component) {
+        return start[component+1] - start[component];
+    }
+
+    /**
+     * @return returns the dense id in the parent graph of the vertex with the given local id
+     */
+    public int vertex(int component, int local) {
+        return vertices[start[component] + local];
+    }
+
+    /**
+     * Creates the graph of a single component, labelled with the labels of the parent graph.
+     * @return returns the subgraph induced by the component
+     */
+    public CsrGraph subgraph(int component) {
+        int size = size(component), first = start[component];
+        int[] subLabels = new int[size];
+        long[] subWeights = new long[size];
+        int[] subOffsets = new int[size+1];
+        for(int i = 0; i < size; i++) {
+            int v = vertices[first + i];
+            subLabels[i] = graph.labels[v];
+            subWeights[i] = graph.weights[v];
+            subOffsets[i+1] = subOffsets[i] + graph.degree(v);
+        }
+
+        int[] subTargets = new int[subOffsets[size]];
+        for(int i = 0, position = 0; i < size; i++) {
+            int v = vertices[first + i];
+            for(int j = graph.offsets[v]; j < graph.offsets[v+1]; j++)
+                subTargets[position++] = localId[graph.targets[j]];
+        }
+        return new CsrGraph(subOffsets, subTargets, subWeights, subLabels);
+    }
+
+    /**
+     * @return returns the subgraphs of all components in the order of their ids
+     */
+    public List<CsrGraph> subgraphs() {
+        List<CsrGraph> subgraphs = new ArrayList<>(count);
+        for(int c = 0; c < count; c++)
+            subgraphs.add(subgraph(c));
+        return subgraphs;
+    }
+}
@@ -0,0 +1,372 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Local search with dynamic edge weights and configuration checking in the style of NuMWVC and FastWVC.
+ * Every step removes a vertex from the cover and adds endpoints of uncovered edges until it is a cover again, so the
+ * cost of a step depends on the degrees of the changed vertices and not on k like the swaps of localSearch_pruning.
+ *
+ * Every edge has a weight, which grows by one in every step that leaves it uncovered. The score of a vertex
+ * outside of the cover is the weight of its uncovered edges, the gain of adding it. For a vertex in the cover it is
+ * minus the weight of the edges only it covers, the loss of removing it. Both are kept up to date by every add and
+ * remove, so a move is scored in O(1), a swap of u and v by score(u) + score(v). The removed vertex is the best of
+ * SAMPLE_SIZE random cover vertices by score per vertex weight. The added vertex is the endpoint of a random uncovered
+ * edge with the best score per vertex weight, among those whose configuration changed, i.e. a neighbor was added or
+ * removed since the vertex itself was removed. Vertices in the cover with a score of 0 cover no edge alone and are
+ * removed right away. Once the average edge weight exceeds MAX_AVERAGE_WEIGHT, all edge weights are scaled by FORGET.
+ *
+ * The best cover is kept in a set that only takes over the vertices changed since the last improvement. The search
+ * ends after stallSteps steps without improvement, at the lower bound of the graph or when its budget is exhausted.
+ * Improvements are reported to the metrics as swaps with k = 0.
+ */
+public class ConfigurationCheckingSearch {
+
+    public static final int SAMPLE_SIZE = 50;
+    public static final int MAX_AVERAGE_WEIGHT = 50;
+    public static final double FORGET = 0.3;
+    public static final long MIN_STALL_STEPS = 100000;
+
+    private final CsrGraph graph;
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final long[] weights;
+    private final SplittableRandom random;
+    private long stallSteps;
+
+    // edge weights and the list of uncovered edges are kept at the entry of an edge in the row of its smaller endpoint
+    private final int[] mirror;
+    private final int[] edgeWeight;
+    private final int[] uncoveredPosition;
+    private final int[] uncovered;
+    private final int[] uncoveredFrom;
+    private int uncoveredCount;
+    private long edgeCount;
+    private long totalEdgeWeight;
+
+    private final long[] score;
+    private final boolean[] inCover;
+    private final boolean[] confChange;
+    private final long[] age;
+    private final int[] coverList;
+    private final int[] coverPosition;
+    private int coverSize;
+    private long coverWeight;
+
+    // vertices changed since the last improvement, and cover vertices that may have lost all their own edges
+    private final int[] flips;
+    private int flipCount;
+    private final int[] redundant;
+    private int redundantCount;
+
+    private long steps;
+
+    /**
+     * @param graph the graph to cover, its rows have to be symmetric and sorted, its budget, lower bound, metrics and
+     *              cover listener are used
+     * @param seed seed of the random choices, equal seeds give equal searches
+     */
+    public ConfigurationCheckingSearch(CsrGraph graph, long seed) {
+        this.graph = graph;
+        this.n = graph.n;
+        this.offsets = graph.offsets;
+        this.targets = graph.targets;
+        this.weights = graph.weights;
+        this.random = new SplittableRandom(seed);
+        this.stallSteps = Math.max(MIN_STALL_STEPS, 10L * n);
+
+        int entries = targets.length;
+        this.mirror = new int[entries];
+        this.edgeWeight = new int[entries];
+        this.uncoveredPosition = new int[entries];
+        int[] next = Arrays.copyOf(offsets, n);
+        for(int v = 0; v < n; v++) {
+            for(int i = offsets[v]; i < offsets[v+1]; i++)
+                mirror[i] = next[targets[i]]++;
+        }
+        this.edgeCount = graph.edgeCount();
+        this.uncovered = new int[(int) edgeCount];
+        this.uncoveredFrom = new int[(int) edgeCount];
+
+        this.score = new long[n];
+        this.inCover = new boolean[n];
+        this.confChange = new boolean[n];
+        this.age = new long[n];
+        this.coverList = new int[n];
+        this.coverPosition = new int[n];
+        this.flips = new int[n];
+        this.redundant = new int[n];
+    }
+
+    /**
+     * @param steps number of steps without a lighter cover after which the search ends
+     */
+    public ConfigurationCheckingSearch setStallSteps(long steps) {
+        this.stallSteps = steps;
+        return this;
+    }
+
+    /**
+     * @return returns the number of steps of the last search
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * @param cover start of the search in dense ids, uncovered edges are covered greedily before the search
+     * @param totalWeight weight of the cover outside of this graph, only for the reported weights
+     * @return returns the lightest cover found in dense ids
+     */
+    public IntVertexSet solve(IntVertexSet cover, long totalWeight) {
+        long start = System.nanoTime();
+        initialize(cover);
+        IntVertexSet best = new IntVertexSet(n);
+        long bestWeight = Long.MAX_VALUE;
+        long lastImprovement = 0;
+        long improvements = 0;
+        steps = 0;
+
+        while(true) {
+            repair();
+            if(coverWeight < bestWeight) {
+                int changed = flipCount;
+                takeOver(best);
+                bestWeight = coverWeight;
+                lastImprovement = steps;
+                improvements++;
+                long elapsed = System.nanoTime() - start;
+                graph.metrics.swapApplied(0, changed, bestWeight + totalWeight, elapsed);
+                if(graph.coverListener != null)
+                    graph.coverListener.improved(graph, best.copy(), bestWeight + totalWeight, elapsed);
+            }
+            if(coverSize == 0 || bestWeight <= graph.lowerBound || steps - lastImprovement >= stallSteps
+                    || (graph.budget != null && graph.budget.isExhausted(steps, 1)))
+                break;
+
+            steps++;
+            remove(selectRemoval());
+        }
+
+        graph.metrics.searchFinished(improvements, bestWeight + totalWeight, System.nanoTime() - start);
+        return best;
+    }
+
+    private void initialize(IntVertexSet cover) {
+        uncoveredCount = 0;
+        coverSize = 0;
+        coverWeight = 0;
+        totalEdgeWeight = edgeCount;
+        for(int v = 0; v < n; v++) {
+            inCover[v] = cover.contains(v);
+            confChange[v] = true;
+            age[v] = 0;
+        }
+        // a partial start is completed greedily in linear time, every uncovered edge takes the endpoint with the
+        // lower weight per degree
+        for(int v = 0; v < n; v++) {
+            for(int i = offsets[v]; i < offsets[v+1] && !inCover[v]; i++) {
+                int u = targets[i];
+                if(u > v && !inCover[u])
+                    inCover[weights[v] * (offsets[u+1] - offsets[u]) <= weights[u] * (offsets[v+1] - offsets[v]) ? v : u] = true;
+            }
+        }
+        for(int v = 0; v < n; v++) {
+            if(inCover[v]) {
+                coverPosition[v] = coverSize;
+                coverList[coverSize++] = v;
+                coverWeight += weights[v];
+            }
+        }
+        for(int v = 0; v < n; v++) {
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                if(targets[i] > v)
+                    edgeWeight[i] = 1;
+            }
+        }
+        computeScores();
+
+        // a full flip log makes the first improvement take the whole cover over
+        flipCount = n;
+        redundantCount = 0;
+        for(int v = 0; v < n; v++) {
+            if(inCover[v] && score[v] == 0)
+                redundant[redundantCount++] = v;
+        }
+    }
+
+    private void computeScores() {
+        Arrays.fill(score, 0);
+        for(int v = 0; v < n; v++) {
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                int u = targets[i];
+                if(u < v)
+                    continue;
+                int w = edgeWeight[i];
+                if(!inCover[v] && !inCover[u]) {
+                    score[v] += w;
+                    score[u] += w;
+                } else if(inCover[v] && !inCover[u]) {
+                    score[v] -= w;
+                } else if(!inCover[v]) {
+                    score[u] -= w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds endpoints of uncovered edges until the cover is complete and removes the vertices that became redundant.
+     * The edges uncovered by the removal of the step gain weight once, so a step costs O(degree) per changed vertex.
+     */
+    private void repair() {
+        for(int j = 0; j < uncoveredCount; j++) {
+            edgeWeight[uncovered[j]]++;
+            score[uncoveredFrom[j]]++;
+            score[targets[uncovered[j]]]++;
+        }
+        totalEdgeWeight += uncoveredCount;
+        if(totalEdgeWeight > MAX_AVERAGE_WEIGHT * edgeCount)
+            forget();
+
+        while(uncoveredCount > 0) {
+            int j = random.nextInt(uncoveredCount);
+            add(selectEndpoint(uncoveredFrom[j], targets[uncovered[j]]));
+        }
+
+        while(redundantCount > 0) {
+            int v = redundant[--redundantCount];
+            if(inCover[v] && score[v] == 0)
+                remove(v);
+        }
+    }
+
+    private void forget() {
+        totalEdgeWeight = 0;
+        for(int v = 0; v < n; v++) {
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                if(targets[i] > v) {
+                    edgeWeight[i] = Math.max(1, (int) (edgeWeight[i] * FORGET));
+                    totalEdgeWeight += edgeWeight[i];
+                }
+            }
+        }
+        computeScores();
+    }
+
+    /**
+     * @return returns the best of SAMPLE_SIZE random cover vertices by loss per weight, the older one on ties.
+     * Vertices added in the last step are only taken if all samples were added in it.
+     */
+    private int selectRemoval() {
+        int best = -1;
+        boolean bestTabu = true;
+        int samples = Math.min(SAMPLE_SIZE, coverSize);
+        for(int s = 0; s < samples; s++) {
+            int v = samples == coverSize ? coverList[s] : coverList[random.nextInt(coverSize)];
+            boolean tabu = age[v] == steps - 1;
+            if(best < 0 || (bestTabu && !tabu) || (tabu == bestTabu && better(v, best))) {
+                best = v;
+                bestTabu = tabu;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return returns the endpoint with the better gain per weight, preferring one whose configuration changed
+     */
+    private int selectEndpoint(int a, int b) {
+        if(confChange[a] != confChange[b])
+            return confChange[a] ? a : b;
+        return better(b, a) ? b : a;
+    }
+
+    private boolean better(int u, int v) {
+        // score(u) / w(u) > score(v) / w(v), the weights are positive
+        double left = (double) score[u] * weights[v], right = (double) score[v] * weights[u];
+        return left > right || (left == right && age[u] < age[v]);
+    }
+
+    private void add(int v) {
+        inCover[v] = true;
+        coverPosition[v] = coverSize;
+        coverList[coverSize++] = v;
+        coverWeight += weights[v];
+        score[v] = -score[v];
+        flip(v);
+        for(int i = offsets[v]; i < offsets[v+1]; i++) {
+            int u = targets[i];
+            int e = u > v ? i : mirror[i];
+            confChange[u] = true;
+            if(!inCover[u]) {
+                score[u] -= edgeWeight[e];
+                removeUncovered(e);
+            } else {
+                score[u] += edgeWeight[e];
+                if(score[u] == 0 && redundantCount < n)
+                    redundant[redundantCount++] = u;
+            }
+        }
+    }
+
+    private void remove(int v) {
+        inCover[v] = false;
+        int last = coverList[--coverSize];
+        coverList[coverPosition[v]] = last;
+        coverPosition[last] = coverPosition[v];
+        coverWeight -= weights[v];
+        score[v] = -score[v];
+        confChange[v] = false;
+        flip(v);
+        for(int i = offsets[v]; i < offsets[v+1]; i++) {
+            int u = targets[i];
+            int e = u > v ? i : mirror[i];
+            confChange[u] = true;
+            if(!inCover[u]) {
+                score[u] += edgeWeight[e];
+                addUncovered(e, Math.min(u, v));
+            } else {
+                score[u] -= edgeWeight[e];
+            }
+        }
+    }
+
+    private void flip(int v) {
+        age[v] = steps;
+        if(flipCount < n)
+            flips[flipCount++] = v;
+    }
+
+    /**
+     * Sets the vertices changed since the last improvement in best, or all vertices if there were more than n changes.
+     */
+    private void takeOver(IntVertexSet best) {
+        // a full log may have lost changes
+        boolean full = flipCount == n;
+        for(int f = 0; f < (full ? n : flipCount); f++) {
+            int v = full ? f : flips[f];
+            if(inCover[v])
+                best.add(v);
+            else
+                best.remove(v);
+        }
+        flipCount = 0;
+    }
+
+    private void addUncovered(int e, int from) {
+        uncoveredPosition[e] = uncoveredCount;
+        uncovered[uncoveredCount] = e;
+        uncoveredFrom[uncoveredCount++] = from;
+    }
+
+    private void removeUncovered(int e) {
+        int position = uncoveredPosition[e];
+        uncoveredCount--;
+        uncovered[position] = uncovered[uncoveredCount];
+        uncoveredFrom[position] = uncoveredFrom[uncoveredCount];
+        uncoveredPosition[uncovered[position]] = position;
+    }
+}
@@ -0,0 +1,44 @@
+package com.felixullmann.graphs;
+
+/**
+ * Prints the progress of the search and the results of the reductions to System.out.
+ * The progress is thinned out, so printing does not slow down a search that applies many swaps: a k-level is printed
+ * when a search reaches it for the first time and the weight at most once per PRINT_INTERVAL. Nothing is formatted
+ * for the calls in between.
+ */
+public class ConsoleMetrics implements SolverMetrics {
+
+    public static final long PRINT_INTERVAL = 1000000000L;     // ns
+
+    // deepest level printed in the current search and time of the last printed weight, races only print a line more
+    private volatile int printedLevel;
+    private volatile long lastPrint = System.nanoTime() - PRINT_INTERVAL;
+
+    @Override
+    public void reduction(String name, int removed, int inCover, long nanos) {
+        System.out.println(name + ": Removed " + removed + " vertices from graph and added " + inCover + " vertices to cover.\n");
+    }
+
+    @Override
+    public void searchLevel(int k, int recent, int candidates, long elapsed) {
+        if(k <= printedLevel)
+            return;
+        printedLevel = k;
+        System.out.println(String.format("%5s k = %s", elapsed / 1000000000, k));
+    }
+
+    @Override
+    public void swapApplied(int k, int size, long weight, long elapsed) {
+        long now = System.nanoTime();
+        if(now - lastPrint < PRINT_INTERVAL)
+            return;
+        lastPrint = now;
+        System.out.println(String.format("%5s    w = %s", elapsed / 1000000000, weight));
+    }
+
+    @Override
+    public void searchFinished(long swaps, long weight, long elapsed) {
+        printedLevel = 0;
+        System.out.println("Swaps made: " + swaps);
+    }
+}
@@ -0,0 +1,146 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects counters and timers of a run: swaps, enumerated roots and frames and the deepest frame per k, sizes of
+ * R[k], time per phase and reduction, found cliques by size and the cover weight after every swap.
+ * The counters are atomic, so one instance can be shared by components that are solved in parallel.
+ */
+public class CountingMetrics implements SolverMetrics {
+
+    // larger k and cliques are counted in the last entry
+    private static final int MAX_K = 32;
+    private static final int MAX_CLIQUE = 64;
+
+    private final AtomicLongArray levels = new AtomicLongArray(MAX_K + 1);
+    private final AtomicLongArray recentSum = new AtomicLongArray(MAX_K + 1);
+    private final AtomicLongArray candidateSum = new AtomicLongArray(MAX_K + 1);
+    private final AtomicLongArray swaps = new AtomicLongArray(MAX_K + 1);
+    private final AtomicLongArray calls = new AtomicLongArray(MAX_K + 1);
+    private final AtomicLongArray frames = new AtomicLongArray(MAX_K + 1);
+    private final AtomicIntegerArray maxDepth = new AtomicIntegerArray(MAX_K + 1);
+    private final AtomicLongArray cliques = new AtomicLongArray(MAX_CLIQUE + 1);
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    // weight over time, pairs of elapsed nanos and weight
+    private long[] timeline = new long[64];
+    private int timelineSize;
+
+    private static int index(int k, int max) {
+        return Math.min(Math.max(k, 0), max);
+    }
+
+    @Override
+    public synchronized void phase(String name, long nanos) {
+        phases.merge(name, nanos, Long::sum);
+    }
+
+    @Override
+    public void reduction(String name, int removed, int inCover, long nanos) {
+        phase(name, nanos);
+    }
+
+    @Override
+    public void cliqueFound(int size) {
+        cliques.incrementAndGet(index(size, MAX_CLIQUE));
+    }
+
+    @Override
+    public void searchLevel(int k, int recent, int candidates, long elapsed) {
+        int i = index(k, MAX_K);
+        levels.incrementAndGet(i);
+        recentSum.addAndGet(i, recent);
+        candidateSum.addAndGet(i, candidates);
+    }
+
+    @Override
+    public void enumerated(int k, long calls, long frames, int maxDepth) {
+        int i = index(k, MAX_K);
+        this.calls.addAndGet(i, calls);
+        this.frames.addAndGet(i, frames);
+        this.maxDepth.accumulateAndGet(i, maxDepth, Math::max);
+    }
+
+    @Override
+    public void swapApplied(int k, int size, long weight, long elapsed) {
+        swaps.incrementAndGet(index(k, MAX_K));
+        synchronized(this) {
+            if(timelineSize == timeline.length)
+                timeline = Arrays.copyOf(timeline, timelineSize * 2);
+            timeline[timelineSize++] = elapsed;
+            timeline[timelineSize++] = weight;
+        }
+    }
+
+    public long getSwaps(int k) {
+        return swaps.get(index(k, MAX_K));
+    }
+
+    public long getCalls(int k) {
+        return calls.get(index(k, MAX_K));
+    }
+
+    public long getFrames(int k) {
+        return frames.get(index(k, MAX_K));
+    }
+
+    public int getMaxDepth(int k) {
+        return maxDepth.get(index(k, MAX_K));
+    }
+
+    public long getLevels(int k) {
+        return levels.get(index(k, MAX_K));
+    }
+
+    public long getCliques(int size) {
+        return cliques.get(index(size, MAX_CLIQUE));
+    }
+
+    /**
+     * @return returns the total time of a phase or reduction, 0 if it did not run
+     */
+    public synchronized long getPhaseNanos(String name) {
+        return phases.getOrDefault(name, 0L);
+    }
+
+    /**
+     * @return returns pairs of elapsed time and cover weight, one per applied swap in the order of the swaps
+     */
+    public synchronized long[] getTimeline() {
+        return Arrays.copyOf(timeline, timelineSize);
+    }
+
+    /**
+     * @return returns a table of all counters that are not zero
+     */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder();
+        for(Map.Entry<String, Long> phase : phases.entrySet())
+            report.append(String.format("%-24s %10d ms%n", phase.getKey(), phase.getValue() / 1000000));
+
+        report.append(String.format("%3s %10s %10s %12s %14s %6s %12s %12s%n", "k", "levels", "swaps", "roots", "frames", "depth", "avg |R[k]|", "avg roots"));
+        for(int k = 0; k <= MAX_K; k++) {
+            long count = levels.get(k);
+            if(count == 0 && swaps.get(k) == 0 && calls.get(k) == 0)
+                continue;
+            report.append(String.format("%3s %10d %10d %12d %14d %6d %12d %12d%n", k == MAX_K ? k + "+" : k, count, swaps.get(k),
+                    calls.get(k), frames.get(k), maxDepth.get(k), count == 0 ? 0 : recentSum.get(k) / count, count == 0 ? 0 : candidateSum.get(k) / count));
+        }
+
+        for(int size = 0; size <= MAX_CLIQUE; size++) {
+            if(cliques.get(size) > 0)
+                report.append(String.format("%s-cliques reduced: %d%n", size == MAX_CLIQUE ? size + "+" : size, cliques.get(size)));
+        }
+        if(timelineSize > 0) {
+            report.append(String.format("weight after %d swaps: %d at %d ms%n", timelineSize / 2,
+                    timeline[timelineSize - 1], timeline[timelineSize - 2] / 1000000));
+        }
+        return report.toString();
+    }
+}
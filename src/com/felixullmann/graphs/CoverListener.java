@@ -0,0 +1,16 @@
+package com.felixullmann.graphs;
+
+/**
+ * Receives every improved cover of a local search while it is still running, so that the best cover so far is
+ * available before the search returns. It is called from the thread of the search right after a swap was applied.
+ */
+public interface CoverListener {
+
+    /**
+     * @param graph the graph that is searched
+     * @param cover copy of the improved cover in dense ids of graph, owned by the listener
+     * @param weight weight of the cover plus the totalWeight passed to the search
+     * @param elapsed nanoseconds since the start of the search
+     */
+    void improved(CsrGraph graph, IntVertexSet cover, long weight, long elapsed);
+}
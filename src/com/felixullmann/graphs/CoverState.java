@@ -0,0 +1,134 @@
+package com.felixullmann.graphs;
+
+/**
+ * Vertex cover of a CsrGraph together with values that are kept up to date on every change:
+ * the total weight, the number of neighbors in the cover and the swap gain of every vertex.
+ * The gain of a vertex v is w(v) minus the weight of its neighbors outside the cover, for a cover vertex this is
+ * the weight saved by removing v and adding its uncovered neighbors. Flipping a vertex costs O(deg), so applying a
+ * swap S costs O(sum of degrees in S).
+ */
+public class CoverState {
+
+    private final CsrGraph graph;
+    private final IntVertexSet cover;
+    private final int[] coveredNeighbors;
+    private final long[] gain;
+    private long weight;
+    private long uncoveredEdges;
+
+    /**
+     * @param graph the graph the cover belongs to
+     * @param cover initial vertex set in dense ids, the set is copied
+     */
+    public CoverState(CsrGraph graph, IntVertexSet cover) {
+        this.graph = graph;
+        this.cover = new IntVertexSet(graph.n).unionInPlace(cover);
+        this.coveredNeighbors = new int[graph.n];
+        this.gain = new long[graph.n];
+
+        for(int v = 0; v < graph.n; v++) {
+            gain[v] = graph.weights[v];
+            boolean inCover = this.cover.contains(v);
+            if(inCover)
+                weight += graph.weights[v];
+
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                int neighbor = graph.targets[i];
+                if(this.cover.contains(neighbor)) {
+                    coveredNeighbors[v]++;
+                } else {
+                    gain[v] -= graph.weights[neighbor];
+                    if(!inCover && v < neighbor)
+                        uncoveredEdges++;
+                }
+            }
+        }
+    }
+
+    public boolean contains(int vertex) {
+        return cover.contains(vertex);
+    }
+
+    /**
+     * @return returns the cover itself, it must not be modified other than through this state
+     */
+    public IntVertexSet getCover() {
+        return cover;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public int getCoveredNeighbors(int vertex) {
+        return coveredNeighbors[vertex];
+    }
+
+    public int getUncoveredNeighbors(int vertex) {
+        return graph.degree(vertex) - coveredNeighbors[vertex];
+    }
+
+    public long getGain(int vertex) {
+        return gain[vertex];
+    }
+
+    public long getUncoveredEdges() {
+        return uncoveredEdges;
+    }
+
+    public boolean isCover() {
+        return uncoveredEdges == 0;
+    }
+
+    /**
+     * Adds a vertex to the cover, does nothing if it is already contained
+     */
+    public void add(int vertex) {
+        if(cover.contains(vertex))
+            return;
+
+        cover.add(vertex);
+        weight += graph.weights[vertex];
+        uncoveredEdges -= getUncoveredNeighbors(vertex);
+        long w = graph.weights[vertex];
+        for(int i = graph.offsets[vertex]; i < graph.offsets[vertex+1]; i++) {
+            int neighbor = graph.targets[i];
+            coveredNeighbors[neighbor]++;
+            gain[neighbor] += w;
+        }
+    }
+
+    /**
+     * Removes a vertex from the cover, does nothing if it is not contained
+     */
+    public void remove(int vertex) {
+        if(!cover.contains(vertex))
+            return;
+
+        cover.remove(vertex);
+        weight -= graph.weights[vertex];
+        uncoveredEdges += getUncoveredNeighbors(vertex);
+        long w = graph.weights[vertex];
+        for(int i = graph.offsets[vertex]; i < graph.offsets[vertex+1]; i++) {
+            int neighbor = graph.targets[i];
+            coveredNeighbors[neighbor]--;
+            gain[neighbor] -= w;
+        }
+    }
+
+    public void flip(int vertex) {
+        if(cover.contains(vertex))
+            remove(vertex);
+        else
+            add(vertex);
+    }
+
+    /**
+     * Applies a swap, every vertex of S that is in the cover is removed and every other vertex of S is added.
+     * @param S the swap in dense ids
+     */
+    public void applySwap(IntVertexSet S) {
+        for(int v = S.nextSetBit(0); v >= 0; v = S.nextSetBit(v + 1))
+            flip(v);
+    }
+}
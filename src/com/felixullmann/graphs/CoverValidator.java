@@ -0,0 +1,91 @@
+package com.felixullmann.graphs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks a cover against the arrays of a CsrGraph without copying them.
+ * The vertices are split into ranges with about the same number of edges, which are checked in parallel. A range
+ * that finds an uncovered edge publishes its index, so the ranges after it stop early, while the ranges before it
+ * still run to the end. The result is always the first uncovered edge in the order of the rows, like a sequential scan.
+ */
+public class CoverValidator {
+
+    // smaller graphs are checked faster than the pool is started
+    public static final int PARALLEL_MIN_EDGES = 1 << 20;
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final int threads;
+
+    /**
+     * @param threads number of threads that check ranges
+     */
+    public CoverValidator(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param cover set of dense ids
+     * @return returns the first edge with no endpoint in cover as {u, v} in dense ids with u < v, or null for a cover
+     */
+    public int[] findUncoveredEdge(CsrGraph graph, IntVertexSet cover) {
+        if(threads == 1 || graph.edgeCount() < PARALLEL_MIN_EDGES)
+            return scan(graph, cover, 0, graph.n, null, 0);
+
+        // range r ends at the first vertex whose row starts after r / ranges of the entries
+        int ranges = threads * RANGES_PER_THREAD;
+        int[] bounds = new int[ranges + 1];
+        for(int r = 1, v = 0; r < ranges; r++) {
+            long entry = (long) graph.targets.length * r / ranges;
+            while(v < graph.n && graph.offsets[v] < entry)
+                v++;
+            bounds[r] = v;
+        }
+        bounds[ranges] = graph.n;
+
+        int[][] found = new int[ranges][];
+        AtomicInteger first = new AtomicInteger(ranges);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(ranges);
+            for(int r = 0; r < ranges; r++) {
+                int range = r;
+                tasks.add(pool.submit(() -> {
+                    found[range] = scan(graph, cover, bounds[range], bounds[range+1], first, range);
+                    if(found[range] != null)
+                        first.accumulateAndGet(range, Math::min);
+                }));
+            }
+            for(ForkJoinTask<?> task : tasks)
+                task.join();
+        } finally {
+            pool.shutdown();
+        }
+        return first.get() < ranges ? found[first.get()] : null;
+    }
+
+    public boolean isVertexCover(CsrGraph graph, IntVertexSet cover) {
+        return findUncoveredEdge(graph, cover) == null;
+    }
+
+    /**
+     * Only the edges to larger ids are checked, the rows are symmetric.
+     * @param first index of the first range with an uncovered edge so far, the scan stops if it is before range
+     */
+    private static int[] scan(CsrGraph graph, IntVertexSet cover, int from, int to, AtomicInteger first, int range) {
+        for(int v = from; v < to; v++) {
+            if(first != null && (v & 1023) == 0 && first.get() < range)
+                return null;
+            if(cover.contains(v))
+                continue;
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                if(graph.targets[i] > v && !cover.contains(graph.targets[i]))
+                    return new int[]{v, graph.targets[i]};
+            }
+        }
+        return null;
+    }
+}
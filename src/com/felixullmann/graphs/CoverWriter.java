@@ -0,0 +1,153 @@
+package com.felixullmann.graphs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a cover as a text file with one original vertex id per line in ascending order, and an optional certificate
+ * with the number of vertices, the weight and the CRC32 of the cover file, so a shipped cover can be checked without
+ * the graph. The digits are formatted straight into a byte buffer, which also feeds the checksum, so no string is
+ * created per vertex. Like KernelSnapshot, the files are written to a temporary file that then replaces the target.
+ */
+public class CoverWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * @param labels original vertex ids in ascending order
+     * @return returns the CRC32 of the written file
+     */
+    public static long write(File file, int[] labels) throws IOException {
+        CRC32 checksum = new CRC32();
+        replace(file, out -> {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] digits = new byte[11];
+            int length = 0;
+            for(int label : labels) {
+                if(length > BUFFER_SIZE - 12) {
+                    checksum.update(buffer, 0, length);
+                    out.write(buffer, 0, length);
+                    length = 0;
+                }
+                if(label < 0)
+                    buffer[length++] = '-';
+                long value = Math.abs((long) label);
+                int count = 0;
+                do {
+                    digits[count++] = (byte) ('0' + value % 10);
+                    value /= 10;
+                } while(value > 0);
+                while(count > 0)
+                    buffer[length++] = digits[--count];
+                buffer[length++] = '\n';
+            }
+            checksum.update(buffer, 0, length);
+            out.write(buffer, 0, length);
+        });
+        return checksum.getValue();
+    }
+
+    /**
+     * @param cover dense ids of graph, written as the labels of graph
+     * @return returns the CRC32 of the written file
+     */
+    public static long write(File file, CsrGraph graph, IntVertexSet cover) throws IOException {
+        int[] labels = new int[cover.size()];
+        int i = 0;
+        for(int v = cover.nextSetBit(0); v >= 0; v = cover.nextSetBit(v + 1))
+            labels[i++] = graph.labels[v];
+        // the labels of a CsrGraph are sorted, sorting again only matters for hand built graphs
+        Arrays.sort(labels);
+        return write(file, labels);
+    }
+
+    /**
+     * Writes the lines "vertices", "weight" and "crc32" with their values.
+     */
+    public static void writeCertificate(File file, long vertices, long weight, long checksum) throws IOException {
+        replace(file, out -> {
+            PrintWriter writer = new PrintWriter(out);
+            writer.println("vertices " + vertices);
+            writer.println("weight " + weight);
+            writer.println("crc32 " + Long.toHexString(checksum));
+            writer.flush();
+        });
+    }
+
+    /**
+     * @return returns the CRC32 of a file, computed over a memory mapping of it
+     */
+    public static long checksum(File file) throws IOException {
+        CRC32 checksum = new CRC32();
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for(long position = 0; position < size; position += Integer.MAX_VALUE)
+                checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Integer.MAX_VALUE, size - position)));
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Reads a cover file through a memory mapping.
+     * @return returns the vertex ids in the order of the file
+     */
+    public static int[] read(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Cover " + file + " is too large.");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int[] labels = new int[1024];
+            int count = 0;
+            while(buffer.hasRemaining()) {
+                long value = 0;
+                boolean negative = false, digits = false;
+                byte b;
+                while(buffer.hasRemaining() && (b = buffer.get()) != '\n') {
+                    if(b == '-' && !digits) {
+                        negative = true;
+                    } else if(b >= '0' && b <= '9') {
+                        value = value * 10 + (b - '0');
+                        digits = true;
+                    } else if(b != '\r') {
+                        throw new IOException("Cover " + file + " has an invalid character at byte " + (buffer.position() - 1) + ".");
+                    }
+                }
+                if(!digits)
+                    continue;
+                if(count == labels.length)
+                    labels = Arrays.copyOf(labels, count * 2);
+                labels[count++] = (int) (negative ? -value : value);
+            }
+            return Arrays.copyOf(labels, count);
+        }
+    }
+
+    private interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static void replace(File file, Content content) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try(OutputStream out = new FileOutputStream(temporary)) {
+            content.writeTo(out);
+        } catch (IOException e) {
+            temporary.delete();
+            throw e;
+        }
+
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,1039 @@
+package com.felixullmann.graphs;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compressed sparse row representation of an undirected vertex weighted graph.
+ * Vertices are identified by dense ids 0..n-1, the neighbors of vertex v are stored in ascending order
+ * in targets[offsets[v]] .. targets[offsets[v+1]-1]. The original vertex ids are kept in labels, which is
+ * sorted ascending so that a label can be mapped back to its dense id by binary search.
+ */
+public class CsrGraph {
+
+    // results of a single root in localSearch_pruning
+    private static final int NOT_FOUND = 0;
+    private static final int FOUND = 1;
+    private static final int SKIPPED = 2;
+
+    // the parallel search only pays off once a batch of roots takes longer than handing it to the pool
+    private static final int PARALLEL_SEARCH_MIN_VERTICES = 1024;
+    private static final int PARALLEL_SEARCH_BATCH = 16;
+    private static final int PARALLEL_SEARCH_MIN_K = 3;
+
+    public final int n;
+    public final int[] offsets;
+    public final int[] targets;
+    public final long[] weights;
+    public final int[] labels;
+    public IntVertexSet initialSolution = null;         // may be used to save greedy solutions (dense ids)
+    public SolverMetrics metrics = SolverMetrics.NONE;  // receives progress of the searches and reductions
+    public SearchBudget budget = null;                  // limits the searches, null for none
+    public CoverListener coverListener = null;          // receives every improved cover of the searches
+    public long lowerBound = 0;                         // the searches stop once the cover is not heavier
+
+    private long[] neighborWeights = null;
+
+    // comparators for finding greedy solution
+    public Comparator<Integer> maxDegreeComparator = (Integer v1, Integer v2) -> Integer.compare(degree(v2), degree(v1));
+    public Comparator<Integer> neighborWeightRatioComparator = (Integer v1, Integer v2) -> Float.compare((float) getNeighborWeight(v2)/weight(v2), (float) getNeighborWeight(v1)/weight(v1));
+    public Comparator<Integer> neighborWeightDifferenceComparator = (Integer v1, Integer v2) -> Long.compare(getNeighborWeight(v2) - weight(v2), getNeighborWeight(v1) - weight(v1));
+
+    public CsrGraph(int[] offsets, int[] targets, long[] weights, int[] labels) {
+        this.n = labels.length;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.labels = labels;
+    }
+
+    /**
+     * Builds the CSR representation of a map based graph. Neighbors that are not part of the vertex set are ignored.
+     * @param graph the graph to convert
+     * @return returns a new CsrGraph with dense ids assigned in ascending order of the original vertex ids
+     */
+    public static CsrGraph fromIntegerGraph(IntegerGraph graph) {
+        int n = graph.vertices.size();
+        int[] labels = new int[n];
+        int i = 0;
+        for(Integer vertex : graph.vertices)
+            labels[i++] = vertex;
+        Arrays.sort(labels);
+
+        long[] weights = new long[n];
+        int[] offsets = new int[n+1];
+        for(int v = 0; v < n; v++) {
+            weights[v] = graph.weights.get(labels[v]);
+            offsets[v+1] = offsets[v] + graph.adjacency.get(labels[v]).size();
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] fill = new int[n];
+        for(int v = 0; v < n; v++) {
+            int position = offsets[v];
+            for(Integer neighbor : graph.adjacency.get(labels[v])) {
+                int id = Arrays.binarySearch(labels, neighbor);
+                if(id >= 0)
+                    targets[position++] = id;
+            }
+            Arrays.sort(targets, offsets[v], position);
+            fill[v] = position - offsets[v];
+        }
+
+        return compact(offsets, targets, fill, weights, labels);
+    }
+
+    /**
+     * Builds a graph from an edge list given in dense ids. Duplicate edges and self loops are dropped.
+     * @param labels the original vertex ids, sorted ascending
+     * @param weights the vertex weights indexed by dense id
+     * @param from first endpoints of the edges
+     * @param to second endpoints of the edges
+     * @param edgeCount number of valid entries in from and to
+     * @return returns the new graph
+     */
+    public static CsrGraph fromEdges(int[] labels, long[] weights, int[] from, int[] to, int edgeCount) {
+        int n = labels.length;
+        int[] offsets = new int[n+1];
+        for(int e = 0; e < edgeCount; e++) {
+            if(from[e] == to[e])
+                continue;
+            offsets[from[e]+1]++;
+            offsets[to[e]+1]++;
+        }
+        for(int v = 0; v < n; v++)
+            offsets[v+1] += offsets[v];
+
+        int[] targets = new int[offsets[n]];
+        int[] fill = new int[n];
+        for(int e = 0; e < edgeCount; e++) {
+            int a = from[e], b = to[e];
+            if(a == b)
+                continue;
+            targets[offsets[a] + fill[a]++] = b;
+            targets[offsets[b] + fill[b]++] = a;
+        }
+
+        return fromRows(offsets, targets, fill, weights, labels);
+    }
+
+    /**
+     * Builds a graph from unsorted adjacency rows, row v holds fill[v] entries starting at offsets[v].
+     * The rows are sorted, duplicates are dropped and the arrays are compacted if needed.
+     */
+    static CsrGraph fromRows(int[] offsets, int[] targets, int[] fill, long[] weights, int[] labels) {
+        int n = labels.length;
+        for(int v = 0; v < n; v++) {
+            Arrays.sort(targets, offsets[v], offsets[v] + fill[v]);
+            int length = 0;
+            for(int i = offsets[v]; i < offsets[v] + fill[v]; i++) {
+                if(length == 0 || targets[offsets[v] + length - 1] != targets[i])
+                    targets[offsets[v] + length++] = targets[i];
+            }
+            fill[v] = length;
+        }
+
+        return compact(offsets, targets, fill, weights, labels);
+    }
+
+    /**
+     * Removes the unused tail of every row, fill holds the number of used entries per row.
+     */
+    private static CsrGraph compact(int[] offsets, int[] targets, int[] fill, long[] weights, int[] labels) {
+        int n = labels.length;
+        if(offsets[n] == sum(fill))
+            return new CsrGraph(offsets, targets, weights, labels);
+
+        int[] compactOffsets = new int[n+1];
+        for(int v = 0; v < n; v++)
+            compactOffsets[v+1] = compactOffsets[v] + fill[v];
+        int[] compactTargets = new int[compactOffsets[n]];
+        for(int v = 0; v < n; v++)
+            System.arraycopy(targets, offsets[v], compactTargets, compactOffsets[v], fill[v]);
+
+        return new CsrGraph(compactOffsets, compactTargets, weights, labels);
+    }
+
+    private static long sum(int[] values) {
+        long sum = 0;
+        for(int value : values)
+            sum += value;
+        return sum;
+    }
+
+    /**
+     * Converts this graph back into the map based representation.
+     * @return returns a new IntegerGraph using the original vertex ids
+     */
+    public IntegerGraph toIntegerGraph() {
+        Set<Integer> vertices = new Set<>(n*2);
+        HashMap<Integer, Integer> weights = new HashMap<>(n*2);
+        HashMap<Integer, Set<Integer>> adjacency = new HashMap<>(n*2);
+
+        for(int v = 0; v < n; v++) {
+            Set<Integer> neighbors = new Set<>();
+            for(int i = offsets[v]; i < offsets[v+1]; i++)
+                neighbors.add(labels[targets[i]]);
+
+            vertices.add(labels[v]);
+            weights.put(labels[v], (int) this.weights[v]);
+            adjacency.put(labels[v], neighbors);
+        }
+
+        return new IntegerGraph(vertices, weights, adjacency);
+    }
+
+    /**
+     * Creates the set of all dense ids of this graph
+     * @return returns a new set containing 0..n-1
+     */
+    public IntVertexSet getVertices() {
+        return IntVertexSet.full(n);
+    }
+
+    public long weight(int vertex) {
+        return weights[vertex];
+    }
+
+    public int degree(int vertex) {
+        return offsets[vertex+1] - offsets[vertex];
+    }
+
+    public long edgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * Finds the dense id of an original vertex id.
+     * @param label the original vertex id
+     * @return returns the dense id or -1 if the vertex is not part of this graph
+     */
+    public int indexOf(int label) {
+        int id = Arrays.binarySearch(labels, label);
+        return id < 0 ? -1 : id;
+    }
+
+    /**
+     * Calculates the total weight of the neighbors of a vertex. The values are computed once and cached.
+     * @param vertex dense id of the vertex
+     * @return returns the sum of all neighbor weights
+     */
+    public long getNeighborWeight(int vertex) {
+        if(neighborWeights == null) {
+            long[] sums = new long[n];
+            for(int v = 0; v < n; v++) {
+                for(int i = offsets[v]; i < offsets[v+1]; i++)
+                    sums[v] += weights[targets[i]];
+            }
+            neighborWeights = sums;
+        }
+        return neighborWeights[vertex];
+    }
+
+    /**
+     * Calculates the total weight of all vertices in the set.
+     * @param vertexSet the set of dense ids to calculate the weight of
+     * @return returns the sum of all the vertices' weights in the set.
+     */
+    public long getSetWeight(IntVertexSet vertexSet) {
+        long totalWeight = 0;
+        for(int vertex = vertexSet.nextSetBit(0); vertex >= 0; vertex = vertexSet.nextSetBit(vertex + 1))
+            totalWeight += weights[vertex];
+        return totalWeight;
+    }
+
+    /**
+     * Determines if a given vertex set is independent
+     * @param vertexSet the set of dense ids to be tested for independence
+     * @return true when vertexSet is independent, false otherwise
+     */
+    public boolean isIndependent(IntVertexSet vertexSet) {
+        for(int v = vertexSet.nextSetBit(0); v >= 0; v = vertexSet.nextSetBit(v + 1)) {
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                if(vertexSet.contains(targets[i]))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines if a given vertex set is a vertex cover
+     * @param vertexSet the set of dense ids to be tested
+     * @return true when vertexSet is a vertex cover, false otherwise
+     */
+    public boolean isVertexCover(IntVertexSet vertexSet) {
+        for(int v = 0; v < n; v++) {
+            if(vertexSet.contains(v))
+                continue;
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                if(!vertexSet.contains(targets[i]))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps a set of dense ids to the original vertex ids
+     * @param ids set of dense ids
+     * @return returns a new set containing the original vertex ids
+     */
+    public Set<Integer> toLabels(IntVertexSet ids) {
+        Set<Integer> result = new Set<>(ids.size()*2);
+        for(int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+            result.add(labels[id]);
+        return result;
+    }
+
+    /**
+     * Maps a set of original vertex ids to dense ids, vertices that are not part of this graph are ignored
+     * @param vertexSet set of original vertex ids
+     * @return returns a new set containing the dense ids
+     */
+    public IntVertexSet toIds(Collection<Integer> vertexSet) {
+        IntVertexSet result = new IntVertexSet(n);
+        for(Integer vertex : vertexSet) {
+            int id = indexOf(vertex);
+            if(id >= 0)
+                result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the subgraph induced by the given vertices. The new graph keeps the original vertex ids as labels.
+     * @param ids dense ids of the vertices in ascending order
+     * @return returns the induced subgraph
+     */
+    public CsrGraph induced(int[] ids) {
+        int size = ids.length;
+        int[] subLabels = new int[size];
+        long[] subWeights = new long[size];
+        int[] subOffsets = new int[size+1];
+
+        // local id of every vertex of the subgraph, -1 for the others
+        int[] local = new int[n];
+        Arrays.fill(local, -1);
+        for(int i = 0; i < size; i++)
+            local[ids[i]] = i;
+
+        for(int i = 0; i < size; i++) {
+            int v = ids[i];
+            subLabels[i] = labels[v];
+            subWeights[i] = weights[v];
+            int degree = 0;
+            for(int j = offsets[v]; j < offsets[v+1]; j++) {
+                if(local[targets[j]] >= 0)
+                    degree++;
+            }
+            subOffsets[i+1] = subOffsets[i] + degree;
+        }
+
+        int[] subTargets = new int[subOffsets[size]];
+        for(int i = 0; i < size; i++) {
+            int v = ids[i];
+            int position = subOffsets[i];
+            for(int j = offsets[v]; j < offsets[v+1]; j++) {
+                if(local[targets[j]] >= 0)
+                    subTargets[position++] = local[targets[j]];
+            }
+        }
+
+        return new CsrGraph(subOffsets, subTargets, subWeights, subLabels);
+    }
+
+    /**
+     * Creates the subgraph induced by all vertices that are not marked as removed.
+     * @param removed removal marks indexed by dense id
+     * @return returns the remaining graph
+     */
+    public CsrGraph without(boolean[] removed) {
+        int count = 0;
+        for(int v = 0; v < n; v++) {
+            if(!removed[v])
+                count++;
+        }
+        int[] ids = new int[count];
+        count = 0;
+        for(int v = 0; v < n; v++) {
+            if(!removed[v])
+                ids[count++] = v;
+        }
+        return induced(ids);
+    }
+
+    // default algorithm using generateSwap call
+    public IntVertexSet localSearch(IntVertexSet cover, int kMax, long totalWeight) {
+        CoverState state = new CoverState(this, cover);
+        SwapEnumerator enumerator = new SwapEnumerator(this, kMax);
+        IntVertexSet S = new IntVertexSet();
+
+        long start = System.nanoTime();
+        long swaps = 0;
+        long roots = 0;
+        boolean stopped = false;
+
+        for(int k = 1; k <= kMax; k++) {
+            IntVertexSet C = state.getCover();
+            metrics.searchLevel(k, n, C.size(), System.nanoTime() - start);
+
+            int level = k;
+            for(int vertex = C.nextSetBit(0); vertex >= 0; vertex = C.nextSetBit(vertex + 1)) {
+                if(isFinished(state, roots++, k)) {
+                    stopped = true;
+                    break;
+                }
+                if(enumerator.generateSwap(k, vertex, C)) {
+                    state.applySwap(enumerator.getSwap(S));
+                    swaps++;
+                    swapApplied(state, k, S.size(), totalWeight, start);
+                    // restart the k-loop at 1
+                    k = 0;
+                    break;
+                }
+
+            }
+            reportEnumerated(level, enumerator);
+            if(stopped)
+                break;
+
+        }
+
+        metrics.searchFinished(swaps, state.getWeight() + totalWeight, System.nanoTime() - start);
+        return state.getCover();
+    }
+
+    public IntVertexSet generateSwap(int k, int vertex, IntVertexSet cover) {
+        SwapEnumerator enumerator = new SwapEnumerator(this, k);
+        if(enumerator.generateSwap(k, vertex, cover))
+            return enumerator.getSwap();
+        return new IntVertexSet();
+    }
+
+    // vertex cylcing variant using array and indices
+    public IntVertexSet localSearch_cycling(IntVertexSet cover, int kMax, long totalWeight) {
+        CoverState state = new CoverState(this, cover);
+        SwapEnumerator enumerator = new SwapEnumerator(this, kMax);
+
+        long start = System.nanoTime();
+
+        int maxCycling = 3;
+        boolean change = false;
+
+        IntVertexSet S = new IntVertexSet();
+
+        int swapcount = 0;
+        long roots = 0;
+        boolean stopped = false;
+
+        for(int k = 1; k <= kMax; k++) {
+            metrics.searchLevel(k, n, n, System.nanoTime() - start);
+
+            int level = k;
+            int noSwap = 0;
+
+            for(int vertex = 0; vertex < n; vertex++) {
+                if(isFinished(state, roots++, k)) {
+                    stopped = true;
+                    break;
+                }
+
+                if(enumerator.generateSwap(k, vertex, state.getCover())) {
+                    noSwap = 0;
+
+                    state.applySwap(enumerator.getSwap(S));
+                    swapApplied(state, k, S.size(), totalWeight, start);
+
+                    swapcount++;
+                    change = true;
+
+                    // restart the k-loop at 1
+                    if(k > maxCycling) {
+                        k = 0;
+                        change = false;
+                        break;
+                    }
+
+                }
+                else {
+                    noSwap++;
+                }
+
+                if(noSwap == n)
+                    break;
+
+                if(vertex == n-1 && k <= maxCycling && k > 1)
+                    vertex = 0;
+
+            }
+            reportEnumerated(level, enumerator);
+            if(stopped)
+                break;
+
+            if(k == kMax && kMax == maxCycling && change == true) {
+                change = false;
+                k = 0;
+            }
+
+        }
+
+        metrics.searchFinished(swapcount, state.getWeight() + totalWeight, System.nanoTime() - start);
+        return state.getCover();
+    }
+
+    public IntVertexSet localSearch_pruning(IntVertexSet cover, int kMax, long totalWeight) {
+        return localSearch_pruning(cover, kMax, totalWeight, null);
+    }
+
+    /**
+     * Restarts localSearch_pruning after a small change of the graph. If cover was a local optimum before the change,
+     * only roots close to the changed vertices can have an improving swap, so R starts with the vertices within
+     * distance k of them like after a swap instead of with all vertices.
+     * @param changed dense ids of the vertices whose weight or neighborhood changed, null to search all roots
+     * @return returns the improved cover
+     */
+    public IntVertexSet localSearch_pruning(IntVertexSet cover, int kMax, long totalWeight, IntVertexSet changed) {
+
+        CoverState state = new CoverState(this, cover);
+        SwapEnumerator enumerator = new SwapEnumerator(this, kMax);
+        IntVertexSet C = state.getCover();
+        IntVertexSet S = new IntVertexSet();
+        IntVertexSet candidates = new IntVertexSet(n);
+        boolean[] reached = new boolean[n];
+        int[] queue = new int[n];
+
+
+        long start = System.nanoTime();
+        long swaps = 0;
+        long roots = 0;
+        boolean stopped = false;
+
+
+        IntVertexSet[] R = new IntVertexSet[kMax];
+        for(int i = 0; i < kMax; i++) {
+            R[i] = changed == null ? getVertices() : new IntVertexSet(n);
+        }
+        if(changed != null)
+            updateRecent(R, changed, reached, queue);
+
+        for(int k = 1; k <= kMax; k++) {
+            IntVertexSet.intersect(C, R[k-1], candidates);
+            metrics.searchLevel(k, R[k-1].size(), candidates.size(), System.nanoTime() - start);
+
+            int level = k;
+            for(int vertex = candidates.nextSetBit(0); vertex >= 0; vertex = candidates.nextSetBit(vertex + 1)) {
+                if(isFinished(state, roots++, k)) {
+                    stopped = true;
+                    break;
+                }
+                int result = findSwap(k, vertex, state, R[k-1], enumerator, S);
+                if(result == SKIPPED)
+                    continue;
+
+                if(result == FOUND) {
+                    state.applySwap(S);
+                    swaps++;
+                    swapApplied(state, k, S.size(), totalWeight, start);
+                    updateRecent(R, S, reached, queue);
+
+                    // restart the k-loop at 1
+                    k = 0;
+                    break;
+                } else {
+                    R[k-1].remove(vertex);
+                }
+
+            }
+            reportEnumerated(level, enumerator);
+            if(stopped)
+                break;
+
+        }
+
+        metrics.searchFinished(swaps, state.getWeight() + totalWeight, System.nanoTime() - start);
+        return C;
+    }
+
+    /**
+     * Same search as localSearch_pruning, but the candidate roots of a k are evaluated in batches by several threads.
+     * During a batch the cover is not changed, every thread searches its roots with its own SwapEnumerator against it.
+     * Afterwards the results are committed in root order: the first improving swap is applied as it is, every later
+     * one only if it is still a valid improving swap on the changed cover. Roots that failed before the first commit
+     * leave R like in the sequential search, all others stay in R and are searched again.
+     * @param threads number of threads evaluating roots, with a single thread or on small graphs the sequential search is used
+     * @return returns the improved cover
+     */
+    public IntVertexSet localSearch_pruning(IntVertexSet cover, int kMax, long totalWeight, int threads) {
+        if(threads <= 1 || n < PARALLEL_SEARCH_MIN_VERTICES)
+            return localSearch_pruning(cover, kMax, totalWeight);
+
+        CoverState state = new CoverState(this, cover);
+        IntVertexSet C = state.getCover();
+        IntVertexSet candidates = new IntVertexSet(n);
+        boolean[] reached = new boolean[n];
+        int[] queue = new int[n];
+
+        IntVertexSet[] R = new IntVertexSet[kMax];
+        for(int i = 0; i < kMax; i++) {
+            R[i] = getVertices();
+        }
+
+        // a batch is shared with the workers through these arrays, they are only written between batches
+        int batchSize = threads * PARALLEL_SEARCH_BATCH;
+        int[] batch = new int[batchSize];
+        int[] results = new int[batchSize];
+        IntVertexSet[] swaps = new IntVertexSet[batchSize];
+        for(int i = 0; i < batchSize; i++)
+            swaps[i] = new IntVertexSet();
+        int[] batchLength = new int[1];
+        int[] batchK = new int[1];
+
+        Runnable[] workers = new Runnable[threads];
+        SwapEnumerator[] enumerators = new SwapEnumerator[threads];
+        for(int t = 0; t < threads; t++) {
+            int id = t;
+            SwapEnumerator enumerator = enumerators[t] = new SwapEnumerator(this, kMax);
+            workers[t] = () -> {
+                int k = batchK[0];
+                for(int i = id; i < batchLength[0]; i += threads)
+                    results[i] = findSwap(k, batch[i], state, R[k-1], enumerator, swaps[i]);
+            };
+        }
+
+        long start = System.nanoTime();
+        long swapCount = 0;
+        long roots = 0;
+        boolean stopped = false;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for(int k = 1; k <= kMax; k++) {
+                IntVertexSet.intersect(C, R[k-1], candidates);
+                metrics.searchLevel(k, R[k-1].size(), candidates.size(), System.nanoTime() - start);
+
+                boolean committed = false;
+                int vertex = candidates.nextSetBit(0);
+                // roots of small swaps are checked in O(degree), they are not worth handing to the pool
+                boolean inline = k < PARALLEL_SEARCH_MIN_K;
+                while(vertex >= 0 && !committed) {
+                    // the budget is checked once per batch
+                    if(isFinished(state, roots, k)) {
+                        stopped = true;
+                        break;
+                    }
+                    int length = 0;
+                    for(; vertex >= 0 && length < (inline ? 1 : batchSize); vertex = candidates.nextSetBit(vertex + 1))
+                        batch[length++] = vertex;
+                    batchLength[0] = length;
+                    batchK[0] = k;
+                    roots += length;
+
+                    if(inline) {
+                        workers[0].run();
+                    } else {
+                        List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+                        for(Runnable worker : workers)
+                            tasks.add(ForkJoinTask.adapt(worker));
+                        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+                    }
+
+                    for(int i = 0; i < length; i++) {
+                        if(results[i] == SKIPPED)
+                            continue;
+                        if(results[i] != FOUND) {
+                            if(!committed)
+                                R[k-1].remove(batch[i]);
+                            continue;
+                        }
+                        // swaps after the first one were found on the snapshot and have to be checked again
+                        if(committed && !isImprovingSwap(state, swaps[i]))
+                            continue;
+
+                        state.applySwap(swaps[i]);
+                        swapCount++;
+                        swapApplied(state, k, swaps[i].size(), totalWeight, start);
+                        updateRecent(R, swaps[i], reached, queue);
+                        committed = true;
+                    }
+                }
+                for(SwapEnumerator enumerator : enumerators)
+                    reportEnumerated(k, enumerator);
+                if(stopped)
+                    break;
+
+                // restart the k-loop at 1
+                if(committed)
+                    k = 0;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        metrics.searchFinished(swapCount, state.getWeight() + totalWeight, System.nanoTime() - start);
+        return C;
+    }
+
+    /**
+     * Checks before the next root whether the cover has reached the lower bound or the budget is exhausted.
+     */
+    private boolean isFinished(CoverState state, long roots, int k) {
+        return state.getWeight() <= lowerBound || (budget != null && budget.isExhausted(roots, k));
+    }
+
+    /**
+     * Reports an applied swap to the metrics and hands a copy of the improved cover to the cover listener.
+     */
+    private void swapApplied(CoverState state, int k, int size, long totalWeight, long start) {
+        long elapsed = System.nanoTime() - start;
+        metrics.swapApplied(k, size, state.getWeight() + totalWeight, elapsed);
+        if(coverListener != null)
+            coverListener.improved(this, state.getCover().copy(), state.getWeight() + totalWeight, elapsed);
+    }
+
+    /**
+     * Passes the work counters of an enumerator for one k-level to the metrics and resets them.
+     */
+    private void reportEnumerated(int k, SwapEnumerator enumerator) {
+        if(enumerator.getCalls() > 0)
+            metrics.enumerated(k, enumerator.getCalls(), enumerator.getFrames(), enumerator.getMaxDepth());
+        enumerator.resetCounters();
+    }
+
+    /**
+     * Looks for an improving k-swap rooted at vertex like one step of localSearch_pruning, without changing the cover.
+     * @param S receives the swap if one is found
+     * @return returns FOUND, NOT_FOUND or SKIPPED if vertex has no uncovered neighbors and is not tried for this k
+     */
+    private int findSwap(int k, int vertex, CoverState state, IntVertexSet recent, SwapEnumerator enumerator, IntVertexSet S) {
+        // every swap rooted at vertex contains vertex and all of its uncovered neighbors
+        int uncovered = state.getUncoveredNeighbors(vertex);
+        if(k != 1 && uncovered == 0)
+            return SKIPPED;
+        if(uncovered + 1 > k)
+            return NOT_FOUND;
+
+        IntVertexSet C = state.getCover();
+        S.clear();
+        if(uncovered + 1 == k) {
+            // the swap is fixed already, its gain is maintained by the cover state
+            if(state.getGain(vertex) <= 0)
+                return NOT_FOUND;
+            S.add(vertex);
+            for(int i = offsets[vertex]; i < offsets[vertex+1]; i++) {
+                if(!C.contains(targets[i]))
+                    S.add(targets[i]);
+            }
+            return FOUND;
+        }
+
+        if(!enumerator.generateSwap(k, vertex, C, recent))
+            return NOT_FOUND;
+        enumerator.getSwap(S);
+        return FOUND;
+    }
+
+    /**
+     * Checks whether flipping the vertices of S keeps the current cover a cover and lowers its weight.
+     */
+    private boolean isImprovingSwap(CoverState state, IntVertexSet S) {
+        long gain = 0;
+        for(int vertex = S.nextSetBit(0); vertex >= 0; vertex = S.nextSetBit(vertex + 1)) {
+            if(!state.contains(vertex)) {
+                gain -= weights[vertex];
+                continue;
+            }
+            gain += weights[vertex];
+            // vertex leaves the cover, so all of its neighbors have to be in the cover afterwards
+            for(int i = offsets[vertex]; i < offsets[vertex+1]; i++) {
+                if(state.contains(targets[i]) == S.contains(targets[i]))
+                    return false;
+            }
+        }
+        return gain > 0;
+    }
+
+    /**
+     * Adds the vertices within distance i+1 of the swap S to R[i], the only roots that can have new swaps.
+     * @param reached marks of the search, all false before and after the call
+     * @param queue breadth first queue of the search with room for n vertices
+     */
+    private void updateRecent(IntVertexSet[] R, IntVertexSet S, boolean[] reached, int[] queue) {
+        // breadth first search from S, only the vertices reached in the last level are expanded
+        int head = 0, tail = 0;
+        for(int vertex = S.nextSetBit(0); vertex >= 0; vertex = S.nextSetBit(vertex + 1)) {
+            reached[vertex] = true;
+            queue[tail++] = vertex;
+        }
+
+        for(int i = 0; i < R.length; i++) {
+            for(int levelEnd = tail; head < levelEnd; head++) {
+                int vertex = queue[head];
+                for(int j = offsets[vertex]; j < offsets[vertex+1]; j++) {
+                    if(!reached[targets[j]]) {
+                        reached[targets[j]] = true;
+                        queue[tail++] = targets[j];
+                    }
+                }
+            }
+            for(int t = 0; t < tail; t++)
+                R[i].add(queue[t]);
+        }
+
+        // only the reached vertices are cleared, so a swap costs the size of its neighborhood and not O(n)
+        for(int t = 0; t < tail; t++)
+            reached[queue[t]] = false;
+    }
+
+    /**
+     * Calculates the set of vertices adjacent to a given vertex set
+     * @param vertices the set of dense ids to find the neighbors of
+     * @return set of dense ids representing the neighbors
+     */
+    public IntVertexSet getNeighbors(IntVertexSet vertices) {
+        IntVertexSet neighbors = new IntVertexSet(n);
+        for(int vertex = vertices.nextSetBit(0); vertex >= 0; vertex = vertices.nextSetBit(vertex + 1)) {
+            for(int i = offsets[vertex]; i < offsets[vertex+1]; i++)
+                neighbors.add(targets[i]);
+        }
+        return neighbors;
+    }
+
+    /**
+     * Marks vertices as removed that are certain not to be in the solution and returns their neighbors, which are.
+     * The rule is to add all neighbors of a vertex to the cover if their total weight is at most the weight of the vertex.
+     * The sum of the remaining neighbor weights is maintained per vertex and a removal only re-examines the neighbors
+     * of the removed vertices, so the reduction runs in O(n + m) apart from the scans of the worklist. Candidates are
+     * taken in the same cyclic order as repeated passes over all vertices would take them, so the result does not
+     * depend on the worklist. The rows have to be symmetric.
+     * @param removed removal marks indexed by dense id, updated in place
+     * @return returns the dense ids of the vertices forced into the cover
+     */
+    public IntVertexSet preprocess(boolean[] removed) {
+        long start = System.nanoTime();
+        IntVertexSet inCover = new IntVertexSet(n);
+        int totalRemoved = 0;
+
+        // weight of the neighbors that are not removed yet and the vertices that satisfy the rule
+        long[] remainingWeight = new long[n];
+        IntVertexSet candidates = new IntVertexSet(n);
+        for(int v = 0; v < n; v++) {
+            if(removed[v])
+                continue;
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                if(!removed[targets[i]])
+                    remainingWeight[v] += weights[targets[i]];
+            }
+            if(weights[v] >= remainingWeight[v])
+                candidates.add(v);
+        }
+
+        // continue behind the last reduced vertex and wrap around, like a new pass over all vertices would
+        int position = 0;
+        while(true) {
+            int v = candidates.nextSetBit(position);
+            if(v < 0)
+                v = candidates.nextSetBit(0);
+            if(v < 0)
+                break;
+            position = v + 1;
+
+            removeReduced(v, removed, remainingWeight, candidates);
+            totalRemoved++;
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                int neighbor = targets[i];
+                if(removed[neighbor])
+                    continue;
+                inCover.add(neighbor);
+                removeReduced(neighbor, removed, remainingWeight, candidates);
+                totalRemoved++;
+            }
+        }
+
+        metrics.reduction("Vertex Reduction", totalRemoved, inCover.size(), System.nanoTime() - start);
+        return inCover;
+    }
+
+    /**
+     * Removes a vertex during preprocess and queues the neighbors that satisfy the rule afterwards.
+     */
+    private void removeReduced(int vertex, boolean[] removed, long[] remainingWeight, IntVertexSet candidates) {
+        removed[vertex] = true;
+        candidates.remove(vertex);
+        for(int i = offsets[vertex]; i < offsets[vertex+1]; i++) {
+            int neighbor = targets[i];
+            if(removed[neighbor])
+                continue;
+            remainingWeight[neighbor] -= weights[vertex];
+            if(weights[neighbor] >= remainingWeight[neighbor])
+                candidates.add(neighbor);
+        }
+    }
+
+    /**
+     * Marks vertices as removed that are certain not to be in the solution and returns their neighbors, which are.
+     * The rule is to add all neighbors of a vertex to the cover if the vertex is clique-isolated and the heaviest among its neighbors.
+     * A vertex that satisfies the rule keeps satisfying it while vertices are removed, and only the remaining neighbors
+     * of removed vertices can start to satisfy it. So every vertex is tested once and then again only when it is dirty,
+     * i.e. after one of its neighbors was removed. Vertices are reduced in the same cyclic order as repeated passes over
+     * all vertices would reduce them, which keeps the result independent of the worklist. The rows have to be symmetric.
+     * @param removed removal marks indexed by dense id, updated in place
+     * @return returns the dense ids of the vertices forced into the cover
+     */
+    public IntVertexSet doCliquePruning(boolean[] removed) {
+        long start = System.nanoTime();
+        IntVertexSet inCover = new IntVertexSet(n);
+        int totalRemoved = 0;
+
+        // stack of dirty vertices, isDirty avoids duplicates
+        int[] dirty = new int[n];
+        int dirtySize = 0;
+        boolean[] isDirty = new boolean[n];
+        IntVertexSet candidates = new IntVertexSet(n);
+        for(int v = 0; v < n; v++) {
+            if(!removed[v]) {
+                dirty[dirtySize++] = v;
+                isDirty[v] = true;
+            }
+        }
+
+        int position = 0;
+        while(true) {
+            while(dirtySize > 0) {
+                int v = dirty[--dirtySize];
+                isDirty[v] = false;
+                if(!removed[v] && isSimplicialAndHeaviest(v, removed))
+                    candidates.add(v);
+            }
+
+            // continue behind the last reduced vertex and wrap around, like a new pass over all vertices would
+            int v = candidates.nextSetBit(position);
+            if(v < 0)
+                v = candidates.nextSetBit(0);
+            if(v < 0)
+                break;
+            position = v + 1;
+
+            int size = 1;
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                if(!removed[targets[i]])
+                    size++;
+            }
+            metrics.cliqueFound(size);
+
+            removed[v] = true;
+            candidates.remove(v);
+            totalRemoved++;
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                int neighbor = targets[i];
+                if(removed[neighbor])
+                    continue;
+                removed[neighbor] = true;
+                candidates.remove(neighbor);
+                inCover.add(neighbor);
+                totalRemoved++;
+
+                // the remaining neighbors lost a neighbor, vertices of the clique are skipped once they are removed
+                for(int j = offsets[neighbor]; j < offsets[neighbor+1]; j++) {
+                    int other = targets[j];
+                    if(!removed[other] && !isDirty[other] && !candidates.contains(other)) {
+                        dirty[dirtySize++] = other;
+                        isDirty[other] = true;
+                    }
+                }
+            }
+        }
+
+        metrics.reduction("Clique Reduction", totalRemoved, inCover.size(), System.nanoTime() - start);
+        return inCover;
+    }
+
+    /**
+     * Tests whether the remaining closed neighborhood of v is a clique in which v is strictly the heaviest vertex.
+     */
+    private boolean isSimplicialAndHeaviest(int v, boolean[] removed) {
+        // the weights are cheaper to test than the clique, so they are tested first
+        for(int i = offsets[v]; i < offsets[v+1]; i++) {
+            if(!removed[targets[i]] && weights[targets[i]] >= weights[v])
+                return false;
+        }
+
+        for(int i = offsets[v]; i < offsets[v+1]; i++) {
+            int neighbor = targets[i];
+            if(removed[neighbor])
+                continue;
+
+            // the row of neighbor has to contain v and all other remaining neighbors of v, both rows are sorted
+            int j = offsets[neighbor], end = offsets[neighbor+1];
+            if(Arrays.binarySearch(targets, j, end, v) < 0)
+                return false;
+            for(int k = offsets[v]; k < offsets[v+1]; k++) {
+                int other = targets[k];
+                if(other == neighbor || removed[other])
+                    continue;
+                while(j < end && targets[j] < other)
+                    j++;
+                if(j == end || targets[j] != other)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates a greedy solution that can be used as the initial cover to the local search algorithm.
+     * For the comparators of this graph the scores are updated as edges get covered, see GreedyCover. Any other
+     * comparator defines a fixed order.
+     * @param comparator The comparator on dense ids that defines the order for greedily adding vertices to the cover.
+     * @return Returns a vertex cover of dense ids.
+     */
+    public IntVertexSet getGreedyCover(Comparator<Integer> comparator) {
+        int score = GreedyCover.scoreOf(this, comparator);
+        if(score >= 0)
+            return new GreedyCover(this, score).solve();
+
+        IntVertexSet cover = new IntVertexSet(n);
+
+        if(n == 0)
+            return cover;
+
+        PriorityQueue<Integer> vertexQueue = new PriorityQueue<>(n, comparator);
+        for(int v = 0; v < n; v++)
+            vertexQueue.add(v);
+
+        boolean[] inCover = new boolean[n];
+        int[] remainingDegree = new int[n];
+        long uncoveredEdges = edgeCount();
+        for(int v = 0; v < n; v++)
+            remainingDegree[v] = degree(v);
+
+        while(uncoveredEdges != 0) {
+            int v = vertexQueue.poll();
+
+            if(remainingDegree[v] == 0)
+                continue;
+
+            cover.add(v);
+            inCover[v] = true;
+            for(int i = offsets[v]; i < offsets[v+1]; i++) {
+                int neighbor = targets[i];
+                if(inCover[neighbor])
+                    continue;
+                remainingDegree[neighbor]--;
+                uncoveredEdges--;
+            }
+            remainingDegree[v] = 0;
+        }
+
+        return cover;
+    }
+
+    /**
+     * Get all connected components of this graph
+     * @return returns the subgraphs induced by the connected components, labelled with the original vertex ids
+     */
+    public List<CsrGraph> getDisconnectedSubgraphs() {
+        return new Components(this).subgraphs();
+    }
+}
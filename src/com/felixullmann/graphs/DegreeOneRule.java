@@ -0,0 +1,35 @@
+package com.felixullmann.graphs;
+
+/**
+ * Removes vertices of degree 0 and 1. An isolated vertex is never needed in the cover. A leaf v with neighbor u is
+ * either heavier than u, then u is in the cover, or it is folded into u: u keeps w(u) - w(v) and v is added to the
+ * cover exactly if u is not.
+ */
+public class DegreeOneRule implements ReductionRule {
+
+    private final int[] neighbor = new int[1];
+
+    @Override
+    public String getName() {
+        return "degree-1";
+    }
+
+    @Override
+    public boolean apply(KernelGraph graph, int vertex) {
+        int degree = graph.degree(vertex);
+        if(degree > 1)
+            return false;
+        if(degree == 0) {
+            graph.addNeighborsToCover(vertex);
+            return true;
+        }
+
+        graph.getNeighbors(vertex, neighbor);
+        int u = neighbor[0];
+        if(graph.weight(vertex) >= graph.weight(u))
+            graph.addNeighborsToCover(vertex);
+        else
+            graph.foldDegreeOne(vertex, u);
+        return true;
+    }
+}
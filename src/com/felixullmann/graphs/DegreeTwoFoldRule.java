@@ -0,0 +1,33 @@
+package com.felixullmann.graphs;
+
+/**
+ * Folds a vertex v of degree 2 with non-adjacent neighbors u1 and u2 if max(w(u1), w(u2)) <= w(v) < w(u1) + w(u2).
+ * Then either v or both neighbors are in an optimal cover, so the three vertices are replaced by a single one of
+ * weight w(u1) + w(u2) - w(v) that is adjacent to the neighbors of u1 and u2.
+ */
+public class DegreeTwoFoldRule implements ReductionRule {
+
+    private final int[] neighbors = new int[2];
+
+    @Override
+    public String getName() {
+        return "degree-2 fold";
+    }
+
+    @Override
+    public boolean apply(KernelGraph graph, int vertex) {
+        if(graph.degree(vertex) != 2)
+            return false;
+        graph.getNeighbors(vertex, neighbors);
+        int u1 = neighbors[0], u2 = neighbors[1];
+
+        long weight = graph.weight(vertex);
+        if(weight < graph.weight(u1) || weight < graph.weight(u2) || weight >= graph.weight(u1) + graph.weight(u2))
+            return false;
+        if(graph.isAdjacent(u1, u2))
+            return false;
+
+        graph.foldDegreeTwo(vertex, u1, u2);
+        return true;
+    }
+}
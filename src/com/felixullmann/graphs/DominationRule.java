@@ -0,0 +1,35 @@
+package com.felixullmann.graphs;
+
+/**
+ * A neighbor u of v dominates v if the closed neighborhood of u contains the one of v. If u is not heavier than v,
+ * there is an optimal cover that contains u: v can take the place of u in every independent set.
+ */
+public class DominationRule implements ReductionRule {
+
+    private int[] neighbors = new int[16];
+
+    @Override
+    public String getName() {
+        return "domination";
+    }
+
+    @Override
+    public boolean apply(KernelGraph graph, int vertex) {
+        int degree = graph.degree(vertex);
+        if(neighbors.length < degree)
+            neighbors = new int[degree * 2];
+        int count = graph.getNeighbors(vertex, neighbors);
+
+        boolean applied = false;
+        for(int i = 0; i < count; i++) {
+            int u = neighbors[i];
+            if(graph.weight(u) > graph.weight(vertex) || graph.degree(u) < graph.degree(vertex))
+                continue;
+            if(graph.isContainedIn(vertex, u)) {
+                graph.addToCover(u);
+                applied = true;
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,197 @@
+package com.felixullmann.graphs;
+
+/**
+ * Branch and reduce for the minimum weight vertex cover of small graphs.
+ * The remaining vertices and the neighborhoods are bitmasks of (n+63)/64 words, so up to 64 vertices every set
+ * operation is a single instruction. In every node the reductions remove isolated vertices and add the neighbors
+ * of a vertex to the cover if they are not heavier than the vertex. The search then branches on a vertex v of
+ * maximum degree, which is either in the cover or all of its neighbors are. A node is cut off if its weight plus the
+ * weight of a greedy matching of the remaining graph, where every edge needs its lighter endpoint at least, is not
+ * lighter than the best cover found so far.
+ *
+ * The number of nodes is limited, so a graph that is too hard is left to the local search.
+ */
+public class ExactSolver {
+
+    public static final int DEFAULT_MAX_VERTICES = 64;
+    public static final long DEFAULT_MAX_NODES = 1000000;
+
+    private final CsrGraph graph;
+    private final int n;
+    private final int words;
+    private final long[][] adjacency;
+    private final long maxNodes;
+
+    // one set of remaining vertices and one cover per depth
+    private final long[][] remaining;
+    private final long[][] taken;
+    private final long[] bestCover;
+    private long bestWeight;
+    private long nodes;
+
+    /**
+     * @param graph the graph to solve, its rows have to be symmetric
+     * @param maxNodes number of search nodes after which solve gives up
+     */
+    public ExactSolver(CsrGraph graph, long maxNodes) {
+        this.graph = graph;
+        this.n = graph.n;
+        this.words = Math.max(1, (n + 63) >>> 6);
+        this.maxNodes = maxNodes;
+        this.adjacency = new long[n][words];
+        for(int v = 0; v < n; v++) {
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++)
+                adjacency[v][graph.targets[i] >>> 6] |= 1L << graph.targets[i];
+        }
+        this.remaining = new long[n + 2][words];
+        this.taken = new long[n + 2][words];
+        this.bestCover = new long[words];
+    }
+
+    public ExactSolver(CsrGraph graph) {
+        this(graph, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * @return returns a minimum weight vertex cover in dense ids, or null if the node limit was reached
+     */
+    public IntVertexSet solve() {
+        nodes = 0;
+        bestWeight = Long.MAX_VALUE;
+        for(int v = 0; v < n; v++)
+            remaining[0][v >>> 6] |= 1L << v;
+        if(!search(0, 0))
+            return null;
+
+        IntVertexSet cover = new IntVertexSet(n);
+        for(int v = 0; v < n; v++) {
+            if((bestCover[v >>> 6] & 1L << v) != 0)
+                cover.add(v);
+        }
+        return cover;
+    }
+
+    /**
+     * @return returns the number of search nodes of the last solve
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return returns false if the node limit was reached
+     */
+    private boolean search(int depth, long weight) {
+        if(++nodes > maxNodes)
+            return false;
+        long[] R = remaining[depth], C = taken[depth];
+
+        // reductions until none applies, the best vertex to branch on is found on the way
+        int branch;
+        boolean reduced;
+        do {
+            reduced = false;
+            branch = -1;
+            int branchDegree = 0;
+            for(int v = nextBit(R, 0); v >= 0; v = nextBit(R, v + 1)) {
+                int degree = 0;
+                long neighborWeight = 0;
+                long[] row = adjacency[v];
+                for(int w = 0; w < words; w++) {
+                    long bits = row[w] & R[w];
+                    degree += Long.bitCount(bits);
+                    while(bits != 0) {
+                        neighborWeight += graph.weights[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                        bits &= bits - 1;
+                    }
+                }
+                if(degree == 0) {
+                    R[v >>> 6] &= ~(1L << v);
+                } else if(neighborWeight <= graph.weights[v]) {
+                    // some minimum cover contains all neighbors of v
+                    for(int w = 0; w < words; w++) {
+                        C[w] |= row[w] & R[w];
+                        R[w] &= ~row[w];
+                    }
+                    R[v >>> 6] &= ~(1L << v);
+                    weight += neighborWeight;
+                    reduced = true;
+                } else if(degree > branchDegree) {
+                    branch = v;
+                    branchDegree = degree;
+                }
+            }
+        } while(reduced);
+
+        if(branch < 0) {
+            if(weight < bestWeight) {
+                bestWeight = weight;
+                System.arraycopy(C, 0, bestCover, 0, words);
+            }
+            return true;
+        }
+        if(weight + matchingBound(R) >= bestWeight)
+            return true;
+
+        // v in the cover
+        long[] nextR = remaining[depth + 1], nextC = taken[depth + 1];
+        System.arraycopy(R, 0, nextR, 0, words);
+        System.arraycopy(C, 0, nextC, 0, words);
+        nextR[branch >>> 6] &= ~(1L << branch);
+        nextC[branch >>> 6] |= 1L << branch;
+        if(!search(depth + 1, weight + graph.weights[branch]))
+            return false;
+
+        // v outside of the cover, all of its neighbors in it
+        long[] row = adjacency[branch];
+        long neighborWeight = 0;
+        for(int w = 0; w < words; w++) {
+            long bits = row[w] & R[w];
+            nextC[w] = C[w] | bits;
+            nextR[w] = R[w] & ~row[w];
+            while(bits != 0) {
+                neighborWeight += graph.weights[(w << 6) + Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        nextR[branch >>> 6] &= ~(1L << branch);
+        return search(depth + 1, weight + neighborWeight);
+    }
+
+    /**
+     * @return returns the sum of the lighter endpoints of a greedy matching of the remaining graph
+     */
+    private long matchingBound(long[] R) {
+        long[] free = remaining[n + 1];
+        System.arraycopy(R, 0, free, 0, words);
+        long bound = 0;
+        for(int u = nextBit(free, 0); u >= 0; u = nextBit(free, u + 1)) {
+            free[u >>> 6] &= ~(1L << u);
+            long[] row = adjacency[u];
+            for(int w = 0; w < words; w++) {
+                long bits = row[w] & free[w];
+                if(bits != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    free[w] &= ~(1L << v);
+                    bound += Math.min(graph.weights[u], graph.weights[v]);
+                    break;
+                }
+            }
+        }
+        return bound;
+    }
+
+    private int nextBit(long[] set, int from) {
+        int w = from >>> 6;
+        if(w >= words)
+            return -1;
+        long bits = set[w] & (-1L << from);
+        while(true) {
+            if(bits != 0)
+                return (w << 6) + Long.numberOfTrailingZeros(bits);
+            if(++w == words)
+                return -1;
+            bits = set[w];
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.felixullmann.graphs;
+
+/**
+ * A vertex v is a funnel with out-neighbor u if the other neighbors K of v form a clique without neighbors of u.
+ * If v is at least as heavy as u and every vertex of K, an optimal independent set contains either v or u, and the
+ * two can be folded away: the vertices x of K get the weight w(x) + w(u) - w(v) and the neighbors of u.
+ * Vertices x with w(x) + w(u) <= w(v) are never needed outside of the cover, they are added to it instead.
+ * Only vertices of small degree are tested, as the fold adds up to |K| * deg(u) edges.
+ */
+public class FunnelRule implements ReductionRule {
+
+    private static final int MAX_DEGREE = 16;
+    private static final int MAX_OUT_DEGREE = 64;
+
+    private final int[] neighbors = new int[MAX_DEGREE];
+    private final int[] inner = new int[MAX_DEGREE];
+
+    @Override
+    public String getName() {
+        return "funnel";
+    }
+
+    @Override
+    public boolean apply(KernelGraph graph, int vertex) {
+        int degree = graph.degree(vertex);
+        if(degree < 2 || degree > MAX_DEGREE)
+            return false;
+        graph.getNeighbors(vertex, neighbors);
+
+        // number of neighbors of every neighbor among the neighbors of v
+        for(int i = 0; i < degree; i++) {
+            inner[i] = 0;
+            for(int j = 0; j < degree; j++) {
+                if(i != j && graph.isAdjacent(neighbors[i], neighbors[j]))
+                    inner[i]++;
+            }
+        }
+
+        // u has no neighbors in K, every vertex of K is adjacent to the rest of K
+        int out = -1;
+        for(int i = 0; i < degree; i++) {
+            if(inner[i] == 0 && out < 0) {
+                out = i;
+            } else if(inner[i] != degree - 2) {
+                return false;
+            }
+        }
+        if(out < 0)
+            return false;
+        int u = neighbors[out];
+        if(graph.degree(u) > MAX_OUT_DEGREE)
+            return false;
+
+        long weight = graph.weight(vertex);
+        if(graph.weight(u) > weight)
+            return false;
+        for(int i = 0; i < degree; i++) {
+            if(graph.weight(neighbors[i]) > weight)
+                return false;
+        }
+
+        boolean removed = false;
+        for(int i = 0; i < degree; i++) {
+            if(i != out && graph.weight(neighbors[i]) + graph.weight(u) <= weight) {
+                graph.addToCover(neighbors[i]);
+                removed = true;
+            }
+        }
+        if(removed)
+            return true;
+
+        int[] clique = new int[degree - 1];
+        for(int i = 0, j = 0; i < degree; i++) {
+            if(i != out)
+                clique[j++] = neighbors[i];
+        }
+        graph.foldFunnel(vertex, u, clique);
+        return true;
+    }
+}
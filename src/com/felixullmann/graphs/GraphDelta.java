@@ -0,0 +1,288 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Changes of a graph between two planning cycles in original vertex ids: added and removed vertices and edges and
+ * new weights. They are applied in that order, so an added vertex can get edges in the same delta and a removed
+ * vertex takes its edges with it. Adding an existing edge or removing a missing one does nothing, while vertices
+ * have to exist for every change except addVertex.
+ */
+public class GraphDelta {
+
+    int[] addedVertices = new int[8];
+    long[] addedWeights = new long[8];
+    int addedVertexCount;
+    int[] removedVertices = new int[8];
+    int removedVertexCount;
+    int[] addedFrom = new int[8], addedTo = new int[8];
+    int addedEdgeCount;
+    int[] removedFrom = new int[8], removedTo = new int[8];
+    int removedEdgeCount;
+    int[] weightVertices = new int[8];
+    long[] newWeights = new long[8];
+    int weightCount;
+
+    public GraphDelta addVertex(int vertex, long weight) {
+        if(addedVertexCount == addedVertices.length) {
+            addedVertices = Arrays.copyOf(addedVertices, addedVertexCount * 2);
+            addedWeights = Arrays.copyOf(addedWeights, addedVertexCount * 2);
+        }
+        addedVertices[addedVertexCount] = vertex;
+        addedWeights[addedVertexCount++] = weight;
+        return this;
+    }
+
+    public GraphDelta removeVertex(int vertex) {
+        if(removedVertexCount == removedVertices.length)
+            removedVertices = Arrays.copyOf(removedVertices, removedVertexCount * 2);
+        removedVertices[removedVertexCount++] = vertex;
+        return this;
+    }
+
+    public GraphDelta addEdge(int a, int b) {
+        if(addedEdgeCount == addedFrom.length) {
+            addedFrom = Arrays.copyOf(addedFrom, addedEdgeCount * 2);
+            addedTo = Arrays.copyOf(addedTo, addedEdgeCount * 2);
+        }
+        addedFrom[addedEdgeCount] = a;
+        addedTo[addedEdgeCount++] = b;
+        return this;
+    }
+
+    public GraphDelta removeEdge(int a, int b) {
+        if(removedEdgeCount == removedFrom.length) {
+            removedFrom = Arrays.copyOf(removedFrom, removedEdgeCount * 2);
+            removedTo = Arrays.copyOf(removedTo, removedEdgeCount * 2);
+        }
+        removedFrom[removedEdgeCount] = a;
+        removedTo[removedEdgeCount++] = b;
+        return this;
+    }
+
+    public GraphDelta setWeight(int vertex, long weight) {
+        if(weightCount == weightVertices.length) {
+            weightVertices = Arrays.copyOf(weightVertices, weightCount * 2);
+            newWeights = Arrays.copyOf(newWeights, weightCount * 2);
+        }
+        weightVertices[weightCount] = vertex;
+        newWeights[weightCount++] = weight;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return addedVertexCount + removedVertexCount + addedEdgeCount + removedEdgeCount + weightCount == 0;
+    }
+
+    /**
+     * Applies the changes to the maps of graph in place.
+     * @throws IllegalArgumentException if a weight does not fit into the int weights of graph, graph is unchanged then
+     */
+    public void applyTo(IntegerGraph graph) {
+        for(int i = 0; i < addedVertexCount; i++)
+            requireInt(addedWeights[i], addedVertices[i]);
+        for(int i = 0; i < weightCount; i++)
+            requireInt(newWeights[i], weightVertices[i]);
+
+        Set<Integer> removed = new Set<>();
+        for(int i = 0; i < removedVertexCount; i++) {
+            require(graph.vertices.contains(removedVertices[i]), removedVertices[i]);
+            removed.add(removedVertices[i]);
+        }
+        graph.removeVertices(removed);
+
+        for(int i = 0; i < addedVertexCount; i++) {
+            if(graph.vertices.contains(addedVertices[i]))
+                throw new IllegalArgumentException("Vertex " + addedVertices[i] + " exists already");
+            graph.vertices.add(addedVertices[i]);
+            graph.weights.put(addedVertices[i], (int) addedWeights[i]);
+            graph.adjacency.put(addedVertices[i], new Set<>());
+        }
+        for(int i = 0; i < removedEdgeCount; i++) {
+            int a = removedFrom[i], b = removedTo[i];
+            require(graph.vertices.contains(a), a);
+            require(graph.vertices.contains(b), b);
+            graph.adjacency.get(a).remove(b);
+            graph.adjacency.get(b).remove(a);
+        }
+        for(int i = 0; i < addedEdgeCount; i++) {
+            int a = addedFrom[i], b = addedTo[i];
+            require(graph.vertices.contains(a), a);
+            require(graph.vertices.contains(b), b);
+            if(a == b)
+                continue;
+            graph.adjacency.get(a).add(b);
+            graph.adjacency.get(b).add(a);
+        }
+        for(int i = 0; i < weightCount; i++) {
+            require(graph.vertices.contains(weightVertices[i]), weightVertices[i]);
+            graph.weights.put(weightVertices[i], (int) newWeights[i]);
+        }
+    }
+
+    /**
+     * Builds the changed graph. The rows of the vertices that stay are copied with their new dense ids, which keeps
+     * them sorted, so the work apart from the copy is proportional to the size of the delta.
+     * @return returns a new graph, graph itself is not changed
+     */
+    public CsrGraph applyTo(CsrGraph graph) {
+        int[] oldToNew = new int[graph.n];
+        int[] labels = newLabels(graph, oldToNew);
+        int n = labels.length;
+
+        long[] weights = new long[n];
+        for(int v = 0; v < graph.n; v++) {
+            if(oldToNew[v] >= 0)
+                weights[oldToNew[v]] = graph.weights[v];
+        }
+        for(int i = 0; i < addedVertexCount; i++)
+            weights[Arrays.binarySearch(labels, addedVertices[i])] = addedWeights[i];
+        for(int i = 0; i < weightCount; i++)
+            weights[idOf(labels, weightVertices[i])] = newWeights[i];
+
+        // removed edges as pairs of new ids, only rows of their endpoints are checked against them
+        HashSet<Long> removedEdges = new HashSet<>();
+        boolean[] losesEdge = new boolean[n];
+        for(int i = 0; i < removedEdgeCount; i++) {
+            int a = idOf(labels, removedFrom[i]), b = idOf(labels, removedTo[i]);
+            removedEdges.add(edgeKey(a, b));
+            losesEdge[a] = losesEdge[b] = true;
+        }
+        int[] extra = new int[n + 1];
+        int[] from = new int[addedEdgeCount], to = new int[addedEdgeCount];
+        for(int i = 0; i < addedEdgeCount; i++) {
+            from[i] = idOf(labels, addedFrom[i]);
+            to[i] = idOf(labels, addedTo[i]);
+            if(from[i] == to[i])
+                continue;
+            extra[from[i]]++;
+            extra[to[i]]++;
+        }
+
+        int[] oldOf = new int[n];
+        Arrays.fill(oldOf, -1);
+        for(int v = 0; v < graph.n; v++) {
+            if(oldToNew[v] >= 0)
+                oldOf[oldToNew[v]] = v;
+        }
+        int[] offsets = new int[n + 1];
+        for(int v = 0; v < n; v++)
+            offsets[v+1] = offsets[v] + (oldOf[v] >= 0 ? graph.degree(oldOf[v]) : 0) + extra[v];
+
+        int[] targets = new int[offsets[n]];
+        int[] fill = new int[n];
+        for(int v = 0; v < n; v++) {
+            int old = oldOf[v];
+            if(old < 0)
+                continue;
+            for(int i = graph.offsets[old]; i < graph.offsets[old+1]; i++) {
+                int target = oldToNew[graph.targets[i]];
+                if(target < 0 || (losesEdge[v] && removedEdges.contains(edgeKey(v, target))))
+                    continue;
+                targets[offsets[v] + fill[v]++] = target;
+            }
+        }
+        for(int i = 0; i < addedEdgeCount; i++) {
+            int a = from[i], b = to[i];
+            if(a == b)
+                continue;
+            targets[offsets[a] + fill[a]++] = b;
+            targets[offsets[b] + fill[b]++] = a;
+        }
+        return CsrGraph.fromRows(offsets, targets, fill, weights, labels);
+    }
+
+    /**
+     * Collects the vertices of the changed graph whose weight or neighborhood differs from graph.
+     * @param graph the graph before the change
+     * @param updated the graph returned by applyTo(graph)
+     * @return returns dense ids of updated
+     */
+    public IntVertexSet changedVertices(CsrGraph graph, CsrGraph updated) {
+        IntVertexSet changed = new IntVertexSet(updated.n);
+        for(int i = 0; i < removedVertexCount; i++) {
+            int old = idOf(graph.labels, removedVertices[i]);
+            for(int j = graph.offsets[old]; j < graph.offsets[old+1]; j++) {
+                int id = Arrays.binarySearch(updated.labels, graph.labels[graph.targets[j]]);
+                if(id >= 0)
+                    changed.add(id);
+            }
+        }
+        for(int i = 0; i < addedVertexCount; i++)
+            changed.add(idOf(updated.labels, addedVertices[i]));
+        for(int i = 0; i < addedEdgeCount; i++) {
+            changed.add(idOf(updated.labels, addedFrom[i]));
+            changed.add(idOf(updated.labels, addedTo[i]));
+        }
+        for(int i = 0; i < removedEdgeCount; i++) {
+            changed.add(idOf(updated.labels, removedFrom[i]));
+            changed.add(idOf(updated.labels, removedTo[i]));
+        }
+        for(int i = 0; i < weightCount; i++)
+            changed.add(idOf(updated.labels, weightVertices[i]));
+        return changed;
+    }
+
+    /**
+     * @param oldToNew receives the new dense id of every old vertex, -1 for removed ones
+     * @return returns the sorted labels of the changed graph
+     */
+    private int[] newLabels(CsrGraph graph, int[] oldToNew) {
+        int[] removed = Arrays.copyOf(removedVertices, removedVertexCount);
+        int[] added = Arrays.copyOf(addedVertices, addedVertexCount);
+        Arrays.sort(removed);
+        Arrays.sort(added);
+        int unique = 0;
+        for(int i = 0; i < removed.length; i++) {
+            idOf(graph.labels, removed[i]);
+            if(i == 0 || removed[i] != removed[i-1])
+                removed[unique++] = removed[i];
+        }
+        removed = Arrays.copyOf(removed, unique);
+        for(int i = 0; i < added.length; i++) {
+            if(Arrays.binarySearch(graph.labels, added[i]) >= 0 || (i > 0 && added[i] == added[i-1]))
+                throw new IllegalArgumentException("Vertex " + added[i] + " exists already");
+        }
+
+        // merge of the remaining old labels with the added ones, both ascending
+        int[] labels = new int[graph.n - removed.length + added.length];
+        int count = 0, r = 0, a = 0;
+        for(int v = 0; v < graph.n; v++) {
+            int label = graph.labels[v];
+            while(r < removed.length && removed[r] < label)
+                r++;
+            while(a < added.length && added[a] < label)
+                labels[count++] = added[a++];
+            if(r < removed.length && removed[r] == label) {
+                oldToNew[v] = -1;
+                continue;
+            }
+            oldToNew[v] = count;
+            labels[count++] = label;
+        }
+        while(a < added.length)
+            labels[count++] = added[a++];
+        return labels;
+    }
+
+    private static int idOf(int[] labels, int vertex) {
+        int id = Arrays.binarySearch(labels, vertex);
+        require(id >= 0, vertex);
+        return id;
+    }
+
+    private static void require(boolean exists, int vertex) {
+        if(!exists)
+            throw new IllegalArgumentException("Unknown vertex " + vertex);
+    }
+
+    private static void requireInt(long weight, int vertex) {
+        if(weight < Integer.MIN_VALUE || weight > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Weight " + weight + " of vertex " + vertex + " does not fit into an int");
+    }
+
+    private static long edgeKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+}
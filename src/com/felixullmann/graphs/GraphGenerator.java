@@ -0,0 +1,404 @@
+package com.felixullmann.graphs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generators for large synthetic conflict graphs, written as vehicle routing instances that VrpLoader reads.
+ * The edges are streamed to an EdgeSink as they are drawn, so memory stays bounded by a small window of the graph
+ * and not by the number of edges. Equal seeds give equal files.
+ *
+ * Models, all parameterized by the number of vertices n and the expected average degree d:
+ *   er          Erdos-Renyi G(n, m) with m = n*d/2 uniform edges
+ *   rmat        R-MAT with the probabilities (0.57, 0.19, 0.19, 0.05), a power-law degree distribution
+ *   unitdisk    n uniform points in the unit square, adjacent if their distance is at most r with pi*r^2*n = d
+ *   clustered   vehicle routing like: routes of a cluster visit customers of their region and sometimes of the next,
+ *               two routes conflict if they share a customer
+ *
+ * Usage: GraphGenerator model n averageDegree seed directory
+ */
+public class GraphGenerator {
+
+    public static final String ERDOS_RENYI = "er";
+    public static final String RMAT = "rmat";
+    public static final String UNIT_DISK = "unitdisk";
+    public static final String CLUSTERED = "clustered";
+
+    // parameters of the clustered model
+    private static final int ROUTES_PER_CLUSTER = 1000;
+    private static final int ROUTE_LENGTH = 8;
+    private static final double SPILL = 0.1;        // probability that a customer is taken from the next region
+
+    // the header is written with a placeholder of this width and filled in once the edge count is known
+    private static final int HEADER_WIDTH = 32;
+
+    private final long seed;
+
+    /**
+     * Receives the edges of a generated graph, an edge may be reported more than once by the er and rmat models.
+     */
+    public interface EdgeSink {
+        void edge(int a, int b) throws IOException;
+    }
+
+    public GraphGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length != 5) {
+            System.err.println("Usage: GraphGenerator er|rmat|unitdisk|clustered n averageDegree seed directory");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        long edges = new GraphGenerator(Long.parseLong(args[3]))
+                .writeVehicleRouting(args[0], Integer.parseInt(args[1]), Double.parseDouble(args[2]), new File(args[4]));
+        System.out.println(String.format("Wrote %s vertices and %s edges in %s ms", args[1], edges, (System.nanoTime() - start) / 1000000));
+    }
+
+    /**
+     * Generates a graph into a directory with conflict_graph.txt and node_weights.txt, weights are drawn from 1..200.
+     * @return returns the number of edge lines
+     */
+    public long writeVehicleRouting(String model, int n, double averageDegree, File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        File edgeFile = new File(directory, "conflict_graph.txt");
+
+        long edges;
+        try(AsciiWriter writer = new AsciiWriter(new FileOutputStream(edgeFile))) {
+            writer.spaces(HEADER_WIDTH - 1);
+            writer.newline();
+            long[] count = {0};
+            generate(model, n, averageDegree, (a, b) -> {
+                writer.number(a);
+                writer.space();
+                writer.number(b);
+                writer.newline();
+                count[0]++;
+            });
+            edges = count[0];
+        }
+        try(RandomAccessFile file = new RandomAccessFile(edgeFile, "rw")) {
+            file.write((n + " " + edges).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        try(AsciiWriter writer = new AsciiWriter(new FileOutputStream(new File(directory, "node_weights.txt")))) {
+            for(int v = 0; v < n; v++) {
+                writer.number(v);
+                writer.space();
+                writer.number(1 + random.nextInt(200));
+                writer.newline();
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Draws the edges of a graph with the vertices 0..n-1.
+     * @param model one of er, rmat, unitdisk and clustered
+     */
+    public void generate(String model, int n, double averageDegree, EdgeSink sink) throws IOException {
+        switch(model) {
+            case ERDOS_RENYI:
+                erdosRenyi(n, (long) (n * averageDegree / 2), sink);
+                break;
+            case RMAT:
+                rmat(n, (long) (n * averageDegree / 2), sink);
+                break;
+            case UNIT_DISK:
+                unitDisk(n, averageDegree, sink);
+                break;
+            case CLUSTERED:
+                clustered(n, averageDegree, sink);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown model " + model);
+        }
+    }
+
+    /**
+     * m uniform edges without loops.
+     */
+    public void erdosRenyi(int n, long m, EdgeSink sink) throws IOException {
+        if(n < 2)
+            return;
+        SplittableRandom random = new SplittableRandom(seed);
+        for(long e = 0; e < m; e++) {
+            int a = random.nextInt(n), b = random.nextInt(n);
+            while(a == b)
+                b = random.nextInt(n);
+            sink.edge(a, b);
+        }
+    }
+
+    /**
+     * m edges without loops, every edge descends into one of the four quadrants of the adjacency matrix per bit.
+     */
+    public void rmat(int n, long m, EdgeSink sink) throws IOException {
+        if(n < 2)
+            return;
+        SplittableRandom random = new SplittableRandom(seed);
+        int scale = 32 - Integer.numberOfLeadingZeros(n - 1);
+        for(long e = 0; e < m; ) {
+            int a = 0, b = 0;
+            for(int bit = 0; bit < scale; bit++) {
+                double p = random.nextDouble();
+                a <<= 1;
+                b <<= 1;
+                if(p >= 0.57 && p < 0.76) {
+                    b |= 1;
+                } else if(p >= 0.76 && p < 0.95) {
+                    a |= 1;
+                } else if(p >= 0.95) {
+                    a |= 1;
+                    b |= 1;
+                }
+            }
+            if(a < n && b < n && a != b) {
+                sink.edge(a, b);
+                e++;
+            }
+        }
+    }
+
+    /**
+     * The unit square is split into g*g cells of side 1/g >= r, so only points of neighboring cells can be adjacent.
+     * The points of a cell are drawn from a random generator seeded with the cell index, every cell gets n/g^2
+     * points, the remainder goes to the first cells. Vertices are numbered cell by cell and only two rows of cells
+     * are held in memory.
+     */
+    public void unitDisk(int n, double averageDegree, EdgeSink sink) throws IOException {
+        if(n < 2)
+            return;
+        double radius = Math.sqrt(averageDegree / (Math.PI * n));
+        int g = (int) Math.max(1, Math.min(Math.floor(1 / radius), Math.sqrt(n)));
+        double squaredRadius = radius * radius;
+
+        double[][] row = cellRow(0, g, n), next = g > 1 ? cellRow(1, g, n) : null;
+        for(int y = 0; y < g; y++) {
+            for(int x = 0; x < g; x++) {
+                int cell = y * g + x;
+                double[] points = row[x];
+                int first = firstPoint(cell, g, n);
+                // own cell, right neighbor and the three cells below
+                for(int i = 0; i < points.length; i += 2) {
+                    for(int j = i + 2; j < points.length; j += 2)
+                        edgeIfClose(points, i, first, points, j, first, squaredRadius, sink);
+                }
+                if(x + 1 < g)
+                    connect(points, first, row[x+1], firstPoint(cell + 1, g, n), squaredRadius, sink);
+                if(next != null) {
+                    for(int dx = -1; dx <= 1; dx++) {
+                        if(x + dx >= 0 && x + dx < g)
+                            connect(points, first, next[x+dx], firstPoint(cell + g + dx, g, n), squaredRadius, sink);
+                    }
+                }
+            }
+            row = next;
+            next = y + 2 < g ? cellRow(y + 2, g, n) : null;
+        }
+    }
+
+    // x and y coordinates of the points of every cell in a row, interleaved
+    private double[][] cellRow(int y, int g, int n) {
+        double[][] row = new double[g][];
+        for(int x = 0; x < g; x++) {
+            int cell = y * g + x;
+            int count = firstPoint(cell + 1, g, n) - firstPoint(cell, g, n);
+            SplittableRandom random = new SplittableRandom(seed * 31 + cell);
+            row[x] = new double[2 * count];
+            for(int i = 0; i < count; i++) {
+                row[x][2*i] = (x + random.nextDouble()) / g;
+                row[x][2*i+1] = (y + random.nextDouble()) / g;
+            }
+        }
+        return row;
+    }
+
+    private static int firstPoint(int cell, int g, int n) {
+        long cells = (long) g * g;
+        long base = n / cells, remainder = n % cells;
+        return (int) (cell * base + Math.min(cell, remainder));
+    }
+
+    private static void connect(double[] a, int firstA, double[] b, int firstB, double squaredRadius, EdgeSink sink) throws IOException {
+        for(int i = 0; i < a.length; i += 2) {
+            for(int j = 0; j < b.length; j += 2)
+                edgeIfClose(a, i, firstA, b, j, firstB, squaredRadius, sink);
+        }
+    }
+
+    private static void edgeIfClose(double[] a, int i, int firstA, double[] b, int j, int firstB, double squaredRadius, EdgeSink sink) throws IOException {
+        double dx = a[i] - b[j], dy = a[i+1] - b[j+1];
+        if(dx * dx + dy * dy <= squaredRadius)
+            sink.edge(firstA + i / 2, firstB + j / 2);
+    }
+
+    /**
+     * Routes are grouped into clusters of ROUTES_PER_CLUSTER consecutive ids, cluster c owns the customer region c.
+     * A route visits ROUTE_LENGTH customers, each one from its own region or with probability SPILL from the next.
+     * The region size is chosen so that a customer is visited by t = d / ROUTE_LENGTH routes on average. Besides
+     * a given route, a customer it visits has about t more visitors, so this gives the average degree d.
+     * Two routes conflict if they share a customer. The edge is reported once, at their smallest common customer.
+     */
+    public void clustered(int n, double averageDegree, EdgeSink sink) throws IOException {
+        int clusters = (n + ROUTES_PER_CLUSTER - 1) / ROUTES_PER_CLUSTER;
+        int region = (int) Math.max(ROUTE_LENGTH, ROUTES_PER_CLUSTER * ROUTE_LENGTH / (averageDegree / ROUTE_LENGTH));
+
+        int[][] previous = null;
+        for(int c = 0; c < clusters; c++) {
+            int[][] current = routes(c, n, clusters, region);
+
+            // routes that visit region c: the own ones and those of the previous cluster that spill over
+            int firstCustomer = c * region;
+            int[] count = new int[region + 1];
+            int[][][] windows = {previous, current};
+            for(int[][] routes : windows) {
+                if(routes == null)
+                    continue;
+                for(int[] route : routes) {
+                    for(int i = 1; i < route.length; i++) {
+                        if(route[i] >= firstCustomer && route[i] < firstCustomer + region)
+                            count[route[i] - firstCustomer + 1]++;
+                    }
+                }
+            }
+            for(int i = 0; i < region; i++)
+                count[i+1] += count[i];
+
+            // visitors of every customer in ascending route order, as the route ids of previous come first
+            int[] visitors = new int[count[region]];
+            int[][] visitorRoutes = new int[count[region]][];
+            int[] fill = Arrays.copyOf(count, region);
+            for(int[][] routes : windows) {
+                if(routes == null)
+                    continue;
+                for(int[] route : routes) {
+                    for(int i = 1; i < route.length; i++) {
+                        int customer = route[i] - firstCustomer;
+                        if(customer >= 0 && customer < region) {
+                            visitors[fill[customer]] = route[0];
+                            visitorRoutes[fill[customer]++] = route;
+                        }
+                    }
+                }
+            }
+
+            for(int customer = 0; customer < region; customer++) {
+                for(int i = count[customer]; i < count[customer+1]; i++) {
+                    for(int j = i + 1; j < count[customer+1]; j++) {
+                        if(firstCommon(visitorRoutes[i], visitorRoutes[j]) == firstCustomer + customer)
+                            sink.edge(visitors[i], visitors[j]);
+                    }
+                }
+            }
+            previous = current;
+        }
+    }
+
+    // routes of a cluster, entry 0 is the route id followed by the sorted distinct customers
+    private int[][] routes(int cluster, int n, int clusters, int region) {
+        int first = cluster * ROUTES_PER_CLUSTER;
+        int size = Math.min(ROUTES_PER_CLUSTER, n - first);
+        int[][] routes = new int[size][];
+        for(int r = 0; r < size; r++) {
+            SplittableRandom random = new SplittableRandom(seed * 31 + first + r);
+            int[] route = new int[ROUTE_LENGTH + 1];
+            route[0] = first + r;
+            int length = 1;
+            while(length <= ROUTE_LENGTH) {
+                int owner = cluster + 1 < clusters && random.nextDouble() < SPILL ? cluster + 1 : cluster;
+                int customer = owner * region + random.nextInt(region);
+                boolean known = false;
+                for(int i = 1; i < length && !known; i++)
+                    known = route[i] == customer;
+                if(!known)
+                    route[length++] = customer;
+            }
+            Arrays.sort(route, 1, route.length);
+            routes[r] = route;
+        }
+        return routes;
+    }
+
+    private static int firstCommon(int[] a, int[] b) {
+        int i = 1, j = 1;
+        while(i < a.length && j < b.length) {
+            if(a[i] == b[j])
+                return a[i];
+            if(a[i] < b[j])
+                i++;
+            else
+                j++;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes numbers and separators into a byte buffer, which is cheaper than formatting strings per edge.
+     */
+    private static final class AsciiWriter implements AutoCloseable {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 16];
+        private final byte[] digits = new byte[20];
+        private int size;
+
+        AsciiWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void number(long value) throws IOException {
+            if(size + 21 > buffer.length)
+                flush();
+            if(value < 0) {
+                buffer[size++] = '-';
+                value = -value;
+            }
+            int count = 0;
+            do {
+                digits[count++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while(value != 0);
+            while(count > 0)
+                buffer[size++] = digits[--count];
+        }
+
+        void space() throws IOException {
+            put((byte) ' ');
+        }
+
+        void newline() throws IOException {
+            put((byte) '\n');
+        }
+
+        void spaces(int count) throws IOException {
+            for(int i = 0; i < count; i++)
+                space();
+        }
+
+        private void put(byte b) throws IOException {
+            if(size == buffer.length)
+                flush();
+            buffer[size++] = b;
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, size);
+            size = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            out.close();
+        }
+    }
+}
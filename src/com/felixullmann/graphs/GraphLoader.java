@@ -0,0 +1,375 @@
+package com.felixullmann.graphs;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming loaders for single file graph formats, e.g. the datasets of https://networkrepository.com/dimacs.php.
+ * Supported are DIMACS (.clq, .col, .dimacs), Matrix Market (.mtx) and plain edge lists (any other name), each of
+ * them optionally gzip compressed. The file is read twice: the first pass only counts the degrees, the second one
+ * writes the neighbors into the preallocated CSR rows, so no edge list or map is held in memory.
+ *
+ * The vertex ids of the file are kept as labels, i.e. 1..n for DIMACS and Matrix Market and the ids that occur
+ * for edge lists. Weights are taken, in this order, from a weight file with "vertex weight" lines, from the
+ * "n vertex weight" lines of a DIMACS file, or otherwise set to (id mod 200) + 1.
+ */
+public class GraphLoader {
+
+    private static final int DIMACS = 0;
+    private static final int MATRIX_MARKET = 1;
+    private static final int EDGE_LIST = 2;
+
+    private GraphLoader() {
+    }
+
+    /**
+     * Receives the contents of a graph file, ids are already reduced to 0-based indices.
+     */
+    private interface Visitor {
+        void vertexCount(int n) throws IOException;
+        void vertex(int index) throws IOException;
+        void edge(int a, int b) throws IOException;
+        void weight(int index, long weight) throws IOException;
+    }
+
+    /**
+     * Loads a graph with weights from the file or the default weight scheme.
+     * @param path graph file, gzip compressed files are detected by their content
+     * @return returns the graph
+     */
+    public static CsrGraph load(String path) throws IOException {
+        return load(path, null);
+    }
+
+    /**
+     * Loads a graph, the time is reported by the caller like every other phase.
+     * @param path graph file, gzip compressed files are detected by their content
+     * @param weightPath file with one "vertex weight" line per vertex, may be null
+     * @return returns the graph
+     */
+    public static CsrGraph load(String path, String weightPath) throws IOException {
+        int format = formatOf(path);
+
+        // first pass: number of vertices and degrees
+        int[][] degree = {new int[16]};
+        boolean[][] seen = {new boolean[16]};
+        int[] count = {0};
+        boolean[] weighted = {false};
+        scan(path, format, new Visitor() {
+            public void vertexCount(int n) {
+                degree[0] = new int[n];
+                seen[0] = new boolean[n];
+                Arrays.fill(seen[0], true);
+                count[0] = n;
+            }
+
+            public void vertex(int index) {
+                if(index >= degree[0].length) {
+                    int length = Math.max(index + 1, degree[0].length * 2);
+                    degree[0] = Arrays.copyOf(degree[0], length);
+                    seen[0] = Arrays.copyOf(seen[0], length);
+                }
+                seen[0][index] = true;
+                count[0] = Math.max(count[0], index + 1);
+            }
+
+            public void edge(int a, int b) {
+                if(a != b) {
+                    degree[0][a]++;
+                    degree[0][b]++;
+                }
+            }
+
+            public void weight(int index, long weight) {
+                weighted[0] = true;
+            }
+        });
+
+        // dense ids for all indices that occur, labels are the ids of the file
+        int base = format == EDGE_LIST ? 0 : 1;
+        int[] idOf = new int[count[0]];
+        int n = 0;
+        for(int i = 0; i < count[0]; i++)
+            idOf[i] = seen[0][i] ? n++ : -1;
+        int[] labels = new int[n];
+        int[] offsets = new int[n+1];
+        for(int i = 0; i < count[0]; i++) {
+            if(idOf[i] >= 0) {
+                labels[idOf[i]] = i + base;
+                offsets[idOf[i]+1] = offsets[idOf[i]] + degree[0][i];
+            }
+        }
+        degree[0] = null;
+        seen[0] = null;
+
+        // second pass: fill the rows
+        int[] targets = new int[offsets[n]];
+        int[] fill = new int[n];
+        long[] weights = new long[n];
+        boolean[] hasWeight = new boolean[n];
+        boolean fileWeights = weightPath == null && weighted[0];
+        scan(path, format, new Visitor() {
+            public void vertexCount(int n) {
+            }
+
+            public void vertex(int index) {
+            }
+
+            public void edge(int a, int b) {
+                if(a != b) {
+                    int u = idOf[a], v = idOf[b];
+                    targets[offsets[u] + fill[u]++] = v;
+                    targets[offsets[v] + fill[v]++] = u;
+                }
+            }
+
+            public void weight(int index, long weight) throws IOException {
+                if(fileWeights) {
+                    if(index >= idOf.length || idOf[index] < 0)
+                        throw new IOException("Weight for unknown vertex " + (index + base));
+                    weights[idOf[index]] = weight;
+                    hasWeight[idOf[index]] = true;
+                }
+            }
+        });
+
+        if(weightPath != null)
+            readWeights(weightPath, labels, weights, hasWeight);
+        for(int v = 0; v < n; v++) {
+            if(!hasWeight[v]) {
+                if(weightPath != null || fileWeights)
+                    throw new IOException("No weight for vertex " + labels[v]);
+                weights[v] = labels[v] % 200 + 1;
+            }
+        }
+
+        return CsrGraph.fromRows(offsets, targets, fill, weights, labels);
+    }
+
+    private static int formatOf(String path) {
+        String name = path.toLowerCase();
+        if(name.endsWith(".gz"))
+            name = name.substring(0, name.length() - 3);
+        if(name.endsWith(".clq") || name.endsWith(".col") || name.endsWith(".dimacs"))
+            return DIMACS;
+        if(name.endsWith(".mtx"))
+            return MATRIX_MARKET;
+        return EDGE_LIST;
+    }
+
+    private static void readWeights(String path, int[] labels, long[] weights, boolean[] hasWeight) throws IOException {
+        try(LineScanner scanner = new LineScanner(open(path))) {
+            while(scanner.nextLine()) {
+                if(scanner.isEmpty() || scanner.first() == '#' || scanner.first() == '%')
+                    continue;
+                int label = (int) scanner.nextLong();
+                long weight = scanner.nextLong();
+                int id = Arrays.binarySearch(labels, label);
+                if(id < 0)
+                    throw new IOException("Weight for unknown vertex " + label + " in " + path);
+                weights[id] = weight;
+                hasWeight[id] = true;
+            }
+        }
+    }
+
+    private static void scan(String path, int format, Visitor visitor) throws IOException {
+        try(LineScanner scanner = new LineScanner(open(path))) {
+            switch(format) {
+                case DIMACS:
+                    scanDimacs(scanner, visitor);
+                    break;
+                case MATRIX_MARKET:
+                    scanMatrixMarket(scanner, visitor);
+                    break;
+                default:
+                    scanEdgeList(scanner, visitor);
+                    break;
+            }
+        } catch (IOException e) {
+            throw new IOException(path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * "c" comments, "p edge n m" header, "e a b" edges and optional "n v w" weights with 1-based ids.
+     */
+    private static void scanDimacs(LineScanner scanner, Visitor visitor) throws IOException {
+        int n = -1;
+        while(scanner.nextLine()) {
+            if(scanner.isEmpty())
+                continue;
+            switch(scanner.first()) {
+                case 'p':
+                    scanner.skipToken();
+                    scanner.skipToken();
+                    n = (int) scanner.nextLong();
+                    visitor.vertexCount(n);
+                    break;
+                case 'e':
+                    scanner.skipToken();
+                    visitor.edge(index(scanner.nextLong(), 1, n, scanner), index(scanner.nextLong(), 1, n, scanner));
+                    break;
+                case 'n':
+                    scanner.skipToken();
+                    int vertex = index(scanner.nextLong(), 1, n, scanner);
+                    visitor.weight(vertex, scanner.nextLong());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * "%" comments, a "rows columns entries" size line and "i j [value]" entries with 1-based ids.
+     */
+    private static void scanMatrixMarket(LineScanner scanner, Visitor visitor) throws IOException {
+        int n = -1;
+        while(scanner.nextLine()) {
+            if(scanner.isEmpty() || scanner.first() == '%')
+                continue;
+            if(n < 0) {
+                int rows = (int) scanner.nextLong();
+                int columns = (int) scanner.nextLong();
+                n = Math.max(rows, columns);
+                visitor.vertexCount(n);
+                continue;
+            }
+            visitor.edge(index(scanner.nextLong(), 1, n, scanner), index(scanner.nextLong(), 1, n, scanner));
+        }
+    }
+
+    /**
+     * "#" or "%" comments and "a b" lines with non-negative ids, further columns are ignored.
+     */
+    private static void scanEdgeList(LineScanner scanner, Visitor visitor) throws IOException {
+        while(scanner.nextLine()) {
+            if(scanner.isEmpty() || scanner.first() == '#' || scanner.first() == '%')
+                continue;
+            int a = index(scanner.nextLong(), 0, Integer.MAX_VALUE, scanner);
+            int b = index(scanner.nextLong(), 0, Integer.MAX_VALUE, scanner);
+            visitor.vertex(a);
+            visitor.vertex(b);
+            visitor.edge(a, b);
+        }
+    }
+
+    private static int index(long id, int base, int n, LineScanner scanner) throws IOException {
+        if(n < 0)
+            throw new IOException("Edge before header in line " + scanner.line);
+        if(id < base || id - base >= n)
+            throw new IOException("Vertex id " + id + " out of range in line " + scanner.line);
+        return (int) (id - base);
+    }
+
+    private static InputStream open(String path) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(path), 1 << 16);
+        in.mark(2);
+        int first = in.read(), second = in.read();
+        in.reset();
+        if(first == 0x1f && second == 0x8b)
+            return new GZIPInputStream(in, 1 << 16);
+        return in;
+    }
+
+    /**
+     * Reads a stream line by line into a reused byte buffer and parses integer tokens from it.
+     */
+    private static final class LineScanner implements AutoCloseable {
+        private final InputStream in;
+        private byte[] buffer = new byte[1 << 16];
+        private int size;               // valid bytes in buffer
+        private int lineEnd;            // end of the current line, exclusive
+        private int next;               // start of the next line, the bytes before it are consumed
+        private int position;           // parse position in the current line
+        private boolean eof;
+        long line;
+
+        LineScanner(InputStream in) {
+            this.in = in;
+        }
+
+        boolean nextLine() throws IOException {
+            int start = next, end = next;
+            while(true) {
+                while(end < size && buffer[end] != '\n')
+                    end++;
+                if(end < size || eof)
+                    break;
+                // the line does not fit behind the consumed lines, it is moved to the front before the refill
+                if(start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, size - start);
+                    size -= start;
+                    end -= start;
+                    start = 0;
+                }
+                if(size == buffer.length)
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                int read = in.read(buffer, size, buffer.length - size);
+                if(read < 0)
+                    eof = true;
+                else
+                    size += read;
+            }
+
+            if(start == end && end == size && eof)
+                return false;
+            lineEnd = end;
+            next = Math.min(end + 1, size);
+            position = start;
+            line++;
+            skipSpace();
+            return true;
+        }
+
+        boolean isEmpty() {
+            return position >= lineEnd;
+        }
+
+        byte first() {
+            return buffer[position];
+        }
+
+        void skipToken() {
+            while(position < lineEnd && !isSpace(buffer[position]))
+                position++;
+            skipSpace();
+        }
+
+        long nextLong() throws IOException {
+            boolean negative = position < lineEnd && buffer[position] == '-';
+            if(negative)
+                position++;
+            long value = 0;
+            int start = position;
+            while(position < lineEnd && buffer[position] >= '0' && buffer[position] <= '9') {
+                value = value * 10 + (buffer[position] - '0');
+                position++;
+            }
+            if(position == start)
+                throw new IOException("Number expected in line " + line);
+            // the rest of the token, e.g. the fraction of a matrix value, is ignored
+            skipToken();
+            return negative ? -value : value;
+        }
+
+        private void skipSpace() {
+            while(position < lineEnd && isSpace(buffer[position]))
+                position++;
+        }
+
+        private static boolean isSpace(byte c) {
+            return c == ' ' || c == '\t' || c == '\r';
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
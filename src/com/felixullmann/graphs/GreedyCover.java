@@ -0,0 +1,162 @@
+package com.felixullmann.graphs;
+
+/**
+ * Greedy vertex cover with priorities on the remaining graph. Every vertex has a cached score, which only depends on
+ * its uncovered edges: the number of them, or the weight of the neighbors behind them relative to or minus the own
+ * weight. The vertex with the highest score is added to the cover, which lowers the scores of its neighbors.
+ * The scores are kept in an indexed binary max-heap, so the cover is found in O(m log n) without any allocations
+ * after the construction. Ties go to the smaller dense id.
+ */
+public class GreedyCover {
+
+    // scores, named after the static comparators of CsrGraph
+    public static final int MAX_DEGREE = 0;
+    public static final int NEIGHBOR_WEIGHT_RATIO = 1;
+    public static final int NEIGHBOR_WEIGHT_DIFFERENCE = 2;
+
+    private final CsrGraph graph;
+    private final int score;
+
+    private final int[] remainingDegree;
+    private final long[] remainingNeighborWeight;   // weight of the neighbors outside the cover
+
+    // heap of vertices with uncovered edges, position is -1 for vertices outside the heap
+    private final int[] heap;
+    private final int[] position;
+    private final double[] key;
+    private int size;
+
+    /**
+     * @param graph the graph to cover
+     * @param score one of MAX_DEGREE, NEIGHBOR_WEIGHT_RATIO and NEIGHBOR_WEIGHT_DIFFERENCE
+     */
+    public GreedyCover(CsrGraph graph, int score) {
+        if(score < MAX_DEGREE || score > NEIGHBOR_WEIGHT_DIFFERENCE)
+            throw new IllegalArgumentException("Unknown score " + score);
+        this.graph = graph;
+        this.score = score;
+        this.remainingDegree = new int[graph.n];
+        this.remainingNeighborWeight = new long[graph.n];
+        this.heap = new int[graph.n];
+        this.position = new int[graph.n];
+        this.key = new double[graph.n];
+    }
+
+    /**
+     * Maps one of the comparators of graph to its score.
+     * @return returns the score or -1 if comparator is none of them
+     */
+    public static int scoreOf(CsrGraph graph, Object comparator) {
+        if(comparator == graph.maxDegreeComparator)
+            return MAX_DEGREE;
+        if(comparator == graph.neighborWeightRatioComparator)
+            return NEIGHBOR_WEIGHT_RATIO;
+        if(comparator == graph.neighborWeightDifferenceComparator)
+            return NEIGHBOR_WEIGHT_DIFFERENCE;
+        return -1;
+    }
+
+    /**
+     * @return returns a vertex cover of dense ids
+     */
+    public IntVertexSet solve() {
+        int n = graph.n;
+        IntVertexSet cover = new IntVertexSet(n);
+
+        size = 0;
+        for(int v = 0; v < n; v++) {
+            remainingDegree[v] = graph.degree(v);
+            remainingNeighborWeight[v] = graph.getNeighborWeight(v);
+            position[v] = -1;
+            if(remainingDegree[v] > 0) {
+                key[v] = score(v);
+                position[v] = size;
+                heap[size++] = v;
+            }
+        }
+        for(int i = size / 2 - 1; i >= 0; i--)
+            siftDown(i);
+
+        while(size > 0) {
+            int v = heap[0];
+            remove(v);
+            cover.add(v);
+
+            long weight = graph.weights[v];
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                int neighbor = graph.targets[i];
+                if(position[neighbor] < 0)
+                    continue;
+                remainingDegree[neighbor]--;
+                remainingNeighborWeight[neighbor] -= weight;
+                if(remainingDegree[neighbor] == 0) {
+                    remove(neighbor);
+                } else {
+                    // scores only go down
+                    key[neighbor] = score(neighbor);
+                    siftDown(position[neighbor]);
+                }
+            }
+        }
+        return cover;
+    }
+
+    private double score(int v) {
+        switch(score) {
+            case MAX_DEGREE:
+                return remainingDegree[v];
+            case NEIGHBOR_WEIGHT_RATIO:
+                return (double) remainingNeighborWeight[v] / graph.weights[v];
+            default:
+                return remainingNeighborWeight[v] - graph.weights[v];
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return key[a] > key[b] || (key[a] == key[b] && a < b);
+    }
+
+    private void remove(int v) {
+        int i = position[v];
+        position[v] = -1;
+        int last = heap[--size];
+        if(last == v)
+            return;
+        heap[i] = last;
+        position[last] = i;
+        siftDown(i);
+        siftUp(position[last]);
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        while(i > 0) {
+            int parent = (i - 1) / 2;
+            if(!before(v, heap[parent]))
+                break;
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && before(heap[child + 1], heap[child]))
+                child++;
+            if(!before(heap[child], v))
+                break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+}
@@ -0,0 +1,93 @@
+package com.felixullmann.graphs;
+
+/**
+ * Keeps a graph and a locally optimal cover of it across small changes of the graph. An update applies a GraphDelta,
+ * takes the cover over by the labels of its vertices, repairs the edges that are uncovered afterwards and restarts
+ * localSearch_pruning only around the changed vertices, so the search time depends on the size of the change.
+ * The metrics, budget and cover listener of the first graph are passed on to the changed graphs.
+ */
+public class IncrementalSearch {
+
+    private final int kMax;
+    private CsrGraph graph;
+    private IntVertexSet cover;
+
+    /**
+     * @param graph the current graph
+     * @param cover a cover of graph in dense ids, which should be a local optimum of localSearch_pruning with kMax
+     * @param kMax maximum swap size of the searches after an update
+     */
+    public IncrementalSearch(CsrGraph graph, IntVertexSet cover, int kMax) {
+        this.graph = graph;
+        this.cover = cover;
+        this.kMax = kMax;
+    }
+
+    /**
+     * Searches the initial graph from scratch.
+     * @param initial any cover of graph in dense ids
+     * @return returns a new IncrementalSearch with the local optimum found from initial
+     */
+    public static IncrementalSearch solve(CsrGraph graph, IntVertexSet initial, int kMax) {
+        return new IncrementalSearch(graph, graph.localSearch_pruning(initial, kMax, 0), kMax);
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return returns the cover in dense ids of getGraph
+     */
+    public IntVertexSet getCover() {
+        return cover;
+    }
+
+    public long getWeight() {
+        return graph.getSetWeight(cover);
+    }
+
+    /**
+     * Applies the delta and improves the cover of the changed graph.
+     * @return returns the new cover in dense ids of the changed graph
+     */
+    public IntVertexSet update(GraphDelta delta) {
+        CsrGraph updated = delta.applyTo(graph);
+        updated.metrics = graph.metrics;
+        updated.budget = graph.budget;
+        updated.coverListener = graph.coverListener;
+
+        // the vertices that stay keep their place in the cover, new vertices start outside of it
+        IntVertexSet carried = new IntVertexSet(updated.n);
+        for(int v = 0, id = 0; v < graph.n; v++) {
+            while(id < updated.n && updated.labels[id] < graph.labels[v])
+                id++;
+            if(id < updated.n && updated.labels[id] == graph.labels[v] && cover.contains(v))
+                carried.add(id);
+        }
+
+        IntVertexSet changed = delta.changedVertices(graph, updated);
+        repair(updated, carried, changed);
+
+        graph = updated;
+        cover = updated.localSearch_pruning(carried, kMax, 0, changed);
+        return cover;
+    }
+
+    /**
+     * Covers every edge at a changed vertex that is uncovered, with the lighter of its endpoints.
+     * Only edges at changed vertices can be uncovered, as all other edges were covered before.
+     */
+    private static void repair(CsrGraph graph, IntVertexSet cover, IntVertexSet changed) {
+        for(int v = changed.nextSetBit(0); v >= 0; v = changed.nextSetBit(v + 1)) {
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1] && !cover.contains(v); i++) {
+                int neighbor = graph.targets[i];
+                if(cover.contains(neighbor))
+                    continue;
+                boolean lighter = graph.weights[neighbor] < graph.weights[v]
+                        || (graph.weights[neighbor] == graph.weights[v] && neighbor < v);
+                cover.add(lighter ? neighbor : v);
+            }
+        }
+    }
+}
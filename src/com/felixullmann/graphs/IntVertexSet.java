@@ -0,0 +1,451 @@
+package com.felixullmann.graphs;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of non-negative vertex ids. Small sets are stored as a sorted int array, once they grow beyond
+ * SPARSE_LIMIT elements they switch to a word-packed bitset. Iteration is always in ascending order.
+ * Besides the copying union, intersect and minus known from Set, the set offers in-place variants and
+ * variants that write into a destination set, so that the search can reuse its sets instead of allocating new ones.
+ */
+public class IntVertexSet extends AbstractSet<Integer> {
+
+    private static final int SPARSE_LIMIT = 32;
+
+    private long[] words;           // null while the set is sparse
+    private int[] elements;         // sorted, only used while the set is sparse
+    private int size;
+
+    public IntVertexSet() {
+        this.elements = new int[4];
+    }
+
+    /**
+     * Creates a dense set with room for the ids 0..capacity-1.
+     * @param capacity number of ids the bitset is sized for, the set grows if larger ids are added
+     */
+    public IntVertexSet(int capacity) {
+        this.words = new long[wordCount(capacity)];
+    }
+
+    public IntVertexSet(IntVertexSet other) {
+        this.words = other.words == null ? null : other.words.clone();
+        this.elements = other.elements == null ? null : other.elements.clone();
+        this.size = other.size;
+    }
+
+    /**
+     * Creates a dense set containing all ids 0..n-1.
+     * @param n number of vertices
+     * @return returns the full set
+     */
+    public static IntVertexSet full(int n) {
+        IntVertexSet set = new IntVertexSet(n);
+        Arrays.fill(set.words, 0, n >>> 6, -1L);
+        if((n & 63) != 0)
+            set.words[n >>> 6] = (1L << n) - 1;
+        set.size = n;
+        return set;
+    }
+
+    private static int wordCount(int capacity) {
+        return Math.max(1, (capacity + 63) >>> 6);
+    }
+
+    public boolean isSparse() {
+        return words == null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int vertex) {
+        if(words == null)
+            return Arrays.binarySearch(elements, 0, size, vertex) >= 0;
+
+        int word = vertex >>> 6;
+        return word < words.length && (words[word] & (1L << vertex)) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && (Integer) o >= 0 && contains((int) (Integer) o);
+    }
+
+    public boolean add(int vertex) {
+        if(vertex < 0)
+            throw new IllegalArgumentException("Vertex ids have to be non-negative: " + vertex);
+
+        if(words == null) {
+            int position = Arrays.binarySearch(elements, 0, size, vertex);
+            if(position >= 0)
+                return false;
+            if(size == SPARSE_LIMIT) {
+                toDense(vertex + 1);
+                return add(vertex);
+            }
+            position = -position - 1;
+            if(size == elements.length)
+                elements = Arrays.copyOf(elements, Math.min(SPARSE_LIMIT, size*2));
+            System.arraycopy(elements, position, elements, position + 1, size - position);
+            elements[position] = vertex;
+            size++;
+            return true;
+        }
+
+        int word = vertex >>> 6;
+        if(word >= words.length)
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length*2));
+        long before = words[word];
+        words[word] = before | (1L << vertex);
+        if(before == words[word])
+            return false;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean add(Integer vertex) {
+        return add((int) vertex);
+    }
+
+    public boolean remove(int vertex) {
+        if(words == null) {
+            int position = Arrays.binarySearch(elements, 0, size, vertex);
+            if(position < 0)
+                return false;
+            System.arraycopy(elements, position + 1, elements, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        int word = vertex >>> 6;
+        if(vertex < 0 || word >= words.length)
+            return false;
+        long before = words[word];
+        words[word] = before & ~(1L << vertex);
+        if(before == words[word])
+            return false;
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer && remove((int) (Integer) o);
+    }
+
+    @Override
+    public void clear() {
+        if(words != null)
+            Arrays.fill(words, 0L);
+        size = 0;
+    }
+
+    private void toDense(int capacity) {
+        long[] dense = new long[wordCount(capacity)];
+        for(int i = 0; i < size; i++) {
+            int vertex = elements[i];
+            if((vertex >>> 6) >= dense.length)
+                dense = Arrays.copyOf(dense, Math.max((vertex >>> 6) + 1, dense.length*2));
+            dense[vertex >>> 6] |= 1L << vertex;
+        }
+        words = dense;
+        elements = null;
+    }
+
+    private void recount() {
+        int count = 0;
+        for(long word : words)
+            count += Long.bitCount(word);
+        size = count;
+    }
+
+    /**
+     * Finds the smallest element that is greater than or equal to from.
+     * @param from the id to start searching from
+     * @return returns the next element or -1 if there is none
+     */
+    public int nextSetBit(int from) {
+        if(from < 0)
+            from = 0;
+
+        if(words == null) {
+            int position = Arrays.binarySearch(elements, 0, size, from);
+            if(position < 0)
+                position = -position - 1;
+            return position < size ? elements[position] : -1;
+        }
+
+        int word = from >>> 6;
+        if(word >= words.length)
+            return -1;
+        long bits = words[word] & (-1L << from);
+        while(true) {
+            if(bits != 0)
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if(++word == words.length)
+                return -1;
+            bits = words[word];
+        }
+    }
+
+    /**
+     * Calls action for every element in ascending order.
+     */
+    public void forEachVertex(IntConsumer action) {
+        if(words == null) {
+            for(int i = 0; i < size; i++)
+                action.accept(elements[i]);
+            return;
+        }
+
+        for(int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while(bits != 0) {
+                action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * Copies the elements in ascending order into target, a new array is allocated if target is too small.
+     * @return returns the array holding the elements
+     */
+    public int[] toArray(int[] target) {
+        int[] result = target.length >= size ? target : new int[size];
+        if(words == null) {
+            System.arraycopy(elements, 0, result, 0, size);
+            return result;
+        }
+
+        int i = 0;
+        for(int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while(bits != 0) {
+                result[i++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    public int[] toIntArray() {
+        return toArray(new int[size]);
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int next = nextSetBit(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Integer next() {
+                if(next < 0)
+                    throw new NoSuchElementException();
+                last = next;
+                next = nextSetBit(next + 1);
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if(last < 0)
+                    throw new IllegalStateException();
+                IntVertexSet.this.remove(last);
+                last = -1;
+            }
+        };
+    }
+
+    /**
+     * Adds all elements of partner to this set.
+     * @param partner the set to unite with
+     * @return returns this set
+     */
+    public IntVertexSet unionInPlace(IntVertexSet partner) {
+        if(partner.words == null) {
+            for(int i = 0; i < partner.size; i++)
+                add(partner.elements[i]);
+            return this;
+        }
+
+        if(words == null)
+            toDense(partner.words.length << 6);
+        if(words.length < partner.words.length)
+            words = Arrays.copyOf(words, partner.words.length);
+        for(int i = 0; i < partner.words.length; i++)
+            words[i] |= partner.words[i];
+        recount();
+        return this;
+    }
+
+    /**
+     * Removes all elements from this set that are not in partner.
+     * @param partner the set to intersect with
+     * @return returns this set
+     */
+    public IntVertexSet intersectInPlace(IntVertexSet partner) {
+        if(words == null || partner.words == null) {
+            retainSparse(partner, true);
+            return this;
+        }
+
+        int common = Math.min(words.length, partner.words.length);
+        for(int i = 0; i < common; i++)
+            words[i] &= partner.words[i];
+        Arrays.fill(words, common, words.length, 0L);
+        recount();
+        return this;
+    }
+
+    /**
+     * Removes all elements of partner from this set.
+     * @param partner the set that is subtracted from this set
+     * @return returns this set
+     */
+    public IntVertexSet minusInPlace(IntVertexSet partner) {
+        if(words == null) {
+            retainSparse(partner, false);
+            return this;
+        }
+        if(partner.words == null) {
+            for(int i = 0; i < partner.size; i++)
+                remove(partner.elements[i]);
+            return this;
+        }
+
+        int common = Math.min(words.length, partner.words.length);
+        for(int i = 0; i < common; i++)
+            words[i] &= ~partner.words[i];
+        recount();
+        return this;
+    }
+
+    // keeps the elements whose membership in partner equals keepContained
+    private void retainSparse(IntVertexSet partner, boolean keepContained) {
+        if(words == null) {
+            int length = 0;
+            for(int i = 0; i < size; i++) {
+                if(partner.contains(elements[i]) == keepContained)
+                    elements[length++] = elements[i];
+            }
+            size = length;
+            return;
+        }
+
+        // this set is dense and partner is sparse
+        long[] kept = new long[words.length];
+        for(int i = 0; i < partner.size; i++) {
+            int vertex = partner.elements[i];
+            if(contains(vertex))
+                kept[vertex >>> 6] |= 1L << vertex;
+        }
+        words = kept;
+        recount();
+    }
+
+    /**
+     * Overwrites this set with the elements of source.
+     * @return returns this set
+     */
+    public IntVertexSet assign(IntVertexSet source) {
+        if(source == this)
+            return this;
+
+        if(source.words == null) {
+            if(words == null) {
+                if(elements.length < source.size)
+                    elements = new int[source.elements.length];
+                System.arraycopy(source.elements, 0, elements, 0, source.size);
+                size = source.size;
+            } else {
+                clear();
+                for(int i = 0; i < source.size; i++)
+                    add(source.elements[i]);
+            }
+            return this;
+        }
+
+        if(words == null || words.length < source.words.length)
+            words = new long[source.words.length];
+        System.arraycopy(source.words, 0, words, 0, source.words.length);
+        Arrays.fill(words, source.words.length, words.length, 0L);
+        elements = null;
+        size = source.size;
+        return this;
+    }
+
+    /**
+     * Writes the union of a and b into destination, destination must not be b.
+     * @return returns destination
+     */
+    public static IntVertexSet union(IntVertexSet a, IntVertexSet b, IntVertexSet destination) {
+        return destination.assign(a).unionInPlace(b);
+    }
+
+    /**
+     * Writes the intersection of a and b into destination, destination must not be b.
+     * @return returns destination
+     */
+    public static IntVertexSet intersect(IntVertexSet a, IntVertexSet b, IntVertexSet destination) {
+        return destination.assign(a).intersectInPlace(b);
+    }
+
+    /**
+     * Writes all elements of a that are not in b into destination, destination must not be b.
+     * @return returns destination
+     */
+    public static IntVertexSet minus(IntVertexSet a, IntVertexSet b, IntVertexSet destination) {
+        return destination.assign(a).minusInPlace(b);
+    }
+
+    /**
+     * Calculates the union of this set with another.
+     * @param partner the set to unite with
+     * @return a new set containing all elements from this set and partner
+     */
+    public IntVertexSet union(IntVertexSet partner) {
+        return new IntVertexSet(this).unionInPlace(partner);
+    }
+
+    /**
+     * Calculates the intersection of this set with another.
+     * @param partner the set to intersect with
+     * @return a new set containing all elements that are both in this set and the partner set
+     */
+    public IntVertexSet intersect(IntVertexSet partner) {
+        return new IntVertexSet(this).intersectInPlace(partner);
+    }
+
+    /**
+     * Calculates the set difference of this set and a partner set
+     * @param partner the set that is subtracted from this set
+     * @return returns all values that are in this set but not in the partner set
+     */
+    public IntVertexSet minus(IntVertexSet partner) {
+        return new IntVertexSet(this).minusInPlace(partner);
+    }
+
+    public IntVertexSet copy() {
+        return new IntVertexSet(this);
+    }
+}
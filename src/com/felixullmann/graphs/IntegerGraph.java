@@ -1,9 +1,6 @@
 package com.felixullmann.graphs;
 
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.LineNumberReader;
 import java.util.*;
 
 public class IntegerGraph {
@@ -24,6 +21,13 @@ public class IntegerGraph {
         this.adjacency = adjacency;
     }
 
+    /**
+     * Builds the compressed sparse row representation of this graph, which backs the search and the reductions.
+     * @return returns a new CsrGraph with dense ids in ascending order of the vertex ids
+     */
+    public CsrGraph toCsr() {
+        return CsrGraph.fromIntegerGraph(this);
+    }
 
     /**
      * loads problem for minimum weighted vertex cover from problem sets presented in https://doi.org/10.1007/s43069-021-00084-x
@@ -31,52 +35,7 @@ public class IntegerGraph {
      */
     public static IntegerGraph fromVehicleRoutingApplication(String path) {
         try {
-            Set<Integer> vertices;
-            HashMap<Integer, Set<Integer>> adjacency;
-            HashMap<Integer, Integer> weights;
-
-            String str;
-
-            File edgeFile = new File(path+"/conflict_graph.txt");
-            final LineNumberReader reader = new LineNumberReader(new FileReader(edgeFile));
-
-            // prepare vertex set and adjacency map
-            StringTokenizer tokens = new StringTokenizer(reader.readLine());
-            Integer vertexCount = Integer.parseInt(tokens.nextToken());
-            Integer edgeCount = Integer.parseInt(tokens.nextToken());
-            vertices = new Set<>(vertexCount*2);
-            weights = new HashMap<>(vertexCount*2);
-            adjacency = new HashMap<>(edgeCount*2);
-
-            // add weights and vertices
-            File vertexFile = new File(path+"/node_weights.txt");
-            final LineNumberReader vertexReader = new LineNumberReader(new FileReader(vertexFile));
-            Integer vertex, weight;
-            StringTokenizer vertexTokens;
-            while ((str = vertexReader.readLine()) != null) {
-                vertexTokens = new StringTokenizer(str);
-                vertex = Integer.parseInt(vertexTokens.nextToken());
-                weight = Integer.parseInt(vertexTokens.nextToken());
-
-                vertices.add(vertex);
-                adjacency.put(vertex, new Set<>());
-                weights.put(vertex,weight);
-            }
-
-            // populate graph with edges
-            Integer a,b;
-            while ((str = reader.readLine()) != null) {
-                tokens = new StringTokenizer(str);
-                a = Integer.parseInt(tokens.nextToken());
-                b = Integer.parseInt(tokens.nextToken());
-
-                adjacency.get(a).add(b);
-                adjacency.get(b).add(a);
-            }
-
-
-            return new IntegerGraph(vertices, weights, adjacency);
-
+            return VrpLoader.load(path).toIntegerGraph();
         } catch (IOException e) {
             System.out.println("Required files could not be read.");
             System.exit(0);
@@ -130,9 +89,8 @@ public class IntegerGraph {
      * @return true when vertexSet is a vertex cover, false otherwise
      */
     public boolean isVertexCover(Set<Integer> vertexSet) {
-        HashMap<Integer, Set<Integer>> edges = getAdjacencyCopy();
-
-        for(Map.Entry<Integer, Set<Integer>> entry : edges.entrySet()) {
+        // only reads the adjacency, so it is not copied
+        for(Map.Entry<Integer, Set<Integer>> entry : adjacency.entrySet()) {
             if(vertexSet.contains(entry.getKey()))
                 continue;
 
@@ -175,47 +133,29 @@ public class IntegerGraph {
     }
 
     /**
-     * Removes given vertices from graph
+     * Removes given vertices from graph, the adjacency has to be symmetric
      * @param vertexSet vertices to be removed
      */
     public void removeVertices(Set<Integer> vertexSet) {
         this.vertices.removeAll(vertexSet);
 
-        for(Integer vertex : vertexSet)
-            this.adjacency.remove(vertex);
-
-        this.adjacency.forEach((vertex, neighbors) -> {
-            adjacency.put(vertex, neighbors.minus(vertexSet));
-        });
-    }
-
-    // default algorithm using generateSwap call
-    public Set<Integer> localSearch(Set<Integer> cover, int kMax, long totalWeight) {
-        Set<Integer> S;
-
-        long start = System.currentTimeMillis();
-        long current;
-
-        for(int k = 1; k <= kMax; k++) {
-            current = (System.currentTimeMillis() - start)/1000;
-            System.out.println(String.format("%5s k = %s", current, k));
-
-            for(Integer vertex : cover) {
-                S = generateSwap(k, vertex, cover);
-                if(S.size() != 0) {
-                    cover = cover.minus(S).union(S.minus(cover));
-                    current = (System.currentTimeMillis() - start)/1000;
-                    System.out.println(String.format("%5s    w = %s", current, (getSetWeight(cover) + totalWeight)));
-                    // restart the k-loop at 1
-                    k = 0;
-                    break;
-                }
-
+        // only the neighbors of removed vertices change, their sets are updated in place
+        for(Integer vertex : vertexSet) {
+            Set<Integer> neighbors = this.adjacency.remove(vertex);
+            if(neighbors == null)
+                continue;
+            for(Integer neighbor : neighbors) {
+                Set<Integer> neighborSet = this.adjacency.get(neighbor);
+                if(neighborSet != null)
+                    neighborSet.remove(vertex);
             }
-
         }
+    }
 
-        return cover;
+    // default algorithm using generateSwap call, runs on the CSR representation
+    public Set<Integer> localSearch(Set<Integer> cover, int kMax, long totalWeight) {
+        CsrGraph graph = toCsr();
+        return graph.toLabels(graph.localSearch(graph.toIds(cover), kMax, totalWeight));
     }
 
     public Set<Integer> generateSwap(int k, Integer vertex, Set<Integer> cover) {
@@ -236,144 +176,33 @@ public class IntegerGraph {
         return enumerate(k, cover, S, p, P, F);
     }
 
-    // vertex cylcing variant using array and indices
+    // vertex cylcing variant, runs on the CSR representation
     public Set<Integer> localSearch_cycling(Set<Integer> cover, int kMax, long totalWeight) {
-        long start = System.currentTimeMillis();
-        long current;
-
-        int maxCycling = 3;
-        boolean change = false;
-
-        Set<Integer> S;
-
-        Integer[] vertices = this.vertices.toArray(new Integer[this.vertices.size()]);
-        Integer vertex;
-
-        int swapcount = 0;
-
-        for(int k = 1; k <= kMax; k++) {
-            current = (System.currentTimeMillis() - start)/1000;
-            System.out.println(String.format("%5s k = %s", current, k));
-
-            int noSwap = 0;
-
-            for(int i = 0; i < vertices.length; i++) {
-                vertex = vertices[i];
-
-
-                S = generateSwap(k, vertex, cover);
-                if(S.size() != 0) {
-                    noSwap = 0;
-
-                    cover = cover.minus(S).union(S.minus(cover));
-                    current = (System.currentTimeMillis() - start)/1000;
-                    System.out.println(String.format("%5s    w = %s", current, (getSetWeight(cover) + totalWeight)));
-
-                    swapcount++;
-                    change = true;
-
-                    // restart the k-loop at 1
-                    if(k > maxCycling) {
-                        k = 0;
-                        change = false;
-                        break;
-                    }
-
-                }
-                else {
-                    noSwap++;
-                }
-
-                if(noSwap == vertices.length)
-                    break;
-
-/*                if(i == vertices.length-1 && k <= maxCycling)
-                    i = 0;*/
-
-                if(i == vertices.length-1 && k <= maxCycling && k > 1)
-                    i = 0;
-
-
-            }
-
-            if(k == kMax && kMax == maxCycling && change == true) {
-                change = false;
-                k = 0;
-            }
-
-/*            if(change == true && k > 1) {
-                change = false;
-                k = 0;
-            }*/
-
-
-
-        }
-
-        System.out.println("Swaps made: " + swapcount);
-        return cover;
+        CsrGraph graph = toCsr();
+        return graph.toLabels(graph.localSearch_cycling(graph.toIds(cover), kMax, totalWeight));
     }
 
-    //
+    // runs on the CSR representation, cover is given and returned in vertex ids
     public Set<Integer> localSearch_pruning(Set<Integer> cover, int kMax, long totalWeight) {
+        CsrGraph graph = toCsr();
+        return graph.toLabels(graph.localSearch_pruning(graph.toIds(cover), kMax, totalWeight));
+    }
 
-        Set<Integer> S;
-        Stack<Integer> P;
-        Integer p = null;
-        Set<Integer> F;
-
-
-        long start = System.currentTimeMillis();
-        long current;
-
-
-        Set<Integer>[] R = new Set[kMax];
-        for(int i = 0; i < kMax; i++) {
-            R[i] = (Set<Integer>) this.vertices.clone();
-        }
-
-        for(int k = 1; k <= kMax; k++) {
-            current = (System.currentTimeMillis() - start)/1000;
-            System.out.println(String.format("%5s k = %s", current, k));
-
-            for(Integer vertex : cover.intersect(R[k-1])) {
-                S = getNeighbors(vertex).minus(cover);
-                S.add(vertex);
-                P = new Stack<>();
-                P.addAll(getNeighbors(vertex).minus(cover));
-                if(k != 1 && P.isEmpty())
-                    continue;
-                if(k != 1)
-                    p = P.pop();
-                F = ((this.vertices.minus(R[k-1])).union(getNeighbors(vertex))).intersect(cover);
-                S = enumerate(k, cover, S, p, P, F);
-                if(S.size() != 0) {
-                    cover = cover.minus(S).union(S.minus(cover));
-                    current = (System.currentTimeMillis() - start)/1000;
-                    System.out.println(String.format("%5s    w = %s", current, (getSetWeight(cover) + totalWeight)));
-                    // update R
-                    Set<Integer> frontier = getNeighbors(S);
-                    Set<Integer> M = S.union(frontier);
-
-                    for(int i = 0; i < kMax; i++) {
-                        R[i].addAll(M);
-                        frontier = getNeighbors(frontier);
-                        M.addAll(frontier);
-                    }
-                    // end update R
-
-                    // restart the k-loop at 1
-                    k = 0;
-                    break;
-                } else {
-                    R[k-1].remove(vertex);
-                }
-
-            }
-
-        }
-
-        return cover;
+    /**
+     * Applies delta to this graph in place and adapts a cover, which was found by localSearch_pruning before, to it.
+     * Uncovered edges are repaired and the search is restarted only around the changed vertices.
+     * This is a convenience wrapper for a single change, the CSR graph is rebuilt from the maps on every call. A series
+     * of changes should go to one IncrementalSearch, which keeps its graph and cover between them.
+     * @param cover cover of the graph before the change in vertex ids
+     * @return returns a cover of the changed graph in vertex ids
+     */
+    public Set<Integer> update(GraphDelta delta, Set<Integer> cover, int kMax) {
+        CsrGraph graph = toCsr();
+        // the maps are changed first, so an invalid delta is rejected before the search
+        delta.applyTo(this);
+        IncrementalSearch search = new IncrementalSearch(graph, graph.toIds(cover), kMax);
+        search.update(delta);
+        return search.getGraph().toLabels(search.getCover());
     }
 
     public Set<Integer> enumerate(int k, Set<Integer> cover, Set<Integer> S, Integer p, Stack<Integer> P, Set<Integer> F) {
@@ -422,35 +251,11 @@ public class IntegerGraph {
      * The rule is to add all neighbors of a vertex to the cover if their total weight is less than the weight of the vertex
      */
     public Set<Integer> preprocess() {
-        return preprocessRecursive(1,0, new Set<Integer>());
-    }
-
-    private Set<Integer> preprocessRecursive(int removed, int totalRemoved, Set<Integer> inCover) {
-        if(removed == 0) {
-            System.out.println("Vertex Reduction: Removed " + totalRemoved + " vertices from graph and added " + inCover.size() + " vertices to cover.\n");
-            return inCover;
-        }
-
-
-
-        Set<Integer> remove = new Set<>();
-        // find vertices to be pruned
-
-        for (Integer vertex : this.vertices) {
-            Set<Integer> neighbors;
-            neighbors = getNeighbors(vertex);
-            if (weights.get(vertex) >= getSetWeight(neighbors)) {
-                remove.add(vertex);
-                inCover.addAll(neighbors);
-            }
-        }
-        removed = remove.size();
-
-        // update graph
-        remove.addAll(inCover);
-        this.removeVertices(remove);
-
-        return preprocessRecursive(removed, totalRemoved+remove.size(), inCover);
+        CsrGraph graph = toCsr();
+        boolean[] removed = new boolean[graph.n];
+        Set<Integer> inCover = graph.toLabels(graph.preprocess(removed));
+        removeVertices(removedLabels(graph, removed));
+        return inCover;
     }
 
     /**
@@ -458,48 +263,20 @@ public class IntegerGraph {
      * The rule is to add all neighbors of a vertex to the cover if the vertex is clique-isolated and the heaviest among its neighbors
      */
     public Set<Integer> doCliquePruning() {
-        Set<Integer> inCover = new Set<>();
-        Set<Integer> remove = new Set<>();
-        boolean improved = true;
-
-
-        while(improved == true) {
-            improved = false;
-
-            outer:
-            for (Integer v : this.vertices) {
-                Set<Integer> nv = this.getNeighbors(v);
-                nv.add(v);
-
-                Integer max_w = -1;
-
-                for (Integer n : adjacency.get(v)) {
-                    Set<Integer> nn = this.getNeighbors(n);
-                    nn.add(n);
-
-                    if (!nn.intersect(nv).equals(nv))
-                        continue outer;
-
-                    if (this.weights.get(n) > max_w)
-                        max_w = this.weights.get(n);
-                }
-
-                if (!(this.weights.get(v) > max_w)) {
-                    continue;
-                }
-
-                System.out.println(nv.size() + "-clique found with root " + v + "\n");
-                remove.addAll(nv);
-                nv.remove(v);
-                inCover.addAll(nv);
-                improved = true;
-            }
+        CsrGraph graph = toCsr();
+        boolean[] removed = new boolean[graph.n];
+        Set<Integer> inCover = graph.toLabels(graph.doCliquePruning(removed));
+        removeVertices(removedLabels(graph, removed));
+        return inCover;
+    }
 
-            this.removeVertices(remove);
+    private static Set<Integer> removedLabels(CsrGraph graph, boolean[] removed) {
+        Set<Integer> labels = new Set<>();
+        for(int v = 0; v < graph.n; v++) {
+            if(removed[v])
+                labels.add(graph.labels[v]);
         }
-
-        System.out.println("Clique Reduction: Removed " + remove.size() + " vertices from graph and added " + inCover.size() + " vertices to cover.\n");
-        return inCover;
+        return labels;
     }
 
     /**
@@ -509,37 +286,20 @@ public class IntegerGraph {
      * @return Returns a vertex cover.
      */
     public Set<Integer> getGreedyCover(Set<Integer> vertices, Comparator<Integer> comparator) {
-        Set<Integer> cover = new Set<>();
-
-        if(vertices.size() == 0)
-                return cover;
-
-        PriorityQueue<Integer> vertexQueue = new PriorityQueue<>(vertices.size(), comparator);
-        vertexQueue.addAll(vertices);
-        HashMap<Integer, Set<Integer>> adjacencyCopy = this.getAdjacencyCopy();
-
-        System.out.println("Queue built.");
-
-        while(adjacencyCopy.size() != 0) {
-            Integer v = vertexQueue.poll();
-
-            if(adjacencyCopy.containsKey(v))
-                cover.add(v);
-            else
-                continue;
-
-            Set<Integer> neighbors = adjacencyCopy.get(v);
-
-            for(Integer neighbor : neighbors) {
-                adjacencyCopy.get(neighbor).remove(v);
-                if(adjacencyCopy.get(neighbor).size() == 0)
-                    adjacencyCopy.remove(neighbor);
-            }
-
-            adjacencyCopy.remove(v);
-        }
-
-        return cover;
+        CsrGraph graph = CsrGraph.fromIntegerGraph(new IntegerGraph(vertices, weights, adjacency));
+
+        // use the array based counterparts of the built-in comparators
+        Comparator<Integer> denseComparator;
+        if(comparator == maxDegreeComparator)
+            denseComparator = graph.maxDegreeComparator;
+        else if(comparator == neighborWeightRatioComparator)
+            denseComparator = graph.neighborWeightRatioComparator;
+        else if(comparator == neighborWeightDifferenceComparator)
+            denseComparator = graph.neighborWeightDifferenceComparator;
+        else
+            denseComparator = (Integer v1, Integer v2) -> comparator.compare(graph.labels[v1], graph.labels[v2]);
+
+        return graph.toLabels(graph.getGreedyCover(denseComparator));
     }
 
     /**
@@ -548,39 +308,10 @@ public class IntegerGraph {
      * @return returns a set of vertex sets that represent disconnected subgraphs induced by vertices
      */
     public Set<IntegerGraph> getDisconnectedSubgraphs(Set<Integer> vertices) {
-        Stack<Integer> frontier = new Stack<>();
-        Stack<Integer> remaining = new Stack<>();
-        remaining.addAll((Set<Integer>) this.vertices.clone());
-
         Set<IntegerGraph> subgraphs = new Set<>();
 
-        Set<Integer> currentVertices = new Set<>();
-        HashMap<Integer, Set<Integer>> currentAdjacency = new HashMap<>();
-        HashMap<Integer, Integer> currentWeights = new HashMap<>();
-
-        while(!remaining.isEmpty()) {
-            frontier.add(remaining.pop());
-
-            while(!frontier.isEmpty()) {
-                Integer v = frontier.pop();
-                currentVertices.add(v);
-
-                currentAdjacency.put(v, this.adjacency.get(v));
-                currentWeights.put(v, this.weights.get(v));
-
-                frontier.addAll(this.adjacency.get(v).minus(currentVertices));
-                currentVertices.addAll(this.adjacency.get(v));
-            }
-
-            subgraphs.add(new IntegerGraph(currentVertices, currentWeights, currentAdjacency));
-            remaining.removeAll(currentVertices);
-            //System.out.println("Subset of size " + currentVertices.size() +  " found. " + remaining.size() + " vertices remaining.");
-
-            currentVertices = new Set<>();
-            currentAdjacency = new HashMap<>();
-            currentWeights = new HashMap<>();
-
-        }
+        for(CsrGraph subgraph : CsrGraph.fromIntegerGraph(new IntegerGraph(vertices, weights, adjacency)).getDisconnectedSubgraphs())
+            subgraphs.add(subgraph.toIntegerGraph());
 
         return subgraphs;
     }
@@ -0,0 +1,118 @@
+package com.felixullmann.graphs;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Emits the metrics as custom Java Flight Recorder events, e.g. for java -XX:StartFlightRecording=filename=run.jfr.
+ * Without a recording the events are disabled and only cost the check for it.
+ */
+public class JfrMetrics implements SolverMetrics {
+
+    @Name("com.felixullmann.graphs.Phase")
+    @Label("Solver Phase")
+    @Category("Vertex Cover")
+    static class PhaseEvent extends Event {
+        @Label("Name")
+        String name;
+        @Label("Duration")
+        @Timespan
+        long nanos;
+        @Label("Removed Vertices")
+        int removed;
+        @Label("Vertices Added to Cover")
+        int inCover;
+    }
+
+    @Name("com.felixullmann.graphs.SearchLevel")
+    @Label("Search Level")
+    @Category("Vertex Cover")
+    static class SearchLevelEvent extends Event {
+        @Label("k")
+        int k;
+        @Label("Size of R[k]")
+        int recent;
+        @Label("Candidate Roots")
+        int candidates;
+    }
+
+    @Name("com.felixullmann.graphs.Enumeration")
+    @Label("Swap Enumeration")
+    @Category("Vertex Cover")
+    static class EnumerationEvent extends Event {
+        @Label("k")
+        int k;
+        @Label("Roots")
+        long calls;
+        @Label("Frames")
+        long frames;
+        @Label("Deepest Frame")
+        int maxDepth;
+    }
+
+    @Name("com.felixullmann.graphs.Swap")
+    @Label("Swap Applied")
+    @Category("Vertex Cover")
+    static class SwapEvent extends Event {
+        @Label("k")
+        int k;
+        @Label("Swap Size")
+        int size;
+        @Label("Cover Weight")
+        long weight;
+    }
+
+    @Override
+    public void phase(String name, long nanos) {
+        reduction(name, 0, 0, nanos);
+    }
+
+    @Override
+    public void reduction(String name, int removed, int inCover, long nanos) {
+        PhaseEvent event = new PhaseEvent();
+        if(event.isEnabled()) {
+            event.name = name;
+            event.nanos = nanos;
+            event.removed = removed;
+            event.inCover = inCover;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void searchLevel(int k, int recent, int candidates, long elapsed) {
+        SearchLevelEvent event = new SearchLevelEvent();
+        if(event.isEnabled()) {
+            event.k = k;
+            event.recent = recent;
+            event.candidates = candidates;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void enumerated(int k, long calls, long frames, int maxDepth) {
+        EnumerationEvent event = new EnumerationEvent();
+        if(event.isEnabled()) {
+            event.k = k;
+            event.calls = calls;
+            event.frames = frames;
+            event.maxDepth = maxDepth;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void swapApplied(int k, int size, long weight, long elapsed) {
+        SwapEvent event = new SwapEvent();
+        if(event.isEnabled()) {
+            event.k = k;
+            event.size = size;
+            event.weight = weight;
+            event.commit();
+        }
+    }
+}
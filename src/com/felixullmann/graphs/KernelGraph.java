@@ -0,0 +1,378 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Mutable graph that the reduction rules of a KernelPipeline work on.
+ * It starts as a copy of a CsrGraph and keeps its dense ids. Vertices are only ever removed, folded vertices reuse the
+ * id of one of the vertices they replace. The rows stay sorted, removed vertices are left in the rows of their
+ * neighbors and skipped, while degree counts only the remaining neighbors.
+ *
+ * Every change is logged, so that a cover of the reduced graph can be unfolded into a cover of the original one.
+ * The weight of the unfolded cover is the weight of the reduced cover plus offset, where the reduced cover is
+ * weighted with the current weights.
+ */
+public class KernelGraph {
+
+    // kinds of log entries
+    private static final int COVER = 0;         // a: vertex added to the cover
+    private static final int DEGREE_ONE = 1;    // a: removed leaf, b: its neighbor
+    private static final int DEGREE_TWO = 2;    // a: removed vertex, b: neighbor that became the folded vertex, c: removed neighbor
+    private static final int TWIN = 3;          // a: kept twin, b: removed twin
+    private static final int FUNNEL = 4;        // a: removed vertex, b: removed out-neighbor, c: index of the clique in cliques
+
+    public final int n;
+    public final CsrGraph original;
+
+    private final int[][] rows;
+    private final int[] rowSize;
+    private final int[] degree;
+    private final long[] weights;
+    private final boolean[] alive;
+    private int aliveCount;
+    private long offset;
+
+    // log of all reductions
+    private int[] logKind = new int[64];
+    private int[] logA = new int[64];
+    private int[] logB = new int[64];
+    private int[] logC = new int[64];
+    private int logSize;
+    private int[][] cliques = new int[16][];
+    private int cliqueCount;
+
+    // vertices whose neighborhood or weight changed since the last call of drainChanged
+    private final int[] changed;
+    private int changedSize;
+    private final boolean[] isChanged;
+
+    /**
+     * @param graph the graph to reduce, its rows have to be symmetric
+     */
+    public KernelGraph(CsrGraph graph) {
+        this.n = graph.n;
+        this.original = graph;
+        this.rows = new int[n][];
+        this.rowSize = new int[n];
+        this.degree = new int[n];
+        this.weights = Arrays.copyOf(graph.weights, n);
+        this.alive = new boolean[n];
+        this.changed = new int[n];
+        this.isChanged = new boolean[n];
+
+        for(int v = 0; v < n; v++) {
+            rows[v] = Arrays.copyOfRange(graph.targets, graph.offsets[v], graph.offsets[v+1]);
+            rowSize[v] = rows[v].length;
+            degree[v] = rows[v].length;
+            alive[v] = true;
+        }
+        aliveCount = n;
+    }
+
+    public boolean isAlive(int vertex) {
+        return alive[vertex];
+    }
+
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    public long weight(int vertex) {
+        return weights[vertex];
+    }
+
+    /**
+     * @return returns the number of remaining neighbors
+     */
+    public int degree(int vertex) {
+        return degree[vertex];
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Writes the remaining neighbors of vertex in ascending order into buffer, which has to hold degree(vertex) entries.
+     * @return returns the number of neighbors
+     */
+    public int getNeighbors(int vertex, int[] buffer) {
+        int count = 0;
+        int[] row = rows[vertex];
+        for(int i = 0; i < rowSize[vertex]; i++) {
+            if(alive[row[i]])
+                buffer[count++] = row[i];
+        }
+        return count;
+    }
+
+    /**
+     * @return returns the sum of the weights of the remaining neighbors
+     */
+    public long getNeighborWeight(int vertex) {
+        long sum = 0;
+        int[] row = rows[vertex];
+        for(int i = 0; i < rowSize[vertex]; i++) {
+            if(alive[row[i]])
+                sum += weights[row[i]];
+        }
+        return sum;
+    }
+
+    public boolean isAdjacent(int a, int b) {
+        return alive[a] && alive[b] && Arrays.binarySearch(rows[a], 0, rowSize[a], b) >= 0;
+    }
+
+    /**
+     * Tests whether the closed neighborhood of a is contained in the closed neighborhood of b, for adjacent a and b.
+     */
+    public boolean isContainedIn(int a, int b) {
+        int[] rowA = rows[a], rowB = rows[b];
+        int j = 0, end = rowSize[b];
+        for(int i = 0; i < rowSize[a]; i++) {
+            int vertex = rowA[i];
+            if(vertex == b || !alive[vertex])
+                continue;
+            while(j < end && rowB[j] < vertex)
+                j++;
+            if(j == end || rowB[j] != vertex)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a vertex to the cover and removes it.
+     */
+    public void addToCover(int vertex) {
+        offset += weights[vertex];
+        log(COVER, vertex, 0, 0);
+        remove(vertex);
+    }
+
+    /**
+     * Adds all neighbors of a vertex to the cover and removes the vertex, which stays out of the cover.
+     */
+    public void addNeighborsToCover(int vertex) {
+        int[] row = rows[vertex];
+        for(int i = 0; i < rowSize[vertex]; i++) {
+            if(alive[row[i]])
+                addToCover(row[i]);
+        }
+        remove(vertex);
+    }
+
+    /**
+     * Removes a vertex of degree 1 that is lighter than its neighbor u, u takes over the difference of the weights.
+     * Afterwards the leaf is in the cover exactly if u is not.
+     */
+    public void foldDegreeOne(int leaf, int u) {
+        offset += weights[leaf];
+        weights[u] -= weights[leaf];
+        log(DEGREE_ONE, leaf, u, 0);
+        remove(leaf);
+        touch(u);
+    }
+
+    /**
+     * Folds a vertex v of degree 2 and its non-adjacent neighbors u1 and u2 into u1, which gets the weight
+     * w(u1) + w(u2) - w(v) and the neighbors of both. If the folded vertex is in the cover, u1 and u2 are, otherwise v.
+     */
+    public void foldDegreeTwo(int v, int u1, int u2) {
+        offset += weights[v];
+        weights[u1] += weights[u2] - weights[v];
+        log(DEGREE_TWO, v, u1, u2);
+
+        int[] neighbors = new int[degree[u2]];
+        int count = getNeighbors(u2, neighbors);
+        remove(v);
+        remove(u2);
+        for(int i = 0; i < count; i++) {
+            if(neighbors[i] != v && !isAdjacent(u1, neighbors[i]))
+                addEdge(u1, neighbors[i]);
+        }
+        touch(u1);
+    }
+
+    /**
+     * Merges the non-adjacent vertices a and b with the same neighbors into a, which gets the weight of both.
+     */
+    public void mergeTwins(int a, int b) {
+        weights[a] += weights[b];
+        log(TWIN, a, b, 0);
+        remove(b);
+        touch(a);
+    }
+
+    /**
+     * Removes v and its neighbor u, where the other neighbors of v form a clique without neighbors of u.
+     * Every vertex x of the clique gets the weight w(x) + w(u) - w(v) and becomes adjacent to the neighbors of u.
+     * If one of them is out of the cover afterwards, u is out of the cover as well, otherwise v is.
+     * @param clique the neighbors of v except u
+     */
+    public void foldFunnel(int v, int u, int[] clique) {
+        offset += weights[u] + clique.length * (weights[v] - weights[u]);
+        for(int x : clique)
+            weights[x] += weights[u] - weights[v];
+
+        if(cliqueCount == cliques.length)
+            cliques = Arrays.copyOf(cliques, cliqueCount * 2);
+        cliques[cliqueCount] = clique;
+        log(FUNNEL, v, u, cliqueCount++);
+
+        int[] neighbors = new int[degree[u]];
+        int count = getNeighbors(u, neighbors);
+        remove(v);
+        remove(u);
+        for(int x : clique) {
+            for(int i = 0; i < count; i++) {
+                if(neighbors[i] != v && !isAdjacent(x, neighbors[i]))
+                    addEdge(x, neighbors[i]);
+            }
+            touch(x);
+        }
+    }
+
+    private void remove(int vertex) {
+        alive[vertex] = false;
+        aliveCount--;
+        int[] row = rows[vertex];
+        for(int i = 0; i < rowSize[vertex]; i++) {
+            int neighbor = row[i];
+            if(alive[neighbor]) {
+                degree[neighbor]--;
+                touch(neighbor);
+            }
+        }
+    }
+
+    private void addEdge(int a, int b) {
+        insert(a, b);
+        insert(b, a);
+        degree[a]++;
+        degree[b]++;
+        touch(b);
+    }
+
+    // inserts b into the sorted row of a, removed vertices are dropped from the row on the way
+    private void insert(int a, int b) {
+        int[] row = rows[a];
+        int size = 0;
+        for(int i = 0; i < rowSize[a]; i++) {
+            if(alive[row[i]])
+                row[size++] = row[i];
+        }
+        if(size == row.length)
+            rows[a] = row = Arrays.copyOf(row, Math.max(4, size * 2));
+        int position = -Arrays.binarySearch(row, 0, size, b) - 1;
+        System.arraycopy(row, position, row, position + 1, size - position);
+        row[position] = b;
+        rowSize[a] = size + 1;
+    }
+
+    private void touch(int vertex) {
+        if(!isChanged[vertex]) {
+            isChanged[vertex] = true;
+            changed[changedSize++] = vertex;
+        }
+    }
+
+    private void log(int kind, int a, int b, int c) {
+        if(logSize == logKind.length) {
+            logKind = Arrays.copyOf(logKind, logSize * 2);
+            logA = Arrays.copyOf(logA, logSize * 2);
+            logB = Arrays.copyOf(logB, logSize * 2);
+            logC = Arrays.copyOf(logC, logSize * 2);
+        }
+        logKind[logSize] = kind;
+        logA[logSize] = a;
+        logB[logSize] = b;
+        logC[logSize++] = c;
+    }
+
+    /**
+     * Passes every vertex that changed since the last call to the consumer, removed vertices are skipped.
+     */
+    public void drainChanged(IntConsumer consumer) {
+        for(int i = 0; i < changedSize; i++) {
+            isChanged[changed[i]] = false;
+            if(alive[changed[i]])
+                consumer.accept(changed[i]);
+        }
+        changedSize = 0;
+    }
+
+    /**
+     * Builds the graph of the remaining vertices with their current weights. The labels are those of the original graph.
+     */
+    public CsrGraph toCsr() {
+        int[] ids = new int[n];
+        int[] labels = new int[aliveCount];
+        long[] kernelWeights = new long[aliveCount];
+        int[] offsets = new int[aliveCount + 1];
+        int count = 0;
+        for(int v = 0; v < n; v++) {
+            if(!alive[v])
+                continue;
+            ids[v] = count;
+            labels[count] = original.labels[v];
+            kernelWeights[count] = weights[v];
+            offsets[count+1] = offsets[count] + degree[v];
+            count++;
+        }
+
+        int[] targets = new int[offsets[count]];
+        for(int v = 0, position = 0; v < n; v++) {
+            if(!alive[v])
+                continue;
+            for(int i = 0; i < rowSize[v]; i++) {
+                if(alive[rows[v][i]])
+                    targets[position++] = ids[rows[v][i]];
+            }
+        }
+        return new CsrGraph(offsets, targets, kernelWeights, labels);
+    }
+
+    /**
+     * Turns a cover of the remaining vertices into a cover of the original graph by undoing the log.
+     * @param cover dense ids of the original graph, only remaining vertices may be contained
+     * @return returns a new set with dense ids of the original graph
+     */
+    public IntVertexSet unfold(IntVertexSet cover) {
+        IntVertexSet result = new IntVertexSet(n);
+        result.unionInPlace(cover);
+
+        for(int i = logSize - 1; i >= 0; i--) {
+            int a = logA[i], b = logB[i];
+            switch(logKind[i]) {
+                case COVER:
+                    result.add(a);
+                    break;
+                case DEGREE_ONE:
+                    if(!result.contains(b))
+                        result.add(a);
+                    break;
+                case DEGREE_TWO:
+                    if(result.contains(b))
+                        result.add(logC[i]);
+                    else
+                        result.add(a);
+                    break;
+                case TWIN:
+                    if(result.contains(a))
+                        result.add(b);
+                    break;
+                case FUNNEL:
+                    boolean cliqueOutside = false;
+                    for(int x : cliques[logC[i]])
+                        cliqueOutside |= !result.contains(x);
+                    result.add(cliqueOutside ? a : b);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown log entry " + logKind[i]);
+            }
+        }
+        return result;
+    }
+}
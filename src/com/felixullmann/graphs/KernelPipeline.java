@@ -0,0 +1,145 @@
+package com.felixullmann.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Applies a list of reduction rules to a graph until none of them applies any more.
+ * Every rule has its own queue of vertices to test, initially all of them. Whenever a rule changes the graph, the
+ * touched vertices are queued for every rule again and the pipeline starts over with the first rule, so the cheap
+ * rules at the front of the list run before the expensive ones get to see a vertex.
+ *
+ * The reduced graph is available as a CsrGraph with the labels of the input graph. A cover of it is turned back into
+ * a cover of the input graph with unfold, its weight is the weight of the kernel cover plus getOffset.
+ */
+public class KernelPipeline {
+
+    public final CsrGraph input;
+    private final KernelGraph graph;
+    private final List<ReductionRule> rules = new ArrayList<>();
+
+    // statistics per rule
+    private long[] applications = new long[0];
+    private long[] removed = new long[0];
+    private long[] time = new long[0];
+
+    private CsrGraph kernel;
+
+    public KernelPipeline(CsrGraph input) {
+        this.input = input;
+        this.graph = new KernelGraph(input);
+    }
+
+    /**
+     * @return returns a pipeline with all rules, cheapest first
+     */
+    public static KernelPipeline withDefaultRules(CsrGraph input) {
+        return new KernelPipeline(input)
+                .addRule(new DegreeOneRule())
+                .addRule(new NeighborhoodRule())
+                .addRule(new DegreeTwoFoldRule())
+                .addRule(new DominationRule())
+                .addRule(new SimplicialRule())
+                .addRule(new TwinRule())
+                .addRule(new FunnelRule());
+    }
+
+    public KernelPipeline addRule(ReductionRule rule) {
+        rules.add(rule);
+        return this;
+    }
+
+    /**
+     * Runs the rules to the fixpoint, the statistics of every rule are kept for the getters.
+     * @return returns the reduced graph
+     */
+    public CsrGraph run() {
+        int count = rules.size();
+        applications = new long[count];
+        removed = new long[count];
+        time = new long[count];
+
+        IntVertexSet[] queues = new IntVertexSet[count];
+        for(int r = 0; r < count; r++) {
+            queues[r] = new IntVertexSet(graph.n);
+            for(int v = 0; v < graph.n; v++)
+                queues[r].add(v);
+        }
+
+        int r = 0;
+        while(r < count) {
+            ReductionRule rule = rules.get(r);
+            IntVertexSet queue = queues[r];
+            boolean changed = false;
+            long start = System.nanoTime();
+
+            for(int v = queue.nextSetBit(0); v >= 0; v = queue.nextSetBit(v + 1)) {
+                queue.remove(v);
+                if(!graph.isAlive(v))
+                    continue;
+                int before = graph.getAliveCount();
+                if(rule.apply(graph, v)) {
+                    applications[r]++;
+                    removed[r] += before - graph.getAliveCount();
+                    graph.drainChanged(vertex -> {
+                        for(IntVertexSet other : queues)
+                            other.add(vertex);
+                    });
+                    changed = true;
+                    // the earlier rules may apply again, the queue of this rule is continued later
+                    if(r > 0)
+                        break;
+                }
+            }
+
+            time[r] += System.nanoTime() - start;
+            r = changed && r > 0 ? 0 : (queue.size() == 0 ? r + 1 : r);
+        }
+
+        kernel = graph.toCsr();
+        return kernel;
+    }
+
+    /**
+     * @return returns the weight that has to be added to the weight of a kernel cover
+     */
+    public long getOffset() {
+        return graph.getOffset();
+    }
+
+    public int getRuleCount() {
+        return rules.size();
+    }
+
+    public String getRuleName(int rule) {
+        return rules.get(rule).getName();
+    }
+
+    public long getApplications(int rule) {
+        return applications[rule];
+    }
+
+    public long getRemoved(int rule) {
+        return removed[rule];
+    }
+
+    /**
+     * @return returns the time the rule ran in the last run in nanoseconds
+     */
+    public long getNanos(int rule) {
+        return time[rule];
+    }
+
+    /**
+     * Turns a cover of the kernel into a cover of the input graph.
+     * @param kernelCover dense ids of the kernel returned by run
+     * @return returns dense ids of the input graph
+     */
+    public IntVertexSet unfold(IntVertexSet kernelCover) {
+        IntVertexSet cover = new IntVertexSet(graph.n);
+        for(int v = kernelCover.nextSetBit(0); v >= 0; v = kernelCover.nextSetBit(v + 1))
+            cover.add(Arrays.binarySearch(input.labels, kernel.labels[v]));
+        return graph.unfold(cover);
+    }
+}
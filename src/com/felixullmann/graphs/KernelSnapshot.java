@@ -0,0 +1,172 @@
+package com.felixullmann.graphs;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Result of the reductions of an instance: the remaining kernel, the vertices forced into the cover and the size of
+ * the original graph. The kernel keeps the original vertex ids as labels, which is the mapping back to the instance.
+ * Snapshots are stored in a binary file named after a content hash of the instance and the reduction flags, so
+ * repeated runs on the same instance can skip parsing and reducing.
+ *
+ * File layout (big endian):
+ *   int magic, int version, int vertexCount, long edgeCount, long forcedWeight, int forcedCount, int[forcedCount] forced,
+ *   int n, int targetCount, int[n] labels, long[n] weights, int[n+1] offsets, int[targetCount] targets
+ */
+public class KernelSnapshot {
+
+    private static final int MAGIC = 0x5756434b;     // "WVCK"
+    private static final int VERSION = 1;
+
+    public final CsrGraph kernel;
+    public final int[] forced;                      // original ids of the vertices forced into the cover
+    public final long forcedWeight;
+    public final int vertexCount;                   // size of the original graph
+    public final long edgeCount;
+
+    public KernelSnapshot(CsrGraph kernel, int[] forced, long forcedWeight, int vertexCount, long edgeCount) {
+        this.kernel = kernel;
+        this.forced = forced;
+        this.forcedWeight = forcedWeight;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Calculates the cache key of an instance.
+     * @param flags description of the reductions that were applied, e.g. "vc"
+     * @param files all files the instance was loaded from
+     * @return returns the hex encoded SHA-256 hash of the files and the flags
+     */
+    public static String key(String flags, File... files) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for(File file : files) {
+            try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                for(long position = 0; position < size; position += Integer.MAX_VALUE)
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Integer.MAX_VALUE, size - position)));
+                // separates the files, so moving bytes from one file to the other changes the key
+                digest.update(ByteBuffer.allocate(8).putLong(0, size));
+            }
+        }
+        digest.update((VERSION + ":" + flags).getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder key = new StringBuilder();
+        for(byte b : digest.digest())
+            key.append(String.format("%02x", b));
+        return key.toString();
+    }
+
+    /**
+     * Writes the snapshot. The data goes to a temporary file first, which then replaces file, so concurrent runs
+     * never see a partial snapshot.
+     */
+    public void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(vertexCount);
+            out.writeLong(edgeCount);
+            out.writeLong(forcedWeight);
+            out.writeInt(forced.length);
+            for(int vertex : forced)
+                out.writeInt(vertex);
+
+            out.writeInt(kernel.n);
+            out.writeInt(kernel.targets.length);
+            for(int label : kernel.labels)
+                out.writeInt(label);
+            for(long weight : kernel.weights)
+                out.writeLong(weight);
+            for(int offset : kernel.offsets)
+                out.writeInt(offset);
+            for(int target : kernel.targets)
+                out.writeInt(target);
+        } catch (IOException e) {
+            temporary.delete();
+            throw e;
+        }
+
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot through a memory mapping of the file, the arrays are bulk copied out of the mapping.
+     * @return returns the snapshot stored in file
+     */
+    public static KernelSnapshot read(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Snapshot " + file + " is too large.");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException(file + " is not a kernel snapshot of this version.");
+            int vertexCount = buffer.getInt();
+            long edgeCount = buffer.getLong();
+            long forcedWeight = buffer.getLong();
+            int[] forced = readInts(buffer, buffer.getInt());
+
+            int n = buffer.getInt();
+            int targetCount = buffer.getInt();
+            int[] labels = readInts(buffer, n);
+            long[] weights = new long[n];
+            buffer.asLongBuffer().get(weights);
+            buffer.position(buffer.position() + n * 8);
+            int[] offsets = readInts(buffer, n + 1);
+            int[] targets = readInts(buffer, targetCount);
+
+            if(offsets[n] != targetCount)
+                throw new IOException("Snapshot " + file + " is corrupt.");
+            return new KernelSnapshot(new CsrGraph(offsets, targets, weights, labels), forced, forcedWeight, vertexCount, edgeCount);
+        } catch (RuntimeException e) {
+            // a truncated file shows up as BufferUnderflowException or a negative array size
+            throw new IOException("Snapshot " + file + " is corrupt.", e);
+        }
+    }
+
+    /**
+     * Reads a snapshot of the kernel cache. The cache is never needed, so a file that cannot be read is deleted and the
+     * caller rebuilds the kernel and writes it again.
+     * @return returns the snapshot stored in file, or null if there is none or it could not be read
+     */
+    public static KernelSnapshot readCached(File file) {
+        if(!file.exists())
+            return null;
+        try {
+            return read(file);
+        } catch (IOException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+}
@@ -0,0 +1,251 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+
+/**
+ * LP relaxation of the minimum weight vertex cover, solved as a maximum flow on the bipartite double cover.
+ * Every vertex v has a left copy L(v) with an arc from the source of capacity w(v) and a right copy R(v) with an arc
+ * to the sink of capacity w(v), every edge uv gives the arcs L(u)R(v) and L(v)R(u) of infinite capacity.
+ * A minimum cut is a cover of the bipartite graph, which gives the half-integral optimum of the LP: x(v) is half the
+ * number of copies of v in the cut, so the value of the LP is half the flow.
+ *
+ * By the theorem of Nemhauser and Trotter some minimum cover contains every vertex with x(v) = 1 and none with
+ * x(v) = 0, so only the vertices with x(v) = 1/2 remain to be solved. On them the LP optimum is 1/2 everywhere.
+ *
+ * The network is not built. The arcs of L(u) are the row of u. The flow over L(u)R(v) is kept at the entry of u in
+ * the row of v, so the residual arcs of R(v) are read in the order of its row, and mirror leads there from the entry
+ * of v in the row of u. The flow is found with Dinic's algorithm and an iterative search for blocking flows.
+ */
+public class LpRelaxation {
+
+    private final CsrGraph graph;
+    private final int n;
+
+    private final long[] flow;          // flow over L(targets[j])R(v) for the entry j in the row of v
+    private final int[] mirror;
+    private final long[] sourceFlow;    // flow over s L(v)
+    private final long[] sinkFlow;      // flow over R(v) t
+    private long totalFlow;
+
+    // nodes 0..n-1 are L, n..2n-1 are R
+    private final int[] level;
+    private final int[] current;
+    private final int[] queue;
+    private final int[] path;
+    private final int[] pathArc;
+    private int sinkLevel;
+
+    private int[] doubled;              // 2 x(v)
+
+    /**
+     * @param graph the graph, its rows have to be symmetric without self loops
+     */
+    public LpRelaxation(CsrGraph graph) {
+        this.graph = graph;
+        this.n = graph.n;
+        this.flow = new long[graph.targets.length];
+        this.mirror = new int[graph.targets.length];
+        this.sourceFlow = new long[n];
+        this.sinkFlow = new long[n];
+        this.level = new int[2 * n];
+        this.current = new int[2 * n];
+        this.queue = new int[2 * n];
+        this.path = new int[2 * n + 1];
+        this.pathArc = new int[2 * n + 1];
+
+        // the rows are sorted, so the entries of v in the rows of its neighbors come up in ascending order of v
+        int[] next = Arrays.copyOf(graph.offsets, n);
+        for(int v = 0; v < n; v++) {
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++)
+                mirror[i] = next[graph.targets[i]]++;
+        }
+    }
+
+    /**
+     * Computes the maximum flow and the half-integral LP optimum.
+     * @return returns this
+     */
+    public LpRelaxation solve() {
+        // paths s L(u) R(v) t along every edge take most of the flow before the first phase
+        for(int u = 0; u < n; u++) {
+            for(int i = graph.offsets[u]; i < graph.offsets[u+1] && sourceFlow[u] < graph.weights[u]; i++) {
+                int v = graph.targets[i];
+                long pushed = Math.min(graph.weights[u] - sourceFlow[u], graph.weights[v] - sinkFlow[v]);
+                if(pushed <= 0)
+                    continue;
+                flow[mirror[i]] += pushed;
+                sourceFlow[u] += pushed;
+                sinkFlow[v] += pushed;
+                totalFlow += pushed;
+            }
+        }
+
+        while(buildLevels()) {
+            for(int v = 0; v < n; v++) {
+                current[v] = graph.offsets[v];
+                current[n + v] = graph.offsets[v];
+            }
+            for(int u = 0; u < n; u++) {
+                while(level[u] == 1 && sourceFlow[u] < graph.weights[u]) {
+                    long pushed = augment(u);
+                    if(pushed == 0)
+                        break;
+                    totalFlow += pushed;
+                }
+            }
+        }
+
+        // the source side of the minimum cut is what the last search reached
+        doubled = new int[n];
+        for(int v = 0; v < n; v++)
+            doubled[v] = (level[v] < 0 ? 1 : 0) + (level[n + v] >= 0 ? 1 : 0);
+        return this;
+    }
+
+    /**
+     * Breadth first search from the source over the residual arcs.
+     * @return returns true if the sink is reachable
+     */
+    private boolean buildLevels() {
+        Arrays.fill(level, -1);
+        int head = 0, tail = 0;
+        for(int u = 0; u < n; u++) {
+            if(sourceFlow[u] < graph.weights[u]) {
+                level[u] = 1;
+                queue[tail++] = u;
+            }
+        }
+        sinkLevel = -1;
+        while(head < tail) {
+            int node = queue[head++];
+            if(sinkLevel >= 0 && level[node] >= sinkLevel)
+                break;
+            if(node < n) {
+                for(int i = graph.offsets[node]; i < graph.offsets[node+1]; i++) {
+                    int right = n + graph.targets[i];
+                    if(level[right] < 0) {
+                        level[right] = level[node] + 1;
+                        queue[tail++] = right;
+                    }
+                }
+            } else {
+                int v = node - n;
+                if(sinkLevel < 0 && sinkFlow[v] < graph.weights[v])
+                    sinkLevel = level[node] + 1;
+                for(int j = graph.offsets[v]; j < graph.offsets[v+1]; j++) {
+                    int left = graph.targets[j];
+                    if(level[left] < 0 && flow[j] > 0) {
+                        level[left] = level[node] + 1;
+                        queue[tail++] = left;
+                    }
+                }
+            }
+        }
+        return sinkLevel >= 0;
+    }
+
+    /**
+     * Finds one augmenting path in the level graph that starts with the arc of the source to L(start) and pushes
+     * its bottleneck. Nodes without a way to the sink are taken out of the level graph.
+     * @return returns the pushed flow, 0 if there is no path
+     */
+    private long augment(int start) {
+        int depth = 0;
+        path[0] = start;
+        while(true) {
+            int node = path[depth];
+            if(node >= n) {
+                int v = node - n;
+                if(level[node] + 1 == sinkLevel && sinkFlow[v] < graph.weights[v])
+                    return push(depth);
+            }
+
+            int vertex = node < n ? node : node - n;
+            int end = graph.offsets[vertex+1];
+            int next = -1;
+            for(; current[node] < end; current[node]++) {
+                int i = current[node];
+                int target = node < n ? n + graph.targets[i] : graph.targets[i];
+                if(level[target] != level[node] + 1 || level[node] + 1 >= sinkLevel)
+                    continue;
+                if(node >= n && flow[i] == 0)
+                    continue;
+                next = target;
+                break;
+            }
+
+            if(next >= 0) {
+                pathArc[depth] = current[node];
+                path[++depth] = next;
+            } else {
+                // dead end, the node is removed from the level graph
+                level[node] = -2;
+                if(depth == 0)
+                    return 0;
+                depth--;
+                current[path[depth]]++;
+            }
+        }
+    }
+
+    private long push(int depth) {
+        int start = path[0], end = path[depth] - n;
+        long bottleneck = Math.min(graph.weights[start] - sourceFlow[start], graph.weights[end] - sinkFlow[end]);
+        for(int d = 1; d < depth; d += 2)
+            bottleneck = Math.min(bottleneck, flow[pathArc[d]]);
+
+        sourceFlow[start] += bottleneck;
+        sinkFlow[end] += bottleneck;
+        for(int d = 0; d < depth; d++) {
+            if(d % 2 == 0)
+                flow[mirror[pathArc[d]]] += bottleneck;
+            else
+                flow[pathArc[d]] -= bottleneck;
+        }
+        return bottleneck;
+    }
+
+    /**
+     * @return returns the weight of the minimum cover of the double cover, twice the value of the LP
+     */
+    public long getFlow() {
+        return totalFlow;
+    }
+
+    /**
+     * @return returns the LP value rounded up, no cover of the graph is lighter
+     */
+    public long getLowerBound() {
+        return (totalFlow + 1) / 2;
+    }
+
+    /**
+     * @return returns 2 x(vertex) of the LP optimum, 0, 1 or 2
+     */
+    public int getDoubledValue(int vertex) {
+        return doubled[vertex];
+    }
+
+    /**
+     * @return returns the vertices with x(v) = 1, which are in the cover
+     */
+    public IntVertexSet getOnes() {
+        return withValue(2);
+    }
+
+    /**
+     * @return returns the vertices with x(v) = 1/2, which remain to be solved
+     */
+    public IntVertexSet getHalves() {
+        return withValue(1);
+    }
+
+    private IntVertexSet withValue(int value) {
+        IntVertexSet vertices = new IntVertexSet(n);
+        for(int v = 0; v < n; v++) {
+            if(doubled[v] == value)
+                vertices.add(v);
+        }
+        return vertices;
+    }
+}
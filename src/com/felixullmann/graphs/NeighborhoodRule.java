@@ -0,0 +1,21 @@
+package com.felixullmann.graphs;
+
+/**
+ * If a vertex weighs at least as much as all of its neighbors together, its neighbors are in the cover.
+ * This is the rule of CsrGraph.preprocess.
+ */
+public class NeighborhoodRule implements ReductionRule {
+
+    @Override
+    public String getName() {
+        return "neighborhood";
+    }
+
+    @Override
+    public boolean apply(KernelGraph graph, int vertex) {
+        if(graph.weight(vertex) < graph.getNeighborWeight(vertex))
+            return false;
+        graph.addNeighborsToCover(vertex);
+        return true;
+    }
+}
@@ -0,0 +1,269 @@
+package com.felixullmann.graphs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Multi-start search that runs every combination of a search variant and a greedy order on several threads.
+ * The pruning search is started first, as it is the fastest. When all combinations are taken, the threads perturb
+ * the best cover found so far: some of its vertices are dropped, their neighbors are added, and localSearch_pruning is
+ * restarted around the change. This goes on until the time limit or the number of restarts is reached.
+ *
+ * All runs share the arrays of the graph. Each one searches a view of it with its own SearchBudget and CoverListener,
+ * and the listener reports every improved cover to the shared best. The views keep the metrics and lower bound of the
+ * graph, so the swaps of all runs reach the same SolverMetrics and every run stops at the bound. The calling thread
+ * checks the runs every CHECK_INTERVAL ms. A run is cancelled if it has not improved for the stall time and is behind
+ * the best weight.
+ */
+public class Portfolio {
+
+    // search variants of CsrGraph
+    public static final int LOCAL_SEARCH = 0;
+    public static final int CYCLING = 1;
+    public static final int PRUNING = 2;
+    private static final String[] VARIANTS = {"localSearch", "cycling", "pruning"};
+    private static final String[] ORDERS = {"max degree", "neighbor weight ratio", "neighbor weight difference"};
+
+    // smaller graphs are solved faster by a single search than the pool is started
+    public static final int MIN_VERTICES = 1024;
+
+    private static final int CHECK_INTERVAL = 20;
+    private static final int MAX_PERTURBATION = 16;
+
+    private final int threads;
+    private final int kMax;
+    private final long seed;
+    private long timeLimit = Long.MAX_VALUE;     // ms
+    private long stallTime = 1000;               // ms
+    private int restarts = 16;
+
+    // shared state of one solve
+    private IntVertexSet best;
+    private long bestWeight;
+    private String bestRun;
+    private SolverMetrics metrics;
+    private int nextJob;
+    private Run[] running;
+
+    private static class Run {
+        final String name;
+        final SearchBudget budget;
+        final long started;
+        volatile long weight = Long.MAX_VALUE;
+        volatile long lastImprovement;
+
+        Run(String name, SearchBudget budget) {
+            this.name = name;
+            this.budget = budget;
+            this.started = System.nanoTime();
+            this.lastImprovement = started;
+        }
+    }
+
+    /**
+     * @param threads number of runs at the same time
+     * @param kMax maximum swap size of all runs
+     * @param seed seed of the perturbations
+     */
+    public Portfolio(int threads, int kMax, long seed) {
+        this.threads = Math.max(1, threads);
+        this.kMax = kMax;
+        this.seed = seed;
+    }
+
+    /**
+     * Perturbation runs go on until this time has passed since the start of solve, every run is stopped by then.
+     */
+    public Portfolio setTimeLimit(long millis) {
+        this.timeLimit = millis;
+        this.restarts = Integer.MAX_VALUE;
+        return this;
+    }
+
+    /**
+     * Runs that have not improved for this time and are behind the best one are cancelled.
+     */
+    public Portfolio setStallTime(long millis) {
+        this.stallTime = millis;
+        return this;
+    }
+
+    /**
+     * @param restarts number of perturbation runs after the combinations, also bounded by the time limit
+     */
+    public Portfolio setRestarts(int restarts) {
+        this.restarts = restarts;
+        return this;
+    }
+
+    public long getBestWeight() {
+        return bestWeight;
+    }
+
+    /**
+     * @return returns the name of the run that found the best cover
+     */
+    public String getBestRun() {
+        return bestRun;
+    }
+
+    /**
+     * @param graph the graph to cover, it is only read. Cancelled runs are reported to its metrics as the phase
+     *              "cancelled" followed by the name of the run.
+     * @return returns the lightest cover of all runs in dense ids
+     */
+    public IntVertexSet solve(CsrGraph graph) {
+        long start = System.nanoTime();
+        long deadline = timeLimit == Long.MAX_VALUE ? Long.MAX_VALUE : start + timeLimit * 1000000;
+        best = graph.getVertices();
+        bestWeight = graph.getSetWeight(best);
+        bestRun = "all vertices";
+        metrics = graph.metrics;
+        nextJob = 0;
+        running = new Run[threads];
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> workers = new ArrayList<>(threads);
+            for(int t = 0; t < threads; t++) {
+                int id = t;
+                workers.add(pool.submit(() -> work(graph, id, deadline)));
+            }
+
+            boolean done = false;
+            while(!done) {
+                try {
+                    Thread.sleep(CHECK_INTERVAL);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                cancelStalled();
+                done = true;
+                for(ForkJoinTask<?> worker : workers)
+                    done &= worker.isDone();
+            }
+            for(ForkJoinTask<?> worker : workers)
+                worker.join();
+        } finally {
+            pool.shutdownNow();
+        }
+        return best;
+    }
+
+    private void work(CsrGraph graph, int id, long deadline) {
+        int job;
+        while((job = takeJob(deadline)) >= 0) {
+            // a view shares the arrays, but has its own budget and listener
+            CsrGraph view = new CsrGraph(graph.offsets, graph.targets, graph.weights, graph.labels);
+            view.metrics = graph.metrics;
+            view.lowerBound = graph.lowerBound;
+            long remaining = deadline == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, deadline - System.nanoTime());
+            int combinations = VARIANTS.length * ORDERS.length;
+            Run run;
+            if(job < combinations) {
+                // pruning first, then cycling and the plain search
+                int variant = PRUNING - job / ORDERS.length, order = ORDERS.length - 1 - job % ORDERS.length;
+                run = new Run(VARIANTS[variant] + " from " + ORDERS[order], new SearchBudget(remaining, Long.MAX_VALUE));
+                start(view, run, id);
+                IntVertexSet cover = view.getGreedyCover(order == 0 ? view.maxDegreeComparator
+                        : order == 1 ? view.neighborWeightRatioComparator : view.neighborWeightDifferenceComparator);
+                offer(run, cover, view.getSetWeight(cover));
+                cover = search(view, variant, cover, null);
+                offer(run, cover, view.getSetWeight(cover));
+            } else {
+                run = new Run("perturbation " + (job - combinations + 1), new SearchBudget(remaining, Long.MAX_VALUE));
+                start(view, run, id);
+                IntVertexSet cover;
+                synchronized(this) {
+                    cover = best.copy();
+                }
+                IntVertexSet changed = perturb(view, cover, new SplittableRandom(seed + job));
+                cover = search(view, PRUNING, cover, changed);
+                offer(run, cover, view.getSetWeight(cover));
+            }
+            synchronized(this) {
+                running[id] = null;
+            }
+        }
+    }
+
+    private void start(CsrGraph view, Run run, int id) {
+        view.budget = run.budget;
+        view.coverListener = (g, cover, weight, elapsed) -> offer(run, cover, weight);
+        synchronized(this) {
+            running[id] = run;
+        }
+    }
+
+    private synchronized int takeJob(long deadline) {
+        if(System.nanoTime() >= deadline || nextJob >= VARIANTS.length * ORDERS.length + (long) restarts)
+            return -1;
+        return nextJob++;
+    }
+
+    private IntVertexSet search(CsrGraph view, int variant, IntVertexSet cover, IntVertexSet changed) {
+        switch(variant) {
+            case LOCAL_SEARCH:
+                return view.localSearch(cover, kMax, 0);
+            case CYCLING:
+                return view.localSearch_cycling(cover, kMax, 0);
+            default:
+                return view.localSearch_pruning(cover, kMax, 0, changed);
+        }
+    }
+
+    /**
+     * Drops random vertices from the cover and adds their neighbors, so the cover stays a cover.
+     * @return returns the dropped and added vertices
+     */
+    private static IntVertexSet perturb(CsrGraph graph, IntVertexSet cover, SplittableRandom random) {
+        IntVertexSet changed = new IntVertexSet(graph.n);
+        int count = 1 + random.nextInt(MAX_PERTURBATION);
+        for(int i = 0; i < count && cover.size() > 0; i++) {
+            int v = cover.nextSetBit(random.nextInt(graph.n));
+            if(v < 0)
+                v = cover.nextSetBit(0);
+            cover.remove(v);
+            changed.add(v);
+            for(int j = graph.offsets[v]; j < graph.offsets[v+1]; j++) {
+                if(cover.add(graph.targets[j]))
+                    changed.add(graph.targets[j]);
+            }
+        }
+        return changed;
+    }
+
+    private void offer(Run run, IntVertexSet cover, long weight) {
+        if(weight < run.weight) {
+            run.weight = weight;
+            run.lastImprovement = System.nanoTime();
+        }
+        synchronized(this) {
+            if(weight >= bestWeight)
+                return;
+            best = cover;
+            bestWeight = weight;
+            bestRun = run.name;
+        }
+    }
+
+    private void cancelStalled() {
+        long now = System.nanoTime();
+        List<Run> cancelled = new ArrayList<>();
+        synchronized(this) {
+            for(Run run : running) {
+                if(run != null && run.weight > bestWeight && now - run.lastImprovement > stallTime * 1000000 && !run.budget.isCancelled()) {
+                    run.budget.cancel();
+                    cancelled.add(run);
+                }
+            }
+        }
+        // the metrics are called outside of the lock, the runs keep offering covers meanwhile
+        for(Run run : cancelled)
+            metrics.phase("cancelled " + run.name, now - run.started);
+    }
+}
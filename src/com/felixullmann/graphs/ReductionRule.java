@@ -0,0 +1,22 @@
+package com.felixullmann.graphs;
+
+/**
+ * A reduction rule for the minimum weight vertex cover, applied by a KernelPipeline.
+ * Rules are local: they look at a single vertex and its surroundings and change the graph only through the
+ * methods of KernelGraph, which log every change so that it can be undone when the solution is unfolded.
+ */
+public interface ReductionRule {
+
+    /**
+     * @return returns the name used in the statistics
+     */
+    String getName();
+
+    /**
+     * Applies the rule around a vertex if possible.
+     * @param graph the graph to reduce
+     * @param vertex a remaining vertex whose surroundings changed since the rule looked at it last
+     * @return returns true if the graph was changed
+     */
+    boolean apply(KernelGraph graph, int vertex);
+}
@@ -0,0 +1,84 @@
+package com.felixullmann.graphs;
+
+/**
+ * Limits of a local search: a wall-clock deadline, a number of roots per search and cooperative cancellation.
+ * The searches check the budget before every root and stop with their current cover once it is exhausted, which is
+ * always a valid cover. The clock is only read every CLOCK_INTERVAL roots while the swaps are small, as those roots
+ * take less time than reading it. One budget can be shared by components that are searched in parallel, cancel and
+ * the deadline then stop all of them, while the roots are counted per search.
+ */
+public class SearchBudget {
+
+    private static final int CLOCK_INTERVAL = 64;
+
+    private final long deadline;        // System.nanoTime, Long.MAX_VALUE for none
+    private final long maxRoots;
+    private volatile boolean cancelled;
+    private volatile boolean exhausted;
+
+    /**
+     * @param timeoutNanos time from now until the searches stop, Long.MAX_VALUE for no deadline
+     * @param maxRoots number of roots each search may try, Long.MAX_VALUE for no limit
+     */
+    public SearchBudget(long timeoutNanos, long maxRoots) {
+        long now = System.nanoTime();
+        this.deadline = timeoutNanos >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeoutNanos;
+        this.maxRoots = maxRoots;
+    }
+
+    /**
+     * @return returns a budget that ends after the given number of milliseconds
+     */
+    public static SearchBudget ofMillis(long millis) {
+        return new SearchBudget(millis * 1000000, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return returns a budget that allows every search to try the given number of roots
+     */
+    public static SearchBudget ofRoots(long roots) {
+        return new SearchBudget(Long.MAX_VALUE, roots);
+    }
+
+    /**
+     * Stops all searches that use this budget at their next root, may be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return returns true if a search was stopped by this budget before it reached its local optimum
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * Checks the budget before the next root of a search.
+     * @param roots number of roots the search has tried so far
+     * @param k size of the swaps, the clock is read for every root of large swaps
+     * @return returns true if the search has to stop
+     */
+    public boolean isExhausted(long roots, int k) {
+        if(cancelled || roots >= maxRoots
+                || ((k > 2 || roots % CLOCK_INTERVAL == 0) && deadline != Long.MAX_VALUE && System.nanoTime() >= deadline)) {
+            exhausted = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return returns the nanoseconds until the deadline, 0 if it has passed and Long.MAX_VALUE without deadline
+     */
+    public long remainingNanos() {
+        if(deadline == Long.MAX_VALUE)
+            return Long.MAX_VALUE;
+        return Math.max(0, deadline - System.nanoTime());
+    }
+}
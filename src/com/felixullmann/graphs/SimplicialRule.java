@@ -0,0 +1,35 @@
+package com.felixullmann.graphs;
+
+/**
+ * If the neighbors of a vertex form a clique and none of them is heavier than the vertex, its neighbors are in the
+ * cover. This is the rule of CsrGraph.doCliquePruning, which only applies it to strictly heaviest vertices.
+ */
+public class SimplicialRule implements ReductionRule {
+
+    private int[] neighbors = new int[16];
+
+    @Override
+    public String getName() {
+        return "simplicial";
+    }
+
+    @Override
+    public boolean apply(KernelGraph graph, int vertex) {
+        int degree = graph.degree(vertex);
+        if(neighbors.length < degree)
+            neighbors = new int[degree * 2];
+        graph.getNeighbors(vertex, neighbors);
+
+        for(int i = 0; i < degree; i++) {
+            if(graph.weight(neighbors[i]) > graph.weight(vertex))
+                return false;
+        }
+        for(int i = 0; i < degree; i++) {
+            if(graph.degree(neighbors[i]) < degree || !graph.isContainedIn(vertex, neighbors[i]))
+                return false;
+        }
+
+        graph.addNeighborsToCover(vertex);
+        return true;
+    }
+}
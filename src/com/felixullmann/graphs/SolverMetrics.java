@@ -0,0 +1,109 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Listener for progress and statistics of the reductions and the local search. The solver calls it with primitive
+ * values only and at most once per applied swap or k-level, so NONE costs nothing and the hot loops never format
+ * strings. Implementations that are shared between components solved in parallel have to be thread safe.
+ * All times are in nanoseconds, elapsed times are measured from the start of the current search.
+ */
+public interface SolverMetrics {
+
+    SolverMetrics NONE = new SolverMetrics() {
+    };
+
+    /**
+     * @return returns a listener that forwards every call to all listeners in order, NONE is skipped
+     */
+    static SolverMetrics of(SolverMetrics... all) {
+        SolverMetrics[] listeners = Arrays.stream(all).filter(l -> l != NONE).toArray(SolverMetrics[]::new);
+        if(listeners.length == 0)
+            return NONE;
+        if(listeners.length == 1)
+            return listeners[0];
+        return new SolverMetrics() {
+            public void phase(String name, long nanos) {
+                for(SolverMetrics listener : listeners)
+                    listener.phase(name, nanos);
+            }
+
+            public void reduction(String name, int removed, int inCover, long nanos) {
+                for(SolverMetrics listener : listeners)
+                    listener.reduction(name, removed, inCover, nanos);
+            }
+
+            public void cliqueFound(int size) {
+                for(SolverMetrics listener : listeners)
+                    listener.cliqueFound(size);
+            }
+
+            public void searchLevel(int k, int recent, int candidates, long elapsed) {
+                for(SolverMetrics listener : listeners)
+                    listener.searchLevel(k, recent, candidates, elapsed);
+            }
+
+            public void enumerated(int k, long calls, long frames, int maxDepth) {
+                for(SolverMetrics listener : listeners)
+                    listener.enumerated(k, calls, frames, maxDepth);
+            }
+
+            public void swapApplied(int k, int size, long weight, long elapsed) {
+                for(SolverMetrics listener : listeners)
+                    listener.swapApplied(k, size, weight, elapsed);
+            }
+
+            public void searchFinished(long swaps, long weight, long elapsed) {
+                for(SolverMetrics listener : listeners)
+                    listener.searchFinished(swaps, weight, elapsed);
+            }
+        };
+    }
+
+    /**
+     * A phase of Main like loading, reducing, the greedy cover or the search has finished.
+     */
+    default void phase(String name, long nanos) {
+    }
+
+    /**
+     * A reduction of CsrGraph has finished.
+     * @param removed number of vertices removed from the graph
+     * @param inCover number of them that were added to the cover
+     */
+    default void reduction(String name, int removed, int inCover, long nanos) {
+    }
+
+    /**
+     * The clique reduction found a clique of size vertices.
+     */
+    default void cliqueFound(int size) {
+    }
+
+    /**
+     * The search starts to look for swaps of size k.
+     * @param recent size of R[k-1] for localSearch_pruning, n for the other variants
+     * @param candidates number of roots that will be tried
+     */
+    default void searchLevel(int k, int recent, int candidates, long elapsed) {
+    }
+
+    /**
+     * Swap enumeration work of one k-level.
+     * @param calls number of roots handed to the SwapEnumerator
+     * @param frames number of frames opened, i.e. calls of the recursive enumerate
+     * @param maxDepth deepest frame
+     */
+    default void enumerated(int k, long calls, long frames, int maxDepth) {
+    }
+
+    /**
+     * An improving swap was applied.
+     * @param weight weight of the cover afterwards, including the weight outside of the searched graph
+     */
+    default void swapApplied(int k, int size, long weight, long elapsed) {
+    }
+
+    default void searchFinished(long swaps, long weight, long elapsed) {
+    }
+}
@@ -0,0 +1,371 @@
+package com.felixullmann.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Searches for improving k-swaps on a CsrGraph without recursion and without allocating per call.
+ * It visits the same candidates in the same order as the recursive enumerate, but keeps the swap S, the pivot
+ * stacks P and the excluded set F in preallocated arrays. Every level of the former recursion is a frame on an
+ * explicit stack, S and F are shared between frames and rolled back through their logs when a frame is left.
+ */
+public class SwapEnumerator {
+
+    private static final int FAILED = 0;
+    private static final int FOUND = 1;
+    private static final int DESCENDED = 2;
+
+    private final CsrGraph graph;
+
+    // current swap, sList doubles as undo log for inS
+    private final boolean[] inS;
+    private int[] sList;
+    private int sSize;
+    private int[] sCovered;         // S intersected with the cover
+    private int sCoveredSize;
+
+    // vertices added to F during the search, fLog is the undo log for inF
+    private final boolean[] inF;
+    private int[] fLog = new int[64];
+    private int fSize;
+
+    // marks the neighbors of the root, they belong to F if they are in the cover
+    private final int[] rootMark;
+    private int stamp;
+
+    // all pivot stacks, every frame owns the segment [framePStart, framePTop)
+    private int[] pStack;
+
+    private int[] framePivot;
+    private int[] framePivotIndex;
+    private int[] framePivotEnd;
+    private int[] framePStart;
+    private int[] framePTop;
+    private int[] frameSMark;
+    private int[] frameCoveredMark;
+    private int[] frameFMark;
+    private int[] frameB;
+    private long[] frameGain;
+
+    private int capacity = -1;
+    private IntVertexSet cover;
+    private IntVertexSet recent;
+    private long swapGain;
+
+    // work counters for SolverMetrics, see resetCounters
+    private long calls;
+    private long frames;
+    private int maxDepth;
+
+    /**
+     * @param graph the graph to search swaps in
+     * @param kMax largest swap size that will be requested, the buffers grow if a larger one is requested later
+     */
+    public SwapEnumerator(CsrGraph graph, int kMax) {
+        this.graph = graph;
+        this.inS = new boolean[graph.n];
+        this.inF = new boolean[graph.n];
+        this.rootMark = new int[graph.n];
+        ensureCapacity(kMax);
+    }
+
+    private void ensureCapacity(int k) {
+        if(k <= capacity)
+            return;
+
+        capacity = k;
+        sList = new int[k+1];
+        sCovered = new int[k+1];
+        pStack = new int[(k+2)*(k+2)];
+        framePivot = new int[k+1];
+        framePivotIndex = new int[k+1];
+        framePivotEnd = new int[k+1];
+        framePStart = new int[k+1];
+        framePTop = new int[k+1];
+        frameSMark = new int[k+1];
+        frameCoveredMark = new int[k+1];
+        frameFMark = new int[k+1];
+        frameB = new int[k+1];
+        frameGain = new long[k+1];
+    }
+
+    /**
+     * Searches for an improving swap of exactly k vertices that contains vertex, like IntegerGraph.generateSwap.
+     * @return true if a swap was found, it can be read with getSwap
+     */
+    public boolean generateSwap(int k, int vertex, IntVertexSet cover) {
+        return generateSwap(k, vertex, cover, null);
+    }
+
+    /**
+     * Searches for an improving swap of exactly k vertices that contains vertex.
+     * @param recent if not null, cover vertices that are not in recent are excluded from the swap, as done by localSearch_pruning
+     * @return true if a swap was found, it can be read with getSwap
+     */
+    public boolean generateSwap(int k, int vertex, IntVertexSet cover, IntVertexSet recent) {
+        ensureCapacity(k);
+        reset();
+        calls++;
+        this.cover = cover;
+        this.recent = recent;
+
+        int[] offsets = graph.offsets, targets = graph.targets;
+        long[] weights = graph.weights;
+
+        stamp++;
+        int uncovered = 0;
+        for(int i = offsets[vertex]; i < offsets[vertex+1]; i++) {
+            rootMark[targets[i]] = stamp;
+            if(!cover.contains(targets[i]))
+                uncovered++;
+        }
+
+        if(k != 1 && uncovered == 0)
+            return false;
+        if(uncovered + 1 > k)
+            return false;
+
+        // S consists of vertex and its uncovered neighbors, which are also the initial pivots
+        long gain = cover.contains(vertex) ? weights[vertex] : -weights[vertex];
+        pushS(vertex);
+        int pTop = 0;
+        for(int i = offsets[vertex]; i < offsets[vertex+1]; i++) {
+            int neighbor = targets[i];
+            if(!cover.contains(neighbor)) {
+                pushS(neighbor);
+                pStack[pTop++] = neighbor;
+                gain -= weights[neighbor];
+            }
+        }
+
+        if(sSize == k) {
+            swapGain = gain;
+            return gain > 0;
+        }
+
+        int p = pStack[--pTop];
+        framePStart[0] = 0;
+        framePTop[0] = pTop;
+        framePivot[0] = p;
+        framePivotIndex[0] = offsets[p];
+        framePivotEnd[0] = offsets[p+1];
+        frameSMark[0] = 0;
+        frameCoveredMark[0] = 0;
+        frameFMark[0] = 0;
+        frameGain[0] = gain;
+        frames++;
+
+        return run(k);
+    }
+
+    private boolean run(int k) {
+        int[] offsets = graph.offsets, targets = graph.targets;
+        int depth = 0;
+
+        while(true) {
+            if(framePivotIndex[depth] < framePivotEnd[depth]) {
+                int b = targets[framePivotIndex[depth]++];
+                if(inS[b] || isInF(b))
+                    continue;
+
+                frameB[depth] = b;
+                int result = extend(k, depth, b);
+                if(result == FOUND)
+                    return true;
+                if(result == DESCENDED) {
+                    depth++;
+                    frames++;
+                    if(depth > maxDepth)
+                        maxDepth = depth;
+                    continue;
+                }
+                addF(b);
+            } else {
+                if(framePTop[depth] == framePStart[depth]) {
+                    // no pivots left, this frame fails
+                    if(depth == 0)
+                        return false;
+                    rollback(depth);
+                    depth--;
+                    addF(frameB[depth]);
+                    continue;
+                }
+                int p = pStack[--framePTop[depth]];
+                framePivot[depth] = p;
+                framePivotIndex[depth] = offsets[p];
+                framePivotEnd[depth] = offsets[p+1];
+            }
+        }
+    }
+
+    /**
+     * Tries to extend the swap of frame depth by b and the uncovered neighbors of b that are not yet in S.
+     */
+    private int extend(int k, int depth, int b) {
+        int[] offsets = graph.offsets, targets = graph.targets;
+        long[] weights = graph.weights;
+        boolean bCovered = cover.contains(b);
+
+        int added = 0;
+        long addedWeight = 0;
+        boolean independent = true;
+        for(int i = offsets[b]; i < offsets[b+1]; i++) {
+            int neighbor = targets[i];
+            boolean neighborCovered = cover.contains(neighbor);
+            if(!inS[neighbor] && !neighborCovered) {
+                added++;
+                addedWeight += weights[neighbor];
+            } else if(bCovered && inS[neighbor] && neighborCovered) {
+                independent = false;
+            }
+        }
+
+        if(sSize + added + 1 > k)
+            return FAILED;
+
+        if(bCovered && independent) {
+            // adjacency rows need not be symmetric, so also look for b in the rows of S intersected with the cover
+            for(int i = 0; i < sCoveredSize; i++) {
+                int v = sCovered[i];
+                if(Arrays.binarySearch(targets, offsets[v], offsets[v+1], b) >= 0) {
+                    independent = false;
+                    break;
+                }
+            }
+        }
+        if(!independent)
+            return FAILED;
+
+        long gain = frameGain[depth] + (bCovered ? weights[b] : -weights[b]) - addedWeight;
+
+        if(sSize + added + 1 == k) {
+            if(gain <= 0)
+                return FAILED;
+            for(int i = offsets[b]; i < offsets[b+1]; i++) {
+                if(!inS[targets[i]] && !cover.contains(targets[i]))
+                    pushS(targets[i]);
+            }
+            pushS(b);
+            swapGain = gain;
+            return FOUND;
+        }
+
+        // open a new frame, its pivots are the current pivots of this frame plus the old pivot and the new vertices
+        int child = depth + 1;
+        frameSMark[child] = sSize;
+        frameCoveredMark[child] = sCoveredSize;
+        frameFMark[child] = fSize;
+        frameGain[child] = gain;
+
+        int start = framePTop[depth];
+        int pTop = start;
+        for(int i = framePStart[depth]; i < framePTop[depth]; i++)
+            pStack[pTop++] = pStack[i];
+        pStack[pTop++] = framePivot[depth];
+
+        for(int i = offsets[b]; i < offsets[b+1]; i++) {
+            int neighbor = targets[i];
+            if(!inS[neighbor] && !cover.contains(neighbor)) {
+                pStack[pTop++] = neighbor;
+                pushS(neighbor);
+            }
+        }
+        pushS(b);
+
+        int p = pStack[--pTop];
+        framePStart[child] = start;
+        framePTop[child] = pTop;
+        framePivot[child] = p;
+        framePivotIndex[child] = offsets[p];
+        framePivotEnd[child] = offsets[p+1];
+        return DESCENDED;
+    }
+
+    private boolean isInF(int vertex) {
+        if(inF[vertex])
+            return true;
+        if(!cover.contains(vertex))
+            return false;
+        return rootMark[vertex] == stamp || (recent != null && !recent.contains(vertex));
+    }
+
+    private void pushS(int vertex) {
+        inS[vertex] = true;
+        sList[sSize++] = vertex;
+        if(cover.contains(vertex))
+            sCovered[sCoveredSize++] = vertex;
+    }
+
+    private void addF(int vertex) {
+        if(fSize == fLog.length)
+            fLog = Arrays.copyOf(fLog, fSize*2);
+        inF[vertex] = true;
+        fLog[fSize++] = vertex;
+    }
+
+    // undoes all changes to S and F made since the frame was opened
+    private void rollback(int depth) {
+        while(sSize > frameSMark[depth])
+            inS[sList[--sSize]] = false;
+        sCoveredSize = frameCoveredMark[depth];
+        while(fSize > frameFMark[depth])
+            inF[fLog[--fSize]] = false;
+    }
+
+    private void reset() {
+        while(sSize > 0)
+            inS[sList[--sSize]] = false;
+        sCoveredSize = 0;
+        while(fSize > 0)
+            inF[fLog[--fSize]] = false;
+    }
+
+    /**
+     * @return returns the number of generateSwap calls since the last resetCounters
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return returns the number of frames opened since the last resetCounters, one per call of the recursive enumerate
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return returns the deepest frame since the last resetCounters, the root frame has depth 0
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void resetCounters() {
+        calls = 0;
+        frames = 0;
+        maxDepth = 0;
+    }
+
+    public int getSwapSize() {
+        return sSize;
+    }
+
+    public long getSwapGain() {
+        return swapGain;
+    }
+
+    /**
+     * Writes the last swap found into destination.
+     * @return returns destination
+     */
+    public IntVertexSet getSwap(IntVertexSet destination) {
+        destination.clear();
+        for(int i = 0; i < sSize; i++)
+            destination.add(sList[i]);
+        return destination;
+    }
+
+    public IntVertexSet getSwap() {
+        return getSwap(new IntVertexSet());
+    }
+}
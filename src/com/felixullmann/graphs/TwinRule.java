@@ -0,0 +1,55 @@
+package com.felixullmann.graphs;
+
+/**
+ * Two non-adjacent vertices with the same neighbors are either both in an optimal cover or both not, as soon as one
+ * of them is out of the cover all their neighbors are in it. So they are merged into one vertex with both weights.
+ */
+public class TwinRule implements ReductionRule {
+
+    private int[] neighbors = new int[16];
+    private int[] candidates = new int[16];
+    private int[] other = new int[16];
+
+    @Override
+    public String getName() {
+        return "twin";
+    }
+
+    @Override
+    public boolean apply(KernelGraph graph, int vertex) {
+        int degree = graph.degree(vertex);
+        if(degree == 0)
+            return false;
+        if(neighbors.length < degree) {
+            neighbors = new int[degree * 2];
+            other = new int[degree * 2];
+        }
+        graph.getNeighbors(vertex, neighbors);
+
+        // every twin is a neighbor of the neighbor with the smallest degree
+        int pivot = neighbors[0];
+        for(int i = 1; i < degree; i++) {
+            if(graph.degree(neighbors[i]) < graph.degree(pivot))
+                pivot = neighbors[i];
+        }
+        if(candidates.length < graph.degree(pivot))
+            candidates = new int[graph.degree(pivot) * 2];
+        int count = graph.getNeighbors(pivot, candidates);
+
+        for(int i = 0; i < count; i++) {
+            int twin = candidates[i];
+            if(twin == vertex || graph.degree(twin) != degree)
+                continue;
+            graph.getNeighbors(twin, other);
+            boolean same = true;
+            for(int j = 0; j < degree && same; j++)
+                same = neighbors[j] == other[j];
+            if(same) {
+                // neither vertex is a neighbor of the other, as it would have to be its own neighbor
+                graph.mergeTwins(vertex, twin);
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,282 @@
+package com.felixullmann.graphs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads the problem sets presented in https://doi.org/10.1007/s43069-021-00084-x straight into a CsrGraph.
+ * Both files are memory-mapped and cut into chunks at line breaks. The chunks are parsed in parallel, every
+ * chunk reads the ASCII digits from the mapped bytes into primitive arrays, so no strings or Integers are created.
+ * The file layout is
+ *   conflict_graph.txt: a header line "vertexCount edgeCount" followed by one "a b" line per edge
+ *   node_weights.txt: one "vertex weight" line per vertex
+ */
+public class VrpLoader {
+
+    // chunks are at most this large, so that each one fits into a single mapping
+    private static final long MAX_CHUNK_SIZE = 1L << 26;
+    // files below this size are parsed as a single chunk
+    private static final long MIN_PARALLEL_SIZE = 1L << 20;
+
+    private VrpLoader() {
+    }
+
+    /**
+     * Loads the graph using one thread per available processor.
+     * @param path directory containing conflict_graph.txt and node_weights.txt
+     * @return returns the graph with the vertex ids of the files as labels
+     */
+    public static CsrGraph load(String path) throws IOException {
+        return load(path, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads the graph, the time is reported by the caller like every other phase.
+     * @param path directory containing conflict_graph.txt and node_weights.txt
+     * @param threads number of threads parsing chunks
+     * @return returns the graph with the vertex ids of the files as labels
+     */
+    public static CsrGraph load(String path, int threads) throws IOException {
+        return load(path, threads, 0);
+    }
+
+    /**
+     * @param chunks number of chunks per file, 0 chooses it from the file size and the number of threads
+     */
+    static CsrGraph load(String path, int threads, int chunks) throws IOException {
+        File edgeFile = new File(path, "conflict_graph.txt");
+        File vertexFile = new File(path, "node_weights.txt");
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            IntPairs vertices = parse(vertexFile, false, pool, chunks);
+            IntPairs edges = parse(edgeFile, true, pool, chunks);
+
+            // sort the vertices by label, a later line for the same vertex replaces the earlier one
+            int[] labels = vertices.first;
+            long[] weights = new long[vertices.size];
+            if(!isStrictlyAscending(labels, vertices.size)) {
+                // label in the high and line in the low half, so equal labels stay in the order of the file
+                long[] order = new long[vertices.size];
+                for(int i = 0; i < order.length; i++)
+                    order[i] = (long) vertices.first[i] << 32 | i;
+                Arrays.sort(order);
+                int[] sortedLabels = new int[order.length];
+                int n = 0;
+                for(int i = 0; i < order.length; i++) {
+                    int line = (int) order[i];
+                    if(n > 0 && sortedLabels[n-1] == vertices.first[line])
+                        n--;
+                    sortedLabels[n] = vertices.first[line];
+                    weights[n++] = vertices.second[line];
+                }
+                labels = Arrays.copyOf(sortedLabels, n);
+                weights = Arrays.copyOf(weights, n);
+            } else {
+                labels = Arrays.copyOf(labels, vertices.size);
+                for(int i = 0; i < vertices.size; i++)
+                    weights[i] = vertices.second[i];
+            }
+
+            toDenseIds(edges, labels, pool);
+            return CsrGraph.fromEdges(labels, weights, edges.first, edges.second, edges.size);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Replaces the vertex ids of the edges by dense ids.
+     */
+    private static void toDenseIds(IntPairs edges, int[] labels, ForkJoinPool pool) throws IOException {
+        int n = labels.length;
+        // the usual case are the vertices 0..n-1, then the label is the dense id
+        boolean identity = n == 0 || (labels[0] == 0 && labels[n-1] == n-1);
+
+        int tasks = Math.max(1, pool.getParallelism() * 4);
+        int step = (edges.size + tasks - 1) / tasks;
+        List<ForkJoinTask<Integer>> results = new ArrayList<>(tasks);
+        for(int t = 0; t < tasks; t++) {
+            int from = t * step, to = Math.min(edges.size, from + step);
+            results.add(pool.submit(() -> {
+                for(int e = from; e < to; e++) {
+                    int a = identity ? edges.first[e] : Arrays.binarySearch(labels, edges.first[e]);
+                    int b = identity ? edges.second[e] : Arrays.binarySearch(labels, edges.second[e]);
+                    if(a < 0 || a >= n || b < 0 || b >= n)
+                        return e;
+                    edges.first[e] = a;
+                    edges.second[e] = b;
+                }
+                return -1;
+            }));
+        }
+        for(ForkJoinTask<Integer> result : results) {
+            int e = result.join();
+            if(e >= 0)
+                throw new IOException("Edge " + edges.first[e] + " " + edges.second[e] + " has an endpoint without weight.");
+        }
+    }
+
+    /**
+     * Parses a file of integer pairs in parallel chunks.
+     * @param skipHeader whether the first line is a header that is not part of the pairs
+     */
+    private static IntPairs parse(File file, boolean skipHeader, ForkJoinPool pool, int chunks) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long begin = skipHeader ? nextLine(channel, 0, size) : 0;
+
+            if(chunks <= 0) {
+                chunks = size < MIN_PARALLEL_SIZE ? 1 : pool.getParallelism() * 4;
+                chunks = (int) Math.max(chunks, (size - begin) / MAX_CHUNK_SIZE + 1);
+            }
+
+            // chunk i covers [bounds[i], bounds[i+1]), every bound except the last one is the start of a line
+            long[] bounds = new long[chunks + 1];
+            bounds[0] = begin;
+            for(int i = 1; i < chunks; i++)
+                bounds[i] = Math.max(bounds[i-1], nextLine(channel, begin + (size - begin) * i / chunks, size));
+            bounds[chunks] = size;
+
+            List<ForkJoinTask<IntPairs>> tasks = new ArrayList<>(chunks);
+            for(int i = 0; i < chunks; i++) {
+                long from = bounds[i], to = bounds[i+1];
+                if(to - from > Integer.MAX_VALUE)
+                    throw new IOException("Chunk of " + file + " is too large to be mapped.");
+                tasks.add(pool.submit(() -> parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from))));
+            }
+
+            IntPairs[] parts = new IntPairs[chunks];
+            int total = 0;
+            for(int i = 0; i < chunks; i++) {
+                try {
+                    parts[i] = tasks.get(i).join();
+                } catch(RuntimeException e) {
+                    throw new IOException("Could not parse " + file, e);
+                }
+                total += parts[i].size;
+            }
+
+            if(chunks == 1)
+                return parts[0];
+            IntPairs pairs = new IntPairs(total);
+            for(IntPairs part : parts) {
+                System.arraycopy(part.first, 0, pairs.first, pairs.size, part.size);
+                System.arraycopy(part.second, 0, pairs.second, pairs.size, part.size);
+                pairs.size += part.size;
+            }
+            return pairs;
+        }
+    }
+
+    /**
+     * Reads all integers of a chunk and pairs them up in order of appearance.
+     */
+    private static IntPairs parseChunk(MappedByteBuffer buffer) throws IOException {
+        // roughly one pair per eight bytes, the arrays grow if needed
+        IntPairs pairs = new IntPairs(Math.max(16, buffer.limit() / 8));
+        int limit = buffer.limit();
+        int position = 0;
+        int pending = 0;
+        boolean hasPending = false;
+
+        while(true) {
+            byte c = 0;
+            while(position < limit && !isDigit(c = buffer.get(position)) && c != '-')
+                position++;
+            if(position == limit)
+                break;
+
+            boolean negative = c == '-';
+            if(negative)
+                position++;
+            long value = 0;
+            int digits = 0;
+            while(position < limit && isDigit(c = buffer.get(position))) {
+                value = value * 10 + (c - '0');
+                if(value > Integer.MAX_VALUE + 1L)
+                    throw new IOException("Number out of range at byte " + position + " of chunk.");
+                position++;
+                digits++;
+            }
+            if(digits == 0 || (!negative && value > Integer.MAX_VALUE))
+                throw new IOException("Invalid number at byte " + position + " of chunk.");
+            int number = (int) (negative ? -value : value);
+
+            if(hasPending) {
+                pairs.add(pending, number);
+                hasPending = false;
+            } else {
+                pending = number;
+                hasPending = true;
+            }
+        }
+
+        if(hasPending)
+            throw new IOException("Line with a single number.");
+        return pairs;
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return returns the position after the next line break at or after position, or size if there is none
+     */
+    private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while(position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if(read <= 0)
+                break;
+            for(int i = 0; i < read; i++) {
+                if(buffer.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static boolean isStrictlyAscending(int[] values, int size) {
+        for(int i = 1; i < size; i++) {
+            if(values[i-1] >= values[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Growable pair of int arrays.
+     */
+    private static final class IntPairs {
+        int[] first;
+        int[] second;
+        int size;
+
+        IntPairs(int capacity) {
+            first = new int[capacity];
+            second = new int[capacity];
+        }
+
+        void add(int a, int b) {
+            if(size == first.length) {
+                first = Arrays.copyOf(first, size * 2);
+                second = Arrays.copyOf(second, size * 2);
+            }
+            first[size] = a;
+            second[size++] = b;
+        }
+    }
+}
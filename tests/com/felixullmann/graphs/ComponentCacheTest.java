@@ -0,0 +1,151 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ComponentCacheTest {
+
+    /**
+     * @return returns a copy of the edges from, to with the weights of graph, every vertex v renamed to perm[v]
+     */
+    private static CsrGraph permuted(long[] weights, int[] from, int[] to, int[] perm) {
+        int n = weights.length, m = from.length;
+        int[] labels = new int[n], f = new int[m], t = new int[m];
+        long[] w = new long[n];
+        for(int v = 0; v < n; v++) {
+            labels[v] = v;
+            w[perm[v]] = weights[v];
+        }
+        for(int e = 0; e < m; e++) {
+            f[e] = perm[from[e]];
+            t[e] = perm[to[e]];
+        }
+        return CsrGraph.fromEdges(labels, w, f, t, m);
+    }
+
+    private static int[] shuffle(Random random, int n) {
+        int[] perm = new int[n];
+        for(int v = 0; v < n; v++)
+            perm[v] = v;
+        for(int v = n - 1; v > 0; v--) {
+            int u = random.nextInt(v + 1), tmp = perm[u];
+            perm[u] = perm[v];
+            perm[v] = tmp;
+        }
+        return perm;
+    }
+
+    @Test
+    public void isomorphicCopiesHit() {
+        Random random = new Random(51);
+        for(int round = 0; round < 100; round++) {
+            int n = ComponentCache.MIN_VERTICES + random.nextInt(30), m = random.nextInt(3 * n);
+            long[] weights = new long[n];
+            int[] from = new int[m], to = new int[m];
+            for(int v = 0; v < n; v++)
+                weights[v] = 1 + random.nextInt(5);
+            for(int e = 0; e < m; e++) {
+                from[e] = random.nextInt(n);
+                to[e] = random.nextInt(n);
+            }
+
+            ComponentCache cache = new ComponentCache();
+            CsrGraph graph = permuted(weights, from, to, shuffle(random, n));
+            long optimum = graph.getSetWeight(cache.solve(graph));
+            for(int copy = 0; copy < 3; copy++) {
+                CsrGraph other = permuted(weights, from, to, shuffle(random, n));
+                IntVertexSet cover = cache.solve(other);
+                assertTrue(other.isVertexCover(cover));
+                assertEquals(optimum, other.getSetWeight(cover));
+            }
+            assertEquals(1, cache.getMisses());
+            assertEquals(3, cache.getHits());
+        }
+    }
+
+    @Test
+    public void symmetricGraphsHit() {
+        // a cycle with equal weights is not split by refinement, only by individualization
+        int n = 20;
+        long[] weights = new long[n];
+        int[] from = new int[n], to = new int[n];
+        for(int v = 0; v < n; v++) {
+            weights[v] = 3;
+            from[v] = v;
+            to[v] = (v + 1) % n;
+        }
+        ComponentCache cache = new ComponentCache();
+        Random random = new Random(52);
+        for(int copy = 0; copy < 5; copy++) {
+            IntVertexSet cover = cache.solve(permuted(weights, from, to, shuffle(random, n)));
+            assertEquals(10, cover.size());
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(4, cache.getHits());
+    }
+
+    /**
+     * @return returns the identity permutation of n vertices
+     */
+    private static int[] identity(int n) {
+        int[] perm = new int[n];
+        for(int v = 0; v < n; v++)
+            perm[v] = v;
+        return perm;
+    }
+
+    @Test
+    public void weightsAreInTheKey() {
+        // paths of 17 vertices, the unique optimum of the first one holds vertex 7, which is too heavy in the second one
+        int n = 17;
+        long[] light = new long[n], heavy = new long[n];
+        int[] from = new int[n - 1], to = new int[n - 1];
+        for(int v = 0; v < n; v++) {
+            light[v] = 1;
+            heavy[v] = v == 7 ? 5 : 1;
+        }
+        for(int v = 0; v < n - 1; v++) {
+            from[v] = v;
+            to[v] = v + 1;
+        }
+        ComponentCache cache = new ComponentCache();
+        CsrGraph lightPath = permuted(light, from, to, identity(n));
+        CsrGraph heavyPath = permuted(heavy, from, to, identity(n));
+        assertTrue(cache.solve(lightPath).contains(7));
+        assertFalse(cache.solve(heavyPath).contains(7));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        // a path, a cycle and a star of 17 vertices
+        int n = 17;
+        long[] weights = new long[n];
+        int[] from = new int[n], to = new int[n], center = new int[n - 1], leaves = new int[n - 1];
+        for(int v = 0; v < n; v++) {
+            weights[v] = 1;
+            from[v] = v;
+            to[v] = (v + 1) % n;
+        }
+        for(int v = 1; v < n; v++)
+            leaves[v - 1] = v;
+        CsrGraph path = permuted(weights, Arrays.copyOf(from, n - 1), Arrays.copyOf(to, n - 1), identity(n));
+        CsrGraph cycle = permuted(weights, from, to, identity(n));
+        CsrGraph star = permuted(weights, center, leaves, identity(n));
+
+        ComponentCache cache = new ComponentCache(2);
+        cache.solve(path);
+        cache.solve(cycle);
+        cache.solve(path);
+        cache.solve(star);        // evicts the cycle
+        assertEquals(2, cache.size());
+        cache.solve(path);
+        assertEquals(2, cache.getHits());
+        cache.solve(cycle);
+        assertEquals(4, cache.getMisses());
+    }
+}
@@ -0,0 +1,44 @@
+package com.felixullmann.graphs;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ComponentSchedulerTest {
+
+    private CsrGraph myGraph;
+
+    @Before
+    public void setUp() {
+        // 40 disjoint random components with 5 to 14 vertices each
+        myGraph = TestGraphs.components(new Random(3), 40, 5, 14, 20);
+    }
+
+    private Set<Integer> solve(int threads) {
+        List<CsrGraph> graphs = myGraph.getDisconnectedSubgraphs();
+        long totalWeight = 0;
+        for(CsrGraph graph : graphs) {
+            graph.initialSolution = graph.getVertices();
+            totalWeight += graph.getSetWeight(graph.initialSolution);
+        }
+
+        AtomicLong weight = new AtomicLong(totalWeight);
+        Set<Integer> cover = new ComponentScheduler(threads).solve(graphs, 3, weight);
+        assertEquals(myGraph.getSetWeight(myGraph.toIds(cover)), weight.get());
+        return cover;
+    }
+
+    @Test
+    public void sameCoverAsSequentialRun() {
+        Set<Integer> sequential = solve(1);
+        Set<Integer> parallel = solve(4);
+
+        assertTrue(myGraph.isVertexCover(myGraph.toIds(parallel)));
+        assertEquals(sequential, parallel);
+    }
+}
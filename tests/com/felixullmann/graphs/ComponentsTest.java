@@ -0,0 +1,64 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ComponentsTest {
+
+    @Test
+    public void sameAsInduced() {
+        Random random = new Random(31);
+        for(int round = 0; round < 50; round++) {
+            int n = 1 + random.nextInt(300);
+            CsrGraph graph = TestGraphs.relabelled(TestGraphs.random(random, n, random.nextInt(n), 50), 5, 2);
+            Components components = new Components(graph);
+
+            int seen = 0;
+            for(int c = 0; c < components.count; c++) {
+                int[] ids = new int[components.size(c)];
+                for(int local = 0; local < ids.length; local++) {
+                    ids[local] = components.vertex(c, local);
+                    assertEquals(c, components.componentOf(ids[local]));
+                    assertEquals(local, components.localId(ids[local]));
+                    // no edge leaves the component
+                    for(int i = graph.offsets[ids[local]]; i < graph.offsets[ids[local]+1]; i++)
+                        assertEquals(c, components.componentOf(graph.targets[i]));
+                }
+                // numbered by the smallest vertex
+                assertTrue(ids[0] >= seen);
+                seen = ids[0];
+
+                CsrGraph expected = graph.induced(ids), subgraph = components.subgraph(c);
+                assertArrayEquals(expected.labels, subgraph.labels);
+                assertArrayEquals(expected.weights, subgraph.weights);
+                assertArrayEquals(expected.offsets, subgraph.offsets);
+                assertArrayEquals(expected.targets, subgraph.targets);
+            }
+        }
+    }
+
+    @Test
+    public void manyComponents() {
+        // 100000 disjoint edges
+        int n = 200000;
+        int[] labels = new int[n], from = new int[n / 2], to = new int[n / 2];
+        long[] weights = new long[n];
+        for(int v = 0; v < n; v++) {
+            labels[v] = v;
+            weights[v] = 1;
+        }
+        for(int e = 0; e < n / 2; e++) {
+            from[e] = e;
+            to[e] = n - 1 - e;
+        }
+        List<CsrGraph> subgraphs = CsrGraph.fromEdges(labels, weights, from, to, n / 2).getDisconnectedSubgraphs();
+
+        assertEquals(n / 2, subgraphs.size());
+        assertArrayEquals(new int[]{7, n - 8}, subgraphs.get(7).labels);
+        assertEquals(1, subgraphs.get(7).edgeCount());
+    }
+}
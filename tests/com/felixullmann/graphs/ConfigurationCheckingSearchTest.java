@@ -0,0 +1,86 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationCheckingSearchTest {
+
+    @Test
+    public void findsOptimumOfSmallGraphs() {
+        Random random = new Random(61);
+        for(int round = 0; round < 50; round++) {
+            int n = 2 + random.nextInt(40);
+            CsrGraph graph = TestGraphs.random(random, n, random.nextInt(3 * n), 30);
+            IntVertexSet cover = new ConfigurationCheckingSearch(graph, round).setStallSteps(20000).solve(graph.getVertices(), 0);
+            assertTrue(graph.isVertexCover(cover));
+            assertEquals(graph.getSetWeight(new ExactSolver(graph).solve()), graph.getSetWeight(cover));
+        }
+    }
+
+    @Test
+    public void coversFromEmptyStart() {
+        Random random = new Random(62);
+        CsrGraph graph = TestGraphs.random(random, 2000, 8000, 30);
+        IntVertexSet cover = new ConfigurationCheckingSearch(graph, 1).setStallSteps(1000).solve(new IntVertexSet(graph.n), 0);
+        assertTrue(graph.isVertexCover(cover));
+    }
+
+    @Test(timeout = 20000)
+    public void partialStartOnLargeGraphWithHub() {
+        // vertex 0 is adjacent to every other vertex, an empty start leaves 480000 edges uncovered
+        Random random = new Random(66);
+        int n = 80000, m = 400000;
+        int[] labels = new int[n], from = new int[m + n - 1], to = new int[m + n - 1];
+        long[] weights = new long[n];
+        for(int v = 0; v < n; v++) {
+            labels[v] = v;
+            weights[v] = 1 + random.nextInt(30);
+        }
+        for(int e = 0; e < m; e++) {
+            from[e] = random.nextInt(n);
+            to[e] = random.nextInt(n);
+        }
+        for(int v = 1; v < n; v++) {
+            from[m + v - 1] = 0;
+            to[m + v - 1] = v;
+        }
+        CsrGraph graph = CsrGraph.fromEdges(labels, weights, from, to, m + n - 1);
+        IntVertexSet cover = new ConfigurationCheckingSearch(graph, 1).setStallSteps(2000).solve(new IntVertexSet(n), 0);
+        assertTrue(graph.isVertexCover(cover));
+    }
+
+    @Test
+    public void improvesOnGreedy() {
+        Random random = new Random(63);
+        CsrGraph graph = TestGraphs.random(random, 3000, 12000, 30);
+        IntVertexSet greedy = graph.getGreedyCover(graph.neighborWeightDifferenceComparator);
+        IntVertexSet cover = new ConfigurationCheckingSearch(graph, 1).solve(greedy, 0);
+        assertTrue(graph.isVertexCover(cover));
+        assertTrue(graph.getSetWeight(cover) < graph.getSetWeight(greedy));
+    }
+
+    @Test
+    public void stopsAtBudget() {
+        Random random = new Random(64);
+        CsrGraph graph = TestGraphs.random(random, 2000, 8000, 30);
+        graph.budget = SearchBudget.ofRoots(500);
+        ConfigurationCheckingSearch search = new ConfigurationCheckingSearch(graph, 1);
+        IntVertexSet cover = search.solve(graph.getVertices(), 0);
+        assertEquals(500, search.getSteps());
+        assertTrue(graph.isVertexCover(cover));
+        assertTrue(graph.budget.isExhausted());
+    }
+
+    @Test
+    public void equalSeedsGiveEqualCovers() {
+        Random random = new Random(65);
+        CsrGraph graph = TestGraphs.random(random, 1000, 4000, 30);
+        IntVertexSet first = new ConfigurationCheckingSearch(graph, 7).setStallSteps(5000).solve(graph.getVertices(), 0);
+        IntVertexSet second = new ConfigurationCheckingSearch(graph, 7).setStallSteps(5000).solve(graph.getVertices(), 0);
+        assertEquals(graph.getSetWeight(first), graph.getSetWeight(second));
+        assertArrayEquals(first.toIntArray(), second.toIntArray());
+    }
+}
@@ -0,0 +1,55 @@
+package com.felixullmann.graphs;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class ConsoleMetricsTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private PrintStream previous;
+
+    @Before
+    public void capture() {
+        previous = System.out;
+        System.setOut(new PrintStream(out, true));
+    }
+
+    @After
+    public void restore() {
+        System.setOut(previous);
+    }
+
+    private int count(String part) {
+        String text = out.toString();
+        int count = 0;
+        for(int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1))
+            count++;
+        return count;
+    }
+
+    @Test
+    public void progressIsThinnedOut() {
+        ConsoleMetrics metrics = new ConsoleMetrics();
+        // like localSearch_pruning, which restarts at k = 1 after every swap
+        for(int swap = 0; swap < 10000; swap++) {
+            for(int k = 1; k <= 3; k++)
+                metrics.searchLevel(k, 0, 0, 0);
+            metrics.swapApplied(3, 4, 10000 - swap, 0);
+        }
+        metrics.searchFinished(10000, 1, 0);
+
+        assertEquals(3, count(" k = "));
+        assertTrue(count(" w = ") <= 2);
+        assertEquals(1, count("Swaps made: 10000"));
+
+        // the next search prints its levels again
+        metrics.searchLevel(1, 0, 0, 0);
+        assertEquals(4, count(" k = "));
+    }
+}
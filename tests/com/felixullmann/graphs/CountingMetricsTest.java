@@ -0,0 +1,72 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CountingMetricsTest {
+
+    @Test
+    public void countsSearch() {
+        CsrGraph graph = TestGraphs.random(new Random(5), 200, 600, 100);
+        CountingMetrics counters = new CountingMetrics();
+        graph.metrics = counters;
+
+        int kMax = 3;
+        IntVertexSet cover = graph.localSearch_pruning(graph.getVertices(), kMax, 0);
+
+        long[] timeline = counters.getTimeline();
+        long swaps = 0;
+        for(int k = 1; k <= kMax; k++) {
+            swaps += counters.getSwaps(k);
+            assertTrue(counters.getLevels(k) > 0);
+            assertTrue(counters.getFrames(k) >= counters.getCalls(k));
+            assertTrue(counters.getMaxDepth(k) <= k);
+        }
+        // swaps of size 1 are found without the enumerator
+        assertEquals(0, counters.getCalls(1));
+        assertTrue(counters.getCalls(kMax) > 0);
+        assertTrue(swaps > 0);
+        assertEquals(2 * swaps, timeline.length);
+
+        // every swap lowers the weight, the last one leaves the weight of the returned cover
+        for(int i = 3; i < timeline.length; i += 2) {
+            assertTrue(timeline[i] < timeline[i - 2]);
+            assertTrue(timeline[i - 1] >= timeline[i - 3]);
+        }
+        assertEquals(graph.getSetWeight(cover), timeline[timeline.length - 1]);
+    }
+
+    @Test
+    public void countsReductions() {
+        // triangle 0,1,2 where only 0 has a further neighbor 3
+        int[] from = {0, 0, 1, 0};
+        int[] to   = {1, 2, 2, 3};
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1, 2, 3}, new long[]{5, 1, 1, 1}, from, to, from.length);
+        CountingMetrics counters = new CountingMetrics();
+        graph.metrics = counters;
+
+        boolean[] removed = new boolean[graph.n];
+        graph.doCliquePruning(removed);
+
+        assertTrue(counters.report().contains("Clique Reduction"));
+        assertEquals(0, counters.getTimeline().length);
+    }
+
+    @Test
+    public void forwardsToAll() {
+        CountingMetrics a = new CountingMetrics(), b = new CountingMetrics();
+        SolverMetrics both = SolverMetrics.of(a, SolverMetrics.NONE, b);
+        both.swapApplied(2, 3, 40, 7);
+        both.cliqueFound(4);
+
+        assertEquals(1, a.getSwaps(2));
+        assertEquals(1, b.getSwaps(2));
+        assertEquals(1, b.getCliques(4));
+        assertArrayEquals(new long[]{7, 40}, a.getTimeline());
+        assertSame(a, SolverMetrics.of(SolverMetrics.NONE, a));
+        assertSame(SolverMetrics.NONE, SolverMetrics.of(SolverMetrics.NONE));
+    }
+}
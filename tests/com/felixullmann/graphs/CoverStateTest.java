@@ -0,0 +1,60 @@
+package com.felixullmann.graphs;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CoverStateTest {
+
+    private CsrGraph myGraph;
+
+    @Before
+    public void setUp() {
+        // 0 - 1 - 2 - 3 and 1 - 3
+        int[] from = {0, 1, 2, 1};
+        int[] to   = {1, 2, 3, 3};
+        myGraph = CsrGraph.fromEdges(new int[]{0, 1, 2, 3}, new long[]{3, 5, 2, 4}, from, to, from.length);
+    }
+
+    private static IntVertexSet of(int... vertices) {
+        IntVertexSet set = new IntVertexSet();
+        for(int vertex : vertices)
+            set.add(vertex);
+        return set;
+    }
+
+    @Test
+    public void initialValues() {
+        CoverState state = new CoverState(myGraph, of(1));
+
+        assertEquals(5, state.getWeight());
+        assertEquals(1, state.getUncoveredEdges());
+        assertFalse(state.isCover());
+        assertEquals(1, state.getCoveredNeighbors(3));
+        assertEquals(5 - 3 - 2 - 4, state.getGain(1));
+        assertEquals(2 - 4, state.getGain(2));
+    }
+
+    @Test
+    public void applySwap() {
+        CoverState state = new CoverState(myGraph, of(1, 3));
+        assertTrue(state.isCover());
+
+        // swap 3 out and 2 in
+        state.applySwap(of(2, 3));
+
+        assertTrue(state.isCover());
+        assertEquals(of(1, 2), state.getCover());
+        assertEquals(7, state.getWeight());
+        assertEquals(2, state.getUncoveredNeighbors(1));
+
+        // the maintained values have to match a freshly built state
+        CoverState fresh = new CoverState(myGraph, state.getCover());
+        for(int v = 0; v < myGraph.n; v++) {
+            assertEquals(fresh.getGain(v), state.getGain(v));
+            assertEquals(fresh.getCoveredNeighbors(v), state.getCoveredNeighbors(v));
+        }
+        assertEquals(fresh.getUncoveredEdges(), state.getUncoveredEdges());
+    }
+}
@@ -0,0 +1,58 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CoverValidatorTest {
+
+    /**
+     * @return returns the first uncovered edge of a plain scan over all rows
+     */
+    private static int[] firstUncovered(CsrGraph graph, IntVertexSet cover) {
+        for(int v = 0; v < graph.n; v++) {
+            for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                if(!cover.contains(v) && !cover.contains(graph.targets[i]))
+                    return new int[]{Math.min(v, graph.targets[i]), Math.max(v, graph.targets[i])};
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void findsFirstUncoveredEdge() {
+        Random random = new Random(71);
+        for(int round = 0; round < 100; round++) {
+            CsrGraph graph = TestGraphs.random(random, 2 + random.nextInt(200), random.nextInt(600), 1);
+            IntVertexSet cover = graph.getVertices();
+            for(int i = 0; i < 1 + random.nextInt(20); i++)
+                cover.remove(random.nextInt(graph.n));
+            assertArrayEquals(firstUncovered(graph, cover), new CoverValidator(1).findUncoveredEdge(graph, cover));
+        }
+    }
+
+    @Test
+    public void parallelScanMatchesSequential() {
+        Random random = new Random(72);
+        CsrGraph graph = TestGraphs.random(random, 200000, CoverValidator.PARALLEL_MIN_EDGES + 1000, 1);
+        CoverValidator validator = new CoverValidator(4);
+
+        IntVertexSet cover = graph.getGreedyCover(graph.maxDegreeComparator);
+        assertNull(validator.findUncoveredEdge(graph, cover));
+        assertTrue(validator.isVertexCover(graph, cover));
+
+        // uncovered edges in the last range only, and in several ranges
+        for(int removed : new int[]{1, 50}) {
+            IntVertexSet broken = cover.copy();
+            for(int i = 0; i < removed; i++) {
+                int v = removed == 1 ? graph.n - 1 - random.nextInt(1000) : random.nextInt(graph.n);
+                broken.remove(v);
+                for(int j = graph.offsets[v]; j < graph.offsets[v+1]; j++)
+                    broken.remove(graph.targets[j]);
+            }
+            assertArrayEquals(firstUncovered(graph, broken), validator.findUncoveredEdge(graph, broken));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.felixullmann.graphs;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class CoverWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndRead() throws IOException {
+        int[] labels = {-7, 0, 9, 10, 123456, Integer.MAX_VALUE};
+        File file = new File(folder.getRoot(), "out/cover.txt");
+        long checksum = CoverWriter.write(file, labels);
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        assertEquals("-7\n0\n9\n10\n123456\n2147483647\n", new String(bytes, "US-ASCII"));
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        assertEquals(crc.getValue(), checksum);
+        assertEquals(checksum, CoverWriter.checksum(file));
+        assertArrayEquals(labels, CoverWriter.read(file));
+    }
+
+    @Test
+    public void manyVerticesSpanSeveralBuffers() throws IOException {
+        int[] labels = new int[100000];
+        for(int i = 0; i < labels.length; i++)
+            labels[i] = 3 * i;
+        File file = folder.newFile("cover.txt");
+        long checksum = CoverWriter.write(file, labels);
+        assertEquals(checksum, CoverWriter.checksum(file));
+        assertArrayEquals(labels, CoverWriter.read(file));
+    }
+
+    @Test
+    public void writesLabelsOfGraph() throws IOException {
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{10, 20, 30}, new long[]{1, 5, 1}, new int[]{0, 1}, new int[]{1, 2}, 2);
+        IntVertexSet cover = new IntVertexSet(3);
+        cover.add(0);
+        cover.add(2);
+        File file = folder.newFile("cover.txt");
+        long checksum = CoverWriter.write(file, graph, cover);
+        assertArrayEquals(new int[]{10, 30}, CoverWriter.read(file));
+
+        File certificate = folder.newFile("cover.txt.cert");
+        CoverWriter.writeCertificate(certificate, cover.size(), graph.getSetWeight(cover), checksum);
+        List<String> lines = Files.readAllLines(certificate.toPath());
+        assertEquals(Arrays.asList("vertices 2", "weight 2", "crc32 " + Long.toHexString(checksum)), lines);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsInvalidFile() throws IOException {
+        File file = folder.newFile("cover.txt");
+        Files.write(file.toPath(), "1\n2x\n".getBytes("US-ASCII"));
+        CoverWriter.read(file);
+    }
+}
@@ -0,0 +1,292 @@
+package com.felixullmann.graphs;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CsrGraphTest {
+
+    private IntegerGraph integerGraph;
+    private CsrGraph myGraph;
+
+    @Before
+    public void setUp() {
+        Set<Integer> vertices = new Set<>(Arrays.asList(0,1,2,3,4,5));
+        HashMap<Integer, Set<Integer>> adjacency = new HashMap<>();
+        HashMap<Integer, Integer> weights = new HashMap<>();
+
+        adjacency.put(0, new Set<>(Arrays.asList(2, 4, 5)));
+        adjacency.put(1, new Set<>(Arrays.asList(4, 5)));
+        adjacency.put(2, new Set<>(Arrays.asList(0, 3, 4)));
+        adjacency.put(3, new Set<>(Arrays.asList(2)));
+        adjacency.put(4, new Set<>(Arrays.asList(0, 1, 2, 5)));
+        adjacency.put(5, new Set<>(Arrays.asList(0, 1, 4)));
+
+        weights.put(0, 3);
+        weights.put(1, 2);
+        weights.put(2, 3);
+        weights.put(3,1);
+        weights.put(4,4);
+        weights.put(5,6);
+
+        integerGraph = new IntegerGraph(vertices, weights, adjacency);
+        myGraph = integerGraph.toCsr();
+    }
+
+    @Test
+    public void fromIntegerGraph() {
+        assertEquals(6, myGraph.n);
+        assertEquals(8, myGraph.edgeCount());
+        assertArrayEquals(new int[]{0, 1, 2, 5}, Arrays.copyOfRange(myGraph.targets, myGraph.offsets[4], myGraph.offsets[5]));
+        assertEquals(6, myGraph.weights[5]);
+        assertEquals(integerGraph.adjacency, myGraph.toIntegerGraph().adjacency);
+    }
+
+    @Test
+    public void fromEdges() {
+        int[] from = {0, 1, 0, 2, 2};
+        int[] to   = {1, 0, 2, 2, 0};
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{10, 20, 30}, new long[]{1, 2, 3}, from, to, from.length);
+
+        assertEquals(2, graph.edgeCount());
+        assertArrayEquals(new int[]{1, 2}, Arrays.copyOfRange(graph.targets, graph.offsets[0], graph.offsets[1]));
+        assertEquals(2, graph.indexOf(30));
+        assertEquals(-1, graph.indexOf(40));
+    }
+
+    @Test
+    public void isVertexCover() {
+        assertTrue(myGraph.isVertexCover(myGraph.getVertices()));
+        assertTrue(myGraph.isVertexCover(myGraph.toIds(new Set<>(Arrays.asList(2,4,5)))));
+        assertFalse(myGraph.isVertexCover(myGraph.toIds(new Set<>(Arrays.asList(2,1,0)))));
+    }
+
+    @Test
+    public void getDisconnectedSubgraphs() {
+        boolean[] removed = new boolean[myGraph.n];
+        removed[2] = true;
+        List<CsrGraph> subgraphs = myGraph.without(removed).getDisconnectedSubgraphs();
+
+        assertEquals(2, subgraphs.size());
+        assertArrayEquals(new int[]{0, 1, 4, 5}, subgraphs.get(0).labels);
+        assertArrayEquals(new int[]{3}, subgraphs.get(1).labels);
+        assertEquals(5, subgraphs.get(0).edgeCount());
+    }
+
+    @Test
+    public void localSearch_pruning() {
+        IntVertexSet greedy = myGraph.getGreedyCover(myGraph.neighborWeightDifferenceComparator);
+        assertTrue(myGraph.isVertexCover(greedy));
+
+        IntVertexSet cover = myGraph.localSearch_pruning(myGraph.getVertices(), 3, 0);
+        assertTrue(myGraph.isVertexCover(cover));
+        assertTrue(myGraph.getSetWeight(cover) < myGraph.getSetWeight(myGraph.getVertices()));
+    }
+
+    @Test
+    public void parallelLocalSearch_pruning() {
+        // large enough for the parallel search to be used
+        CsrGraph graph = TestGraphs.random(new Random(11), 3000, 6000, 50);
+
+        IntVertexSet cover = graph.localSearch_pruning(graph.getVertices(), 3, 0, 4);
+        assertTrue(graph.isVertexCover(cover));
+
+        // a local optimum for every k up to kMax: the sequential search from it finds no improving swap
+        IntVertexSet sequential = graph.localSearch_pruning(cover.copy(), 3, 0);
+        assertEquals(graph.getSetWeight(cover), graph.getSetWeight(sequential));
+    }
+
+    @Test
+    public void parallelLocalSearch_pruningRechecksLaterSwaps() {
+        // gadgets r1, r2, u1, u2 with the edges r1-u1, r1-u2, r2-u1, r2-u2 and the cover {r1, r2}, padded with isolated
+        // vertices. At k = 3 both roots of a gadget are in the same batch and find the swap "root out, u1 and u2 in".
+        // After the first one is committed the second one would uncover r1-u1 and r1-u2, so it has to be rejected.
+        int gadgets = 64, n = 1024;
+        int[] labels = new int[n], from = new int[4 * gadgets], to = new int[4 * gadgets];
+        long[] weights = new long[n];
+        IntVertexSet start = new IntVertexSet(n);
+        for(int v = 0; v < n; v++) {
+            labels[v] = v;
+            weights[v] = 1;
+        }
+        for(int g = 0, m = 0; g < gadgets; g++) {
+            int r1 = 4 * g, r2 = r1 + 1, u1 = r1 + 2, u2 = r1 + 3;
+            weights[r1] = weights[r2] = 10;
+            start.add(r1);
+            start.add(r2);
+            for(int r = r1; r <= r2; r++) {
+                from[m] = r;
+                to[m++] = u1;
+                from[m] = r;
+                to[m++] = u2;
+            }
+        }
+        CsrGraph graph = CsrGraph.fromEdges(labels, weights, from, to, from.length);
+
+        // every committed swap has to leave a cover, and the weight has to fall with each one
+        List<Long> reported = new ArrayList<>();
+        graph.coverListener = (g, cover, weight, elapsed) -> {
+            assertTrue(g.isVertexCover(cover));
+            reported.add(weight);
+        };
+        IntVertexSet cover = graph.localSearch_pruning(start.copy(), 3, 0, 2);
+        graph.coverListener = null;
+
+        // per gadget one 3-swap and the removal of the other root, which has no uncovered neighbor afterwards
+        assertEquals(2 * gadgets, reported.size());
+        for(int i = 1; i < reported.size(); i++)
+            assertTrue(reported.get(i) < reported.get(i - 1));
+        assertTrue(graph.isVertexCover(cover));
+        assertEquals(2 * gadgets, graph.getSetWeight(cover));
+        assertEquals(graph.getSetWeight(graph.localSearch_pruning(start.copy(), 3, 0)), graph.getSetWeight(cover));
+    }
+
+    @Test
+    public void preprocess() {
+        CsrGraph path = CsrGraph.fromEdges(new int[]{0, 1, 2}, new long[]{5, 1, 5}, new int[]{0, 1}, new int[]{1, 2}, 2);
+        boolean[] removed = new boolean[path.n];
+        IntVertexSet inCover = path.preprocess(removed);
+
+        // vertex 0 is heavier than its only neighbor, vertex 2 becomes isolated afterwards
+        assertEquals(new Set<>(Arrays.asList(1)), inCover);
+        assertArrayEquals(new boolean[]{true, true, true}, removed);
+    }
+
+    @Test
+    public void preprocessAdjacentCandidates() {
+        // both ends of the edge 0 - 1 satisfy the rule. The passes of the IntegerGraph version checked all vertices
+        // against the same graph and put both of them into the cover, with weight 10. The rule is now applied one
+        // vertex at a time, so vertex 0 is reduced first and only its neighbor 1 enters the cover.
+        CsrGraph edge = CsrGraph.fromEdges(new int[]{0, 1}, new long[]{5, 5}, new int[]{0}, new int[]{1}, 1);
+        boolean[] removed = new boolean[edge.n];
+        IntVertexSet inCover = edge.preprocess(removed);
+
+        assertEquals(new Set<>(Arrays.asList(1)), inCover);
+        assertArrayEquals(new boolean[]{true, true}, removed);
+        assertTrue(edge.isVertexCover(inCover));
+        assertEquals(5, edge.getSetWeight(inCover));
+    }
+
+    // the former implementation with repeated passes over all vertices
+    private static IntVertexSet preprocessByPasses(CsrGraph graph, boolean[] removed) {
+        IntVertexSet inCover = new IntVertexSet(graph.n);
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            for(int v = 0; v < graph.n; v++) {
+                if(removed[v])
+                    continue;
+                long neighborWeight = 0;
+                for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                    if(!removed[graph.targets[i]])
+                        neighborWeight += graph.weights[graph.targets[i]];
+                }
+                if(graph.weights[v] < neighborWeight)
+                    continue;
+                removed[v] = true;
+                changed = true;
+                for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                    if(!removed[graph.targets[i]]) {
+                        removed[graph.targets[i]] = true;
+                        inCover.add(graph.targets[i]);
+                    }
+                }
+            }
+        }
+        return inCover;
+    }
+
+    @Test
+    public void preprocessSameAsPasses() {
+        Random random = new Random(13);
+        for(int round = 0; round < 50; round++) {
+            int n = 20 + random.nextInt(200);
+            CsrGraph graph = TestGraphs.random(random, n, random.nextInt(3 * n), 30);
+
+            boolean[] expectedRemoved = new boolean[n], removed = new boolean[n];
+            IntVertexSet expected = preprocessByPasses(graph, expectedRemoved);
+            assertEquals(expected, graph.preprocess(removed));
+            assertArrayEquals(expectedRemoved, removed);
+        }
+    }
+
+    // the former implementation with repeated passes over all vertices
+    private static IntVertexSet cliquePruningByPasses(CsrGraph graph, boolean[] removed) {
+        IntVertexSet inCover = new IntVertexSet(graph.n);
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            outer:
+            for(int v = 0; v < graph.n; v++) {
+                if(removed[v])
+                    continue;
+                Set<Integer> closed = new Set<>();
+                closed.add(v);
+                for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                    if(!removed[graph.targets[i]])
+                        closed.add(graph.targets[i]);
+                }
+                for(Integer neighbor : closed) {
+                    if(neighbor == v)
+                        continue;
+                    Set<Integer> neighborClosed = new Set<>();
+                    neighborClosed.add(neighbor);
+                    for(int i = graph.offsets[neighbor]; i < graph.offsets[neighbor+1]; i++)
+                        neighborClosed.add(graph.targets[i]);
+                    if(!neighborClosed.containsAll(closed) || graph.weights[neighbor] >= graph.weights[v])
+                        continue outer;
+                }
+                for(Integer vertex : closed) {
+                    removed[vertex] = true;
+                    if(vertex != v)
+                        inCover.add(vertex);
+                }
+                changed = true;
+            }
+        }
+        return inCover;
+    }
+
+    @Test
+    public void cliquePruningSameAsPasses() {
+        Random random = new Random(17);
+        for(int round = 0; round < 50; round++) {
+            // random cliques with a few edges between them
+            int n = 20 + random.nextInt(200);
+            int[] labels = new int[n], from = new int[20 * n], to = new int[20 * n];
+            long[] weights = new long[n];
+            int m = 0;
+            for(int v = 0; v < n; v++) {
+                labels[v] = v;
+                weights[v] = 1 + random.nextInt(30);
+            }
+            for(int start = 0; start < n; ) {
+                int size = Math.min(n - start, 1 + random.nextInt(5));
+                for(int a = start; a < start + size; a++) {
+                    for(int b = a + 1; b < start + size; b++) {
+                        from[m] = a;
+                        to[m++] = b;
+                    }
+                }
+                start += size;
+            }
+            for(int e = random.nextInt(n); e > 0; e--) {
+                from[m] = random.nextInt(n);
+                to[m++] = random.nextInt(n);
+            }
+            CsrGraph graph = CsrGraph.fromEdges(labels, weights, from, to, m);
+
+            boolean[] expectedRemoved = new boolean[n], removed = new boolean[n];
+            IntVertexSet expected = cliquePruningByPasses(graph, expectedRemoved);
+            assertEquals(expected, graph.doCliquePruning(removed));
+            assertArrayEquals(expectedRemoved, removed);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ExactSolverTest {
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(41);
+        for(int round = 0; round < 300; round++) {
+            int n = 1 + random.nextInt(14);
+            CsrGraph graph = TestGraphs.random(random, n, random.nextInt(4 * n), 30);
+            IntVertexSet cover = new ExactSolver(graph).solve();
+            assertNotNull(cover);
+            assertTrue(graph.isVertexCover(cover));
+            assertEquals(TestGraphs.optimum(graph), graph.getSetWeight(cover));
+        }
+    }
+
+    @Test
+    public void treesWithSeveralWords() {
+        // trees of more than 64 vertices are solved by dynamic programming over the parents for comparison
+        Random random = new Random(42);
+        for(int round = 0; round < 20; round++) {
+            int n = 65 + random.nextInt(150);
+            int[] parent = new int[n], labels = new int[n], from = new int[n - 1], to = new int[n - 1];
+            long[] weights = new long[n];
+            for(int v = 0; v < n; v++) {
+                labels[v] = v;
+                weights[v] = 1 + random.nextInt(30);
+                if(v > 0) {
+                    parent[v] = random.nextInt(v);
+                    from[v - 1] = v;
+                    to[v - 1] = parent[v];
+                }
+            }
+            long[] in = weights.clone(), out = new long[n];
+            for(int v = n - 1; v > 0; v--) {
+                in[parent[v]] += Math.min(in[v], out[v]);
+                out[parent[v]] += in[v];
+            }
+            CsrGraph graph = CsrGraph.fromEdges(labels, weights, from, to, n - 1);
+            IntVertexSet cover = new ExactSolver(graph).solve();
+            assertTrue(graph.isVertexCover(cover));
+            assertEquals(Math.min(in[0], out[0]), graph.getSetWeight(cover));
+        }
+    }
+
+    @Test
+    public void nodeLimit() {
+        Random random = new Random(43);
+        CsrGraph graph = TestGraphs.random(random, 60, 600, 30);
+        ExactSolver solver = new ExactSolver(graph, 10);
+        assertNull(solver.solve());
+        assertEquals(11, solver.getNodes());
+    }
+}
@@ -0,0 +1,78 @@
+package com.felixullmann.graphs;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class GraphGeneratorTest {
+
+    private static final String[] MODELS = {GraphGenerator.ERDOS_RENYI, GraphGenerator.RMAT, GraphGenerator.UNIT_DISK, GraphGenerator.CLUSTERED};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sameSeedSameFiles() throws IOException {
+        for(String model : MODELS) {
+            File a = folder.newFolder(model + "a"), b = folder.newFolder(model + "b"), c = folder.newFolder(model + "c");
+            new GraphGenerator(7).writeVehicleRouting(model, 3000, 10, a);
+            new GraphGenerator(7).writeVehicleRouting(model, 3000, 10, b);
+            new GraphGenerator(8).writeVehicleRouting(model, 3000, 10, c);
+
+            byte[] edges = Files.readAllBytes(new File(a, "conflict_graph.txt").toPath());
+            assertArrayEquals(edges, Files.readAllBytes(new File(b, "conflict_graph.txt").toPath()));
+            assertFalse(model, Arrays.equals(edges, Files.readAllBytes(new File(c, "conflict_graph.txt").toPath())));
+        }
+    }
+
+    @Test
+    public void loadsWithAverageDegree() throws IOException {
+        for(String model : MODELS) {
+            File directory = folder.newFolder(model);
+            long lines = new GraphGenerator(3).writeVehicleRouting(model, 5000, 12, directory);
+            CsrGraph graph = VrpLoader.load(directory.getPath(), 1);
+
+            assertEquals(5000, graph.n);
+            assertTrue(model, graph.edgeCount() <= lines);
+            double degree = 2.0 * graph.edgeCount() / graph.n;
+            assertTrue(model + " has average degree " + degree, degree > 8 && degree < 16);
+            for(long weight : graph.weights)
+                assertTrue(weight >= 1 && weight <= 200);
+        }
+    }
+
+    @Test
+    public void unitDiskAndClusteredHaveNoDuplicates() throws IOException {
+        for(String model : new String[]{GraphGenerator.UNIT_DISK, GraphGenerator.CLUSTERED}) {
+            HashSet<Long> edges = new HashSet<>();
+            new GraphGenerator(5).generate(model, 4000, 20, (a, b) -> {
+                assertNotEquals(a, b);
+                assertTrue(edges.add((long) Math.min(a, b) << 32 | Math.max(a, b)));
+            });
+            assertFalse(edges.isEmpty());
+        }
+    }
+
+    @Test
+    public void rmatIsSkewed() throws IOException {
+        int n = 1 << 14;
+        int[] degree = new int[n];
+        new GraphGenerator(11).rmat(n, 8L * n, (a, b) -> {
+            degree[a]++;
+            degree[b]++;
+        });
+        int max = 0;
+        for(int d : degree)
+            max = Math.max(max, d);
+        // uniform graphs with average degree 16 stay far below this
+        assertTrue(max > 200);
+    }
+}
@@ -0,0 +1,92 @@
+package com.felixullmann.graphs;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class GraphLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String write(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try(OutputStream out = name.endsWith(".gz") ? new GZIPOutputStream(new FileOutputStream(file)) : new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file.getPath();
+    }
+
+    // the path 1 - 2 - 3 plus the isolated vertex 4, in 1-based ids
+    private static void assertPath(CsrGraph graph) {
+        assertArrayEquals(new int[]{1, 2, 3, 4}, graph.labels);
+        assertArrayEquals(new int[]{0, 1, 3, 4, 4}, graph.offsets);
+        assertArrayEquals(new int[]{1, 0, 2, 1}, graph.targets);
+    }
+
+    @Test
+    public void dimacs() throws IOException {
+        CsrGraph graph = GraphLoader.load(write("path.clq", "c comment\np edge 4 3\ne 1 2\ne 2 3\ne 3 2\n"));
+
+        assertPath(graph);
+        assertArrayEquals(new long[]{2, 3, 4, 5}, graph.weights);
+    }
+
+    @Test
+    public void dimacsWithWeights() throws IOException {
+        CsrGraph graph = GraphLoader.load(write("path.col", "p col 4 2\nn 1 7\nn 2 8\nn 3 9\nn 4 10\ne 1 2\r\ne 2 3\r\n"));
+
+        assertPath(graph);
+        assertArrayEquals(new long[]{7, 8, 9, 10}, graph.weights);
+    }
+
+    @Test
+    public void matrixMarket() throws IOException {
+        String path = write("path.mtx", "%%MatrixMarket matrix coordinate real symmetric\n% comment\n4 4 4\n2 1 0.5\n3 2 1e3\n4 4 1\n");
+        CsrGraph graph = GraphLoader.load(path, write("weights.txt", "1 1\n2 1\n3 1\n4 1\n"));
+
+        assertPath(graph);
+        assertArrayEquals(new long[]{1, 1, 1, 1}, graph.weights);
+    }
+
+    @Test
+    public void gzipEdgeList() throws IOException {
+        CsrGraph graph = GraphLoader.load(write("path.txt.gz", "# comment\n1 2\n3 2 17\n4 4"));
+
+        assertPath(graph);
+        assertArrayEquals(new long[]{2, 3, 4, 5}, graph.weights);
+    }
+
+    @Test
+    public void linesAcrossRefills() throws IOException {
+        // enough lines to refill the 64 KiB buffer many times, and a comment longer than the buffer
+        StringBuilder content = new StringBuilder("p edge 4 30001\ne 1 2\nc ");
+        for(int i = 0; i < 100000; i++)
+            content.append('x');
+        content.append('\n');
+        for(int i = 0; i < 30000; i++)
+            content.append(i % 2 == 0 ? "e 2 3\n" : "e 3 2\n");
+        CsrGraph graph = GraphLoader.load(write("path.clq", content.toString()));
+
+        assertPath(graph);
+    }
+
+    @Test(expected = IOException.class)
+    public void missingWeight() throws IOException {
+        GraphLoader.load(write("path.clq", "p edge 4 2\ne 1 2\ne 2 3\n"), write("weights.txt", "1 1\n2 1\n3 1\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void idOutOfRange() throws IOException {
+        GraphLoader.load(write("path.clq", "p edge 3 1\ne 1 4\n"));
+    }
+}
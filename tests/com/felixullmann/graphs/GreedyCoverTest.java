@@ -0,0 +1,72 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GreedyCoverTest {
+
+    // recalculates all scores in every step
+    private static IntVertexSet greedyByRescan(CsrGraph graph, int score) {
+        IntVertexSet cover = new IntVertexSet(graph.n);
+        while(!graph.isVertexCover(cover)) {
+            int best = -1;
+            double bestScore = 0;
+            for(int v = 0; v < graph.n; v++) {
+                if(cover.contains(v))
+                    continue;
+                int degree = 0;
+                long neighborWeight = 0;
+                for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++) {
+                    if(!cover.contains(graph.targets[i])) {
+                        degree++;
+                        neighborWeight += graph.weights[graph.targets[i]];
+                    }
+                }
+                if(degree == 0)
+                    continue;
+                double value = score == GreedyCover.MAX_DEGREE ? degree
+                        : score == GreedyCover.NEIGHBOR_WEIGHT_RATIO ? (double) neighborWeight / graph.weights[v]
+                        : neighborWeight - graph.weights[v];
+                if(best < 0 || value > bestScore) {
+                    best = v;
+                    bestScore = value;
+                }
+            }
+            cover.add(best);
+        }
+        return cover;
+    }
+
+    @Test
+    public void sameAsRescan() {
+        Random random = new Random(29);
+        for(int round = 0; round < 60; round++) {
+            int n = 2 + random.nextInt(100);
+            CsrGraph graph = TestGraphs.random(random, n, random.nextInt(4 * n), 50);
+
+            for(int score = GreedyCover.MAX_DEGREE; score <= GreedyCover.NEIGHBOR_WEIGHT_DIFFERENCE; score++)
+                assertEquals(greedyByRescan(graph, score), new GreedyCover(graph, score).solve());
+        }
+    }
+
+    @Test
+    public void updatesScores() {
+        // star around 0 with the leaves 1..3, where 1 is also the center of a larger star with the leaves 4..7
+        int[] from = {0, 0, 0, 1, 1, 1, 1};
+        int[] to   = {1, 2, 3, 4, 5, 6, 7};
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1, 2, 3, 4, 5, 6, 7}, new long[]{1, 1, 1, 1, 1, 1, 1, 1}, from, to, from.length);
+
+        // once 1 is in the cover, 0 has degree 2 and beats the leaves of 1
+        IntVertexSet cover = graph.getGreedyCover(graph.maxDegreeComparator);
+        assertEquals(2, cover.size());
+        assertTrue(cover.contains(0) && cover.contains(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownScore() {
+        new GreedyCover(CsrGraph.fromEdges(new int[]{0}, new long[]{1}, new int[0], new int[0], 0), 3);
+    }
+}
@@ -0,0 +1,153 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IncrementalSearchTest {
+
+    // vertices 0..n-1 with random weights and edges
+    private static IntegerGraph randomGraph(Random random, int n, int m) {
+        Set<Integer> vertices = new Set<>();
+        HashMap<Integer, Integer> weights = new HashMap<>();
+        HashMap<Integer, Set<Integer>> adjacency = new HashMap<>();
+        for(int v = 0; v < n; v++) {
+            vertices.add(v);
+            weights.put(v, 1 + random.nextInt(100));
+            adjacency.put(v, new Set<>());
+        }
+        for(int e = 0; e < m; e++) {
+            int a = random.nextInt(n), b = random.nextInt(n);
+            if(a == b)
+                continue;
+            adjacency.get(a).add(b);
+            adjacency.get(b).add(a);
+        }
+        return new IntegerGraph(vertices, weights, adjacency);
+    }
+
+    // a few changes of every kind, nextLabel is the first unused label
+    private static GraphDelta randomDelta(Random random, IntegerGraph graph, int nextLabel) {
+        List<Integer> vertices = new ArrayList<>(graph.vertices);
+        vertices.sort(null);
+        GraphDelta delta = new GraphDelta();
+        Set<Integer> removed = new Set<>();
+        for(int i = 0; i < 2; i++)
+            removed.add(vertices.get(random.nextInt(vertices.size())));
+        removed.forEach(delta::removeVertex);
+        vertices.removeAll(removed);
+
+        for(int i = 0; i < 3; i++) {
+            delta.addVertex(nextLabel + i, 1 + random.nextInt(100));
+            vertices.add(nextLabel + i);
+        }
+        for(int i = 0; i < 5; i++) {
+            int a = vertices.get(random.nextInt(vertices.size()));
+            Set<Integer> neighbors = graph.adjacency.get(a);
+            if(neighbors == null)
+                continue;
+            for(Integer b : neighbors) {
+                if(!removed.contains(b)) {
+                    delta.removeEdge(a, b);
+                    break;
+                }
+            }
+        }
+        for(int i = 0; i < 8; i++)
+            delta.addEdge(vertices.get(random.nextInt(vertices.size())), vertices.get(random.nextInt(vertices.size())));
+        for(int i = 0; i < 4; i++)
+            delta.setWeight(vertices.get(random.nextInt(vertices.size())), 1 + random.nextInt(100));
+        return delta;
+    }
+
+    @Test
+    public void deltaMatchesRebuild() {
+        Random random = new Random(11);
+        for(int round = 0; round < 30; round++) {
+            IntegerGraph integerGraph = randomGraph(random, 5 + random.nextInt(60), random.nextInt(150));
+            CsrGraph graph = integerGraph.toCsr();
+            GraphDelta delta = randomDelta(random, integerGraph, 1000);
+
+            CsrGraph updated = delta.applyTo(graph);
+            delta.applyTo(integerGraph);
+            CsrGraph rebuilt = integerGraph.toCsr();
+
+            assertArrayEquals(rebuilt.labels, updated.labels);
+            assertArrayEquals(rebuilt.weights, updated.weights);
+            assertArrayEquals(rebuilt.offsets, updated.offsets);
+            assertArrayEquals(rebuilt.targets, updated.targets);
+        }
+    }
+
+    @Test
+    public void updateKeepsLocalOptimum() {
+        Random random = new Random(12);
+        IntegerGraph integerGraph = randomGraph(random, 400, 1200);
+        IncrementalSearch search = IncrementalSearch.solve(integerGraph.toCsr(), integerGraph.toCsr().getVertices(), 3);
+
+        for(int round = 0; round < 20; round++) {
+            GraphDelta delta = randomDelta(random, integerGraph, 1000 + 3 * round);
+            delta.applyTo(integerGraph);
+            IntVertexSet cover = search.update(delta);
+            CsrGraph graph = search.getGraph();
+
+            assertEquals(integerGraph.vertices.size(), graph.n);
+            assertTrue(graph.isVertexCover(cover));
+            // a search over all roots finds nothing the restricted one has missed
+            IntVertexSet full = graph.localSearch_pruning(cover.copy(), 3, 0);
+            assertEquals(graph.getSetWeight(cover), graph.getSetWeight(full));
+        }
+    }
+
+    @Test
+    public void repairsNewEdges() {
+        // path 0-1-2 with the cover {1}, the new edge 0-2 is covered by the lighter of its endpoints
+        Set<Integer> vertices = new Set<>();
+        HashMap<Integer, Integer> weights = new HashMap<>();
+        HashMap<Integer, Set<Integer>> adjacency = new HashMap<>();
+        for(int v = 0; v < 3; v++) {
+            vertices.add(v);
+            adjacency.put(v, new Set<>());
+        }
+        weights.put(0, 5);
+        weights.put(1, 1);
+        weights.put(2, 3);
+        adjacency.get(0).add(1);
+        adjacency.get(1).add(0);
+        adjacency.get(1).add(2);
+        adjacency.get(2).add(1);
+        IntegerGraph graph = new IntegerGraph(vertices, weights, adjacency);
+
+        Set<Integer> cover = new Set<>();
+        cover.add(1);
+        cover = graph.update(new GraphDelta().addEdge(0, 2), cover, 2);
+
+        assertTrue(graph.adjacency.get(0).contains(2));
+        assertTrue(graph.isVertexCover(cover));
+        assertEquals(4, graph.getSetWeight(cover));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVertex() {
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1}, new long[]{1, 1}, new int[]{0}, new int[]{1}, 1);
+        new GraphDelta().addEdge(0, 7).applyTo(graph);
+    }
+
+    @Test
+    public void weightOutOfIntRange() {
+        IntegerGraph graph = randomGraph(new Random(14), 10, 20);
+        int weight = graph.weights.get(3);
+        try {
+            graph.update(new GraphDelta().setWeight(3, weight + 1).setWeight(4, 1L << 40), graph.vertices, 2);
+            fail();
+        } catch(IllegalArgumentException e) {
+            // no change is applied
+            assertEquals(weight, (int) graph.weights.get(3));
+        }
+    }
+}
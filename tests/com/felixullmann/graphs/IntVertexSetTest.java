@@ -0,0 +1,106 @@
+package com.felixullmann.graphs;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+public class IntVertexSetTest {
+
+    private IntVertexSet emptySet;
+    private IntVertexSet set1;
+    private IntVertexSet set2;
+    private IntVertexSet denseSet;
+
+    @Before
+    public void setUp() {
+        emptySet = new IntVertexSet();
+        set1 = of(1,2,3,4);
+        set2 = of(3,4,5,6);
+        denseSet = new IntVertexSet(200);
+        for(int i = 0; i < 200; i += 3)
+            denseSet.add(i);
+    }
+
+    private static IntVertexSet of(int... vertices) {
+        IntVertexSet set = new IntVertexSet();
+        for(int vertex : vertices)
+            set.add(vertex);
+        return set;
+    }
+
+    @Test
+    public void union() {
+        assertEquals(of(1,2,3,4), set1.union(emptySet));
+        assertEquals(of(1,2,3,4,5,6), set1.union(set2));
+        assertEquals(70, denseSet.union(set1).size());
+
+        // check that set1 and set2 remain unchanged
+        assertEquals(4, set1.size());
+        assertEquals(4, set2.size());
+    }
+
+    @Test
+    public void intersect() {
+        assertEquals(new IntVertexSet(), set1.intersect(emptySet));
+        assertEquals(of(3,4), set1.intersect(set2));
+        assertEquals(of(3,6), denseSet.intersect(set2));
+        assertEquals(of(3,6), set2.intersect(denseSet));
+
+        // check that set1 and set2 remain unchanged
+        assertEquals(4, set1.size());
+        assertEquals(4, set2.size());
+    }
+
+    @Test
+    public void minus() {
+        assertEquals(new IntVertexSet(), emptySet.minus(set2));
+        assertEquals(of(1,2,3,4), set1.minus(emptySet));
+        assertEquals(of(1,2), set1.minus(set2));
+        assertEquals(of(4,5), set2.minus(denseSet));
+        assertEquals(65, denseSet.minus(set2).size());
+
+        // check that set1 and set2 remain unchanged
+        assertEquals(0, emptySet.size());
+        assertEquals(4, set1.size());
+        assertEquals(4, set2.size());
+    }
+
+    @Test
+    public void inPlace() {
+        IntVertexSet destination = new IntVertexSet(8);
+        assertSame(destination, IntVertexSet.union(set1, set2, destination));
+        assertEquals(of(1,2,3,4,5,6), destination);
+        IntVertexSet.minus(set1, set2, destination);
+        assertEquals(of(1,2), destination);
+
+        set1.intersectInPlace(set2);
+        assertEquals(of(3,4), set1);
+        set2.minusInPlace(set1).unionInPlace(of(100));
+        assertEquals(of(5,6,100), set2);
+    }
+
+    @Test
+    public void sparseFallback() {
+        IntVertexSet set = new IntVertexSet();
+        for(int i = 0; i < 1000; i += 10)
+            set.add(i * 1000);
+
+        assertFalse(set.isSparse());
+        assertEquals(100, set.size());
+        assertTrue(set.contains(990000));
+        assertFalse(set.contains(990001));
+        assertTrue(of(7, 1 << 30).contains(1 << 30));
+    }
+
+    @Test
+    public void iteration() {
+        assertArrayEquals(new int[]{3,4,5,6}, set2.toIntArray());
+        assertEquals(Arrays.asList(1,2,3,4), Arrays.asList(set1.toArray(new Integer[0])));
+        assertEquals(198, denseSet.nextSetBit(197));
+        assertEquals(-1, denseSet.nextSetBit(199));
+        assertEquals(10, IntVertexSet.full(10).size());
+        assertEquals(64, IntVertexSet.full(64).nextSetBit(63) + 1);
+    }
+}
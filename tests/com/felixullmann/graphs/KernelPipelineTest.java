@@ -0,0 +1,76 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KernelPipelineTest {
+
+    // weight of a minimum cover by enumerating all subsets
+    @Test
+    public void kernelKeepsOptimum() {
+        Random random = new Random(19);
+        for(int round = 0; round < 300; round++) {
+            int n = 2 + random.nextInt(12);
+            CsrGraph graph = TestGraphs.relabelled(TestGraphs.random(random, n, random.nextInt(2 * n), 20), 1, 3);
+            KernelPipeline pipeline = KernelPipeline.withDefaultRules(graph);
+            CsrGraph kernel = pipeline.run();
+
+            assertEquals(TestGraphs.optimum(graph), TestGraphs.optimum(kernel) + pipeline.getOffset());
+        }
+    }
+
+    @Test
+    public void unfoldedCoverHasKernelWeight() {
+        Random random = new Random(23);
+        for(int round = 0; round < 100; round++) {
+            int n = 20 + random.nextInt(200);
+            CsrGraph graph = TestGraphs.relabelled(TestGraphs.random(random, n, random.nextInt(3 * n), 20), 1, 3);
+            KernelPipeline pipeline = KernelPipeline.withDefaultRules(graph);
+            CsrGraph kernel = pipeline.run();
+
+            IntVertexSet[] kernelCovers = {kernel.getVertices(), kernel.getGreedyCover(kernel.neighborWeightDifferenceComparator)};
+            for(IntVertexSet kernelCover : kernelCovers) {
+                IntVertexSet cover = pipeline.unfold(kernelCover);
+                assertTrue(graph.isVertexCover(cover));
+                assertEquals(kernel.getSetWeight(kernelCover) + pipeline.getOffset(), graph.getSetWeight(cover));
+            }
+        }
+    }
+
+    @Test
+    public void foldsPath() {
+        // on the weighted path 4 - 5 - 4 - 5 - 4 every leaf is lighter than its neighbor and gets folded
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1, 2, 3, 4}, new long[]{4, 5, 4, 5, 4},
+                new int[]{0, 1, 2, 3}, new int[]{1, 2, 3, 4}, 4);
+        KernelPipeline pipeline = new KernelPipeline(graph).addRule(new DegreeOneRule());
+        CsrGraph kernel = pipeline.run();
+
+        assertEquals(0, kernel.n);
+        assertEquals(10, pipeline.getOffset());
+        assertEquals(5, pipeline.getApplications(0));
+        IntVertexSet cover = pipeline.unfold(new IntVertexSet(0));
+        assertTrue(graph.isVertexCover(cover));
+        assertEquals(10, graph.getSetWeight(cover));
+        assertTrue(cover.contains(1) && cover.contains(3));
+    }
+
+    @Test
+    public void foldsFunnel() {
+        // v = 0 with out-neighbor u = 1 and the triangle 0, 2, 3, u continues to 4
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1, 2, 3, 4}, new long[]{10, 4, 8, 9, 7},
+                new int[]{0, 0, 0, 2, 1}, new int[]{1, 2, 3, 3, 4}, 5);
+        KernelPipeline pipeline = new KernelPipeline(graph).addRule(new FunnelRule());
+        CsrGraph kernel = pipeline.run();
+
+        assertEquals(1, pipeline.getApplications(0));
+        assertEquals(2, pipeline.getRemoved(0));
+        // 2 and 3 got the weights 2 and 3 and the neighbor 4
+        assertArrayEquals(new int[]{2, 3, 4}, kernel.labels);
+        assertArrayEquals(new long[]{2, 3, 7}, kernel.weights);
+        assertEquals(3, kernel.edgeCount());
+        assertEquals(TestGraphs.optimum(graph), TestGraphs.optimum(kernel) + pipeline.getOffset());
+    }
+}
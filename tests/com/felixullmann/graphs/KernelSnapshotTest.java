@@ -0,0 +1,86 @@
+package com.felixullmann.graphs;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class KernelSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void write(File file, String content) throws IOException {
+        try(PrintWriter writer = new PrintWriter(file)) {
+            writer.print(content);
+        }
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        // 10 - 20 - 30 with the middle vertex forced into the cover, 40 - 50 remains
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{40, 50}, new long[]{7, 9}, new int[]{0}, new int[]{1}, 1);
+        KernelSnapshot snapshot = new KernelSnapshot(graph, new int[]{20}, 4, 5, 3);
+
+        File file = new File(folder.getRoot(), "cache/snapshot.kernel");
+        snapshot.write(file);
+        KernelSnapshot restored = KernelSnapshot.read(file);
+
+        assertArrayEquals(new int[]{20}, restored.forced);
+        assertEquals(4, restored.forcedWeight);
+        assertEquals(5, restored.vertexCount);
+        assertEquals(3, restored.edgeCount);
+        assertArrayEquals(graph.labels, restored.kernel.labels);
+        assertArrayEquals(graph.weights, restored.kernel.weights);
+        assertArrayEquals(graph.offsets, restored.kernel.offsets);
+        assertArrayEquals(graph.targets, restored.kernel.targets);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedSnapshot() throws IOException {
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1}, new long[]{1, 1}, new int[]{0}, new int[]{1}, 1);
+        File file = folder.newFile("snapshot.kernel");
+        new KernelSnapshot(graph, new int[0], 0, 2, 1).write(file);
+        try(RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+            access.setLength(access.length() - 4);
+        }
+        KernelSnapshot.read(file);
+    }
+
+    @Test
+    public void corruptCacheIsDiscarded() throws IOException {
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1}, new long[]{1, 1}, new int[]{0}, new int[]{1}, 1);
+        File file = folder.newFile("snapshot.kernel");
+        write(file, "not a snapshot");
+
+        assertNull(KernelSnapshot.readCached(file));
+        assertFalse(file.exists());
+        assertNull(KernelSnapshot.readCached(file));
+
+        // the rebuilt kernel is written again and read from then on
+        new KernelSnapshot(graph, new int[0], 0, 2, 1).write(file);
+        assertArrayEquals(graph.targets, KernelSnapshot.readCached(file).kernel.targets);
+    }
+
+    @Test
+    public void keyDependsOnContentAndFlags() throws IOException {
+        File instance = folder.newFolder("instance");
+        write(new File(instance, "conflict_graph.txt"), "2 1\n0 1\n");
+        write(new File(instance, "node_weights.txt"), "0 1\n1 2\n");
+
+        File edges = new File(instance, "conflict_graph.txt"), weights = new File(instance, "node_weights.txt");
+
+        String key = KernelSnapshot.key("vc", edges, weights);
+        assertEquals(key, KernelSnapshot.key("vc", edges, weights));
+        assertNotEquals(key, KernelSnapshot.key("v", edges, weights));
+
+        write(weights, "0 1\n1 3\n");
+        assertNotEquals(key, KernelSnapshot.key("vc", edges, weights));
+    }
+}
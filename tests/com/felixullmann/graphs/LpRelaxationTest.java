@@ -0,0 +1,64 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LpRelaxationTest {
+
+    @Test
+    public void flowEqualsCut() {
+        Random random = new Random(31);
+        for(int round = 0; round < 100; round++) {
+            int n = 2 + random.nextInt(300);
+            CsrGraph graph = TestGraphs.random(random, n, random.nextInt(5 * n), 30);
+            LpRelaxation lp = new LpRelaxation(graph).solve();
+
+            // a feasible LP solution with the value of the flow proves that both are optimal
+            long cut = 0;
+            for(int v = 0; v < n; v++) {
+                cut += lp.getDoubledValue(v) * graph.weights[v];
+                for(int i = graph.offsets[v]; i < graph.offsets[v+1]; i++)
+                    assertTrue(lp.getDoubledValue(v) + lp.getDoubledValue(graph.targets[i]) >= 2);
+            }
+            assertEquals(cut, lp.getFlow());
+        }
+    }
+
+    @Test
+    public void persistency() {
+        Random random = new Random(32);
+        for(int round = 0; round < 200; round++) {
+            int n = 2 + random.nextInt(12);
+            CsrGraph graph = TestGraphs.random(random, n, random.nextInt(3 * n), 30);
+            LpRelaxation lp = new LpRelaxation(graph).solve();
+            long optimum = TestGraphs.optimum(graph);
+            assertTrue(lp.getLowerBound() <= optimum);
+
+            // fixing the ones and dropping the zeros keeps the optimum
+            IntVertexSet ones = lp.getOnes();
+            CsrGraph rest = graph.induced(lp.getHalves().toIntArray());
+            assertEquals(optimum, graph.getSetWeight(ones) + TestGraphs.optimum(rest));
+        }
+    }
+
+    @Test
+    public void bipartiteIsIntegral() {
+        // on a bipartite graph the LP is exact: path 0-1-2-3 with the optimum {1, 2}
+        CsrGraph graph = CsrGraph.fromEdges(new int[]{0, 1, 2, 3}, new long[]{4, 1, 1, 4}, new int[]{0, 1, 2}, new int[]{1, 2, 3}, 3);
+        LpRelaxation lp = new LpRelaxation(graph).solve();
+        assertEquals(2, lp.getLowerBound());
+        assertEquals(graph.toIds(java.util.Arrays.asList(1, 2)), lp.getOnes());
+        assertEquals(0, lp.getHalves().size());
+    }
+
+    @Test
+    public void searchStopsAtLowerBound() {
+        CsrGraph graph = TestGraphs.random(new Random(33), 200, 600, 30);
+        IntVertexSet initial = graph.getGreedyCover(graph.neighborWeightDifferenceComparator);
+        graph.lowerBound = graph.getSetWeight(initial);
+        assertEquals(initial, graph.localSearch_pruning(initial, 3, 0));
+    }
+}
@@ -0,0 +1,66 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PortfolioTest {
+
+    @Test
+    public void atLeastAsGoodAsEveryCombination() {
+        CsrGraph graph = TestGraphs.random(new Random(21), 500, 2000, 100);
+        Portfolio portfolio = new Portfolio(2, 3, 7).setRestarts(8).setStallTime(60000);
+        IntVertexSet cover = portfolio.solve(graph);
+
+        assertTrue(graph.isVertexCover(cover));
+        assertEquals(graph.getSetWeight(cover), portfolio.getBestWeight());
+        assertNotNull(portfolio.getBestRun());
+        IntVertexSet greedy = graph.getGreedyCover(graph.neighborWeightDifferenceComparator);
+        assertTrue(portfolio.getBestWeight() <= graph.getSetWeight(graph.localSearch_pruning(greedy, 3, 0)));
+        assertTrue(portfolio.getBestWeight() <= graph.getSetWeight(graph.localSearch_cycling(greedy, 3, 0)));
+    }
+
+    @Test
+    public void stopsAtTimeLimit() {
+        CsrGraph graph = TestGraphs.random(new Random(22), 20000, 100000, 100);
+        long start = System.nanoTime();
+        IntVertexSet cover = new Portfolio(2, 8, 7).setTimeLimit(300).solve(graph);
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("took " + millis + " ms", millis < 3000);
+        assertTrue(graph.isVertexCover(cover));
+    }
+
+    @Test
+    public void sharesTheGraph() {
+        CsrGraph graph = TestGraphs.random(new Random(23), 300, 900, 100);
+        int[] targets = graph.targets.clone();
+        long[] weights = graph.weights.clone();
+        new Portfolio(3, 3, 1).setRestarts(4).solve(graph);
+
+        // the runs only read the arrays and use views for their budgets
+        assertArrayEquals(targets, graph.targets);
+        assertArrayEquals(weights, graph.weights);
+        assertNull(graph.budget);
+        assertNull(graph.coverListener);
+    }
+
+    @Test
+    public void runsKeepMetricsAndLowerBound() {
+        CsrGraph graph = TestGraphs.random(new Random(24), 2000, 8000, 100);
+        CountingMetrics metrics = new CountingMetrics();
+        graph.metrics = metrics;
+        new Portfolio(2, 3, 1).setRestarts(2).solve(graph);
+        assertTrue(metrics.getSwaps(1) + metrics.getSwaps(2) + metrics.getSwaps(3) > 0);
+
+        // every cover reaches the bound, so no run applies a swap
+        CountingMetrics bounded = new CountingMetrics();
+        graph.metrics = bounded;
+        graph.lowerBound = Long.MAX_VALUE;
+        IntVertexSet cover = new Portfolio(2, 3, 1).setRestarts(2).solve(graph);
+        assertTrue(graph.isVertexCover(cover));
+        assertEquals(0, bounded.getSwaps(1) + bounded.getSwaps(2) + bounded.getSwaps(3));
+    }
+}
@@ -0,0 +1,94 @@
+package com.felixullmann.graphs;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SearchBudgetTest {
+
+    @Test
+    public void unlimitedBudgetChangesNothing() {
+        CsrGraph graph = TestGraphs.random(new Random(3), 300, 900, 100);
+        IntVertexSet expected = graph.localSearch_pruning(graph.getVertices(), 4, 0);
+
+        graph.budget = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(expected, graph.localSearch_pruning(graph.getVertices(), 4, 0));
+        assertFalse(graph.budget.isExhausted());
+    }
+
+    @Test
+    public void stopsAfterRoots() {
+        CsrGraph graph = TestGraphs.random(new Random(4), 300, 900, 100);
+        long optimum = graph.getSetWeight(graph.localSearch_pruning(graph.getVertices(), 4, 0));
+
+        graph.budget = SearchBudget.ofRoots(0);
+        assertEquals(graph.getVertices(), graph.localSearch_pruning(graph.getVertices(), 4, 0));
+        assertTrue(graph.budget.isExhausted());
+
+        // a few roots improve the cover, but do not reach the local optimum
+        graph.budget = SearchBudget.ofRoots(50);
+        IntVertexSet cover = graph.localSearch_pruning(graph.getVertices(), 4, 0);
+        assertTrue(graph.isVertexCover(cover));
+        assertTrue(graph.getSetWeight(cover) < graph.getSetWeight(graph.getVertices()));
+        assertTrue(graph.getSetWeight(cover) > optimum);
+    }
+
+    @Test
+    public void stopsWhenCancelled() {
+        CsrGraph graph = TestGraphs.random(new Random(5), 300, 900, 100);
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+        graph.budget = budget;
+        // cancel from the listener after the third improvement
+        int[] improvements = new int[1];
+        graph.coverListener = (g, cover, weight, elapsed) -> {
+            if(++improvements[0] == 3)
+                budget.cancel();
+        };
+        IntVertexSet cover = graph.localSearch_cycling(graph.getVertices(), 3, 0);
+        assertEquals(3, improvements[0]);
+        assertTrue(budget.isCancelled() && budget.isExhausted());
+        assertTrue(graph.isVertexCover(cover));
+    }
+
+    @Test
+    public void stopsAtDeadline() {
+        CsrGraph graph = TestGraphs.random(new Random(6), 20000, 100000, 100);
+        graph.budget = SearchBudget.ofMillis(100);
+        long start = System.nanoTime();
+        IntVertexSet cover = graph.localSearch_pruning(graph.getVertices(), 10, 0, 2);
+        long millis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue(graph.budget.isExhausted());
+        assertTrue("took " + millis + " ms", millis < 2000);
+        assertTrue(graph.isVertexCover(cover));
+        assertEquals(0, graph.budget.remainingNanos());
+    }
+
+    @Test
+    public void publishesImprovedCovers() {
+        CsrGraph graph = TestGraphs.random(new Random(7), 300, 900, 100);
+        List<IntVertexSet> covers = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+        graph.coverListener = (g, cover, weight, elapsed) -> {
+            assertSame(graph, g);
+            covers.add(cover);
+            weights.add(weight);
+        };
+        IntVertexSet result = graph.localSearch_pruning(graph.getVertices(), 4, 1000);
+
+        assertFalse(covers.isEmpty());
+        for(int i = 0; i < covers.size(); i++) {
+            assertTrue(graph.isVertexCover(covers.get(i)));
+            assertEquals(graph.getSetWeight(covers.get(i)) + 1000, (long) weights.get(i));
+            if(i > 0)
+                assertTrue(weights.get(i) < weights.get(i - 1));
+        }
+        // the listener owns copies, the last one is the returned cover
+        assertNotSame(result, covers.get(covers.size() - 1));
+        assertEquals(result, covers.get(covers.size() - 1));
+    }
+}
@@ -0,0 +1,161 @@
+package com.felixullmann.graphs;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Stack;
+
+import static org.junit.Assert.*;
+
+public class SwapEnumeratorTest {
+
+    private IntegerGraph testGraph;
+    private IntegerGraph symmetricGraph;
+
+    @Before
+    public void setUp() {
+        // graph from IntegerGraphTest
+        HashMap<Integer, Set<Integer>> adjacency = new HashMap<>();
+        HashMap<Integer, Integer> weights = new HashMap<>();
+
+        adjacency.put(0, new Set<>(Arrays.asList(2, 4, 5)));
+        adjacency.put(1, new Set<>(Arrays.asList(4, 5)));
+        adjacency.put(2, new Set<>(Arrays.asList(0, 3, 4)));
+        adjacency.put(3, new Set<>(Arrays.asList(2)));
+        adjacency.put(4, new Set<>(Arrays.asList(0, 1, 2, 5)));
+        adjacency.put(5, new Set<>(Arrays.asList(1, 4)));
+
+        weights.put(0, 3);
+        weights.put(1, 2);
+        weights.put(2, 3);
+        weights.put(3,1);
+        weights.put(4,4);
+        weights.put(5,6);
+
+        testGraph = new IntegerGraph(new Set<>(Arrays.asList(0,1,2,3,4,5)), weights, adjacency);
+
+        // random symmetric graph on 12 vertices
+        Random random = new Random(42);
+        Set<Integer> vertices = new Set<>();
+        adjacency = new HashMap<>();
+        weights = new HashMap<>();
+        for(int v = 0; v < 12; v++) {
+            vertices.add(v);
+            adjacency.put(v, new Set<>());
+            weights.put(v, 1 + random.nextInt(9));
+        }
+        for(int e = 0; e < 24; e++) {
+            int a = random.nextInt(12), b = random.nextInt(12);
+            if(a == b)
+                continue;
+            adjacency.get(a).add(b);
+            adjacency.get(b).add(a);
+        }
+        symmetricGraph = new IntegerGraph(vertices, weights, adjacency);
+    }
+
+    private static Set<Integer> subset(IntegerGraph graph, int mask) {
+        Set<Integer> set = new Set<>();
+        for(Integer v : graph.vertices) {
+            if((mask >> v & 1) != 0)
+                set.add(v);
+        }
+        return set;
+    }
+
+    private static void assertImprovingSwap(IntegerGraph graph, Set<Integer> swap, int k, Integer vertex, Set<Integer> cover) {
+        assertEquals(k, swap.size());
+        assertTrue(swap.contains(vertex));
+        assertTrue(graph.isIndependent(swap.intersect(cover)));
+        assertTrue(graph.getSetWeight(swap.intersect(cover)) > graph.getSetWeight(swap.minus(cover)));
+        assertTrue(graph.isVertexCover(cover.minus(swap).union(swap.minus(cover))));
+    }
+
+    @Test
+    public void sameSwapsAsGenerateSwap() {
+        CsrGraph csr = testGraph.toCsr();
+        SwapEnumerator enumerator = new SwapEnumerator(csr, 2);
+
+        // every subset of the six vertices, not only covers
+        for(int mask = 0; mask < 1 << 6; mask++) {
+            Set<Integer> cover = subset(testGraph, mask);
+            IntVertexSet denseCover = csr.toIds(cover);
+
+            for(int k = 1; k <= 5; k++) {
+                for(Integer vertex : testGraph.vertices) {
+                    Set<Integer> expected = testGraph.generateSwap(k, vertex, cover);
+                    boolean found = enumerator.generateSwap(k, csr.indexOf(vertex), denseCover);
+
+                    assertEquals(!expected.isEmpty(), found);
+                    if(found)
+                        assertEquals(expected, csr.toLabels(enumerator.getSwap()));
+                }
+            }
+        }
+    }
+
+    // on larger graphs the order of HashSet iteration is not ascending anymore, so only existence has to match
+    @Test
+    public void sameSwapsOnLargerGraph() {
+        CsrGraph csr = symmetricGraph.toCsr();
+        SwapEnumerator enumerator = new SwapEnumerator(csr, 5);
+
+        for(int mask = 0; mask < 1 << 12; mask++) {
+            Set<Integer> cover = subset(symmetricGraph, mask);
+            if(!symmetricGraph.isVertexCover(cover))
+                continue;
+            IntVertexSet denseCover = csr.toIds(cover);
+
+            for(int k = 1; k <= 5; k++) {
+                for(Integer vertex : symmetricGraph.vertices) {
+                    Set<Integer> expected = symmetricGraph.generateSwap(k, vertex, cover);
+                    boolean found = enumerator.generateSwap(k, csr.indexOf(vertex), denseCover);
+
+                    assertEquals(!expected.isEmpty(), found);
+                    if(found)
+                        assertImprovingSwap(symmetricGraph, csr.toLabels(enumerator.getSwap()), k, vertex, cover);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameSwapsAsPruningEnumerate() {
+        CsrGraph csr = symmetricGraph.toCsr();
+        SwapEnumerator enumerator = new SwapEnumerator(csr, 5);
+        Random random = new Random(7);
+
+        for(int round = 0; round < 2000; round++) {
+            Set<Integer> cover = subset(symmetricGraph, random.nextInt(1 << 12));
+            if(!symmetricGraph.isVertexCover(cover))
+                continue;
+            Set<Integer> recent = subset(symmetricGraph, random.nextInt(1 << 12));
+            IntVertexSet denseCover = csr.toIds(cover);
+            IntVertexSet denseRecent = csr.toIds(recent);
+
+            for(int k = 2; k <= 5; k++) {
+                for(Integer vertex : symmetricGraph.vertices) {
+                    // set up S, P and F like localSearch_pruning does
+                    Set<Integer> S = symmetricGraph.getNeighbors(vertex).minus(cover);
+                    S.add(vertex);
+                    Stack<Integer> P = new Stack<>();
+                    P.addAll(symmetricGraph.getNeighbors(vertex).minus(cover));
+                    if(P.isEmpty())
+                        continue;
+                    Integer p = P.pop();
+                    Set<Integer> F = symmetricGraph.vertices.minus(recent).union(symmetricGraph.getNeighbors(vertex)).intersect(cover);
+
+                    Set<Integer> expected = symmetricGraph.enumerate(k, cover, S, p, P, F);
+                    boolean found = enumerator.generateSwap(k, csr.indexOf(vertex), denseCover, denseRecent);
+
+                    assertEquals(!expected.isEmpty(), found);
+                    if(found)
+                        assertImprovingSwap(symmetricGraph, csr.toLabels(enumerator.getSwap()), k, vertex, cover);
+                }
+            }
+        }
+    }
+}
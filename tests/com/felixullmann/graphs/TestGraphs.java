@@ -0,0 +1,89 @@
+package com.felixullmann.graphs;
+
+import java.util.Random;
+
+/**
+ * Graphs and reference solutions for the tests. Random edges are drawn uniformly, so parallel edges and loops occur
+ * and are dropped by CsrGraph.fromEdges.
+ */
+public class TestGraphs {
+
+    private TestGraphs() {
+    }
+
+    /**
+     * @param n number of vertices
+     * @param m number of drawn edges
+     * @param maxWeight weights are drawn uniformly from 1..maxWeight
+     * @return returns the graph with labels 0..n-1
+     */
+    public static CsrGraph random(Random random, int n, int m, int maxWeight) {
+        int[] labels = new int[n], from = new int[m], to = new int[m];
+        long[] weights = new long[n];
+        for(int v = 0; v < n; v++) {
+            labels[v] = v;
+            weights[v] = 1 + random.nextInt(maxWeight);
+        }
+        for(int e = 0; e < m; e++) {
+            from[e] = random.nextInt(n);
+            to[e] = random.nextInt(n);
+        }
+        return CsrGraph.fromEdges(labels, weights, from, to, m);
+    }
+
+    /**
+     * @return returns the graph with the rows and weights of graph and vertex v labelled first + step * v
+     */
+    public static CsrGraph relabelled(CsrGraph graph, int first, int step) {
+        int[] labels = new int[graph.n];
+        for(int v = 0; v < graph.n; v++)
+            labels[v] = first + step * v;
+        return new CsrGraph(graph.offsets, graph.targets, graph.weights, labels);
+    }
+
+    /**
+     * Builds count disjoint components, each a random tree plus as many random edges inside the component.
+     * @param minSize smallest component, the sizes are drawn from minSize..maxSize
+     * @return returns the graph with labels 0..n-1 and weights from 1..maxWeight
+     */
+    public static CsrGraph components(Random random, int count, int minSize, int maxSize, int maxWeight) {
+        int n = 0, m = 0;
+        int[] from = new int[2 * count * maxSize], to = new int[2 * count * maxSize];
+        for(int c = 0; c < count; c++) {
+            int size = minSize + random.nextInt(maxSize - minSize + 1);
+            for(int i = 1; i < size; i++) {
+                from[m] = n + i;
+                to[m++] = n + random.nextInt(i);
+                from[m] = n + random.nextInt(size);
+                to[m++] = n + random.nextInt(size);
+            }
+            n += size;
+        }
+
+        int[] labels = new int[n];
+        long[] weights = new long[n];
+        for(int v = 0; v < n; v++) {
+            labels[v] = v;
+            weights[v] = 1 + random.nextInt(maxWeight);
+        }
+        return CsrGraph.fromEdges(labels, weights, from, to, m);
+    }
+
+    /**
+     * Tries all subsets of the vertices, so graph should have at most about 20 of them.
+     * @return returns the weight of a minimum weight vertex cover
+     */
+    public static long optimum(CsrGraph graph) {
+        long best = Long.MAX_VALUE;
+        for(int mask = 0; mask < 1 << graph.n; mask++) {
+            IntVertexSet cover = new IntVertexSet(graph.n);
+            for(int v = 0; v < graph.n; v++) {
+                if((mask & 1 << v) != 0)
+                    cover.add(v);
+            }
+            if(graph.isVertexCover(cover))
+                best = Math.min(best, graph.getSetWeight(cover));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,86 @@
+package com.felixullmann.graphs;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VrpLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File instance;
+
+    private static void write(File file, String content) throws IOException {
+        try(PrintWriter writer = new PrintWriter(file)) {
+            writer.print(content);
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        // symmetric version of the graph from IntegerGraphTest, vertex lines out of order and without final newline
+        instance = folder.newFolder("instance");
+        write(new File(instance, "conflict_graph.txt"), "6 7\n0 2\n0 4\n0 5\n1 4\n1 5\n2 3\n2 4\n4 5\n");
+        write(new File(instance, "node_weights.txt"), "3 1\n0 3\n1 2\n2 3\n5 6\n4 4");
+    }
+
+    @Test
+    public void load() throws IOException {
+        CsrGraph graph = VrpLoader.load(instance.getPath(), 1);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, graph.labels);
+        assertArrayEquals(new long[]{3, 2, 3, 1, 4, 6}, graph.weights);
+        assertEquals(8, graph.edgeCount());
+        assertArrayEquals(new int[]{0, 1, 4}, Arrays.copyOfRange(graph.targets, graph.offsets[5], graph.offsets[6]));
+    }
+
+    @Test
+    public void chunksMatchSingleChunk() throws IOException {
+        // random instance with sparse vertex ids, parsed with many small chunks
+        Random random = new Random(5);
+        File directory = folder.newFolder("random");
+        StringBuilder vertices = new StringBuilder(), edges = new StringBuilder("500 3000\n");
+        for(int v = 0; v < 500; v++)
+            vertices.append(v * 7).append(' ').append(1 + random.nextInt(200)).append('\n');
+        for(int e = 0; e < 3000; e++)
+            edges.append(random.nextInt(500) * 7).append(' ').append(random.nextInt(500) * 7).append('\n');
+        write(new File(directory, "node_weights.txt"), vertices.toString());
+        write(new File(directory, "conflict_graph.txt"), edges.toString());
+
+        CsrGraph single = VrpLoader.load(directory.getPath(), 1, 1);
+        CsrGraph chunked = VrpLoader.load(directory.getPath(), 4, 37);
+
+        assertArrayEquals(single.labels, chunked.labels);
+        assertArrayEquals(single.weights, chunked.weights);
+        assertArrayEquals(single.offsets, chunked.offsets);
+        assertArrayEquals(single.targets, chunked.targets);
+        assertEquals(7 * 499, chunked.labels[499]);
+    }
+
+    @Test
+    public void laterWeightLineWins() throws IOException {
+        write(new File(instance, "conflict_graph.txt"), "3 2\n-2 7\n7 0\n");
+        write(new File(instance, "node_weights.txt"), "7 1\n0 5\n-2 3\n7 9\n0 2\n");
+        CsrGraph graph = VrpLoader.load(instance.getPath(), 1);
+
+        assertArrayEquals(new int[]{-2, 0, 7}, graph.labels);
+        assertArrayEquals(new long[]{3, 2, 9}, graph.weights);
+        assertEquals(2, graph.edgeCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownVertex() throws IOException {
+        write(new File(instance, "conflict_graph.txt"), "6 1\n0 9\n");
+        VrpLoader.load(instance.getPath(), 1);
+    }
+}